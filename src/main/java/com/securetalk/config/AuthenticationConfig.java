@@ -0,0 +1,32 @@
+package com.securetalk.config;
+
+import com.securetalk.service.security.LoginAttemptService;
+import com.securetalk.service.security.PrincipalUserDetailsService;
+import com.securetalk.service.security.ThrottledAuthenticationProvider;
+import com.securetalk.service.user.UserActivityService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Configuration du fournisseur d'authentification par identifiant et mot de passe
+ */
+@Configuration
+public class AuthenticationConfig {
+
+    /**
+     * Authentification par mot de passe (principaux en cache, hachage borné), précédée du
+     * contrôle des échecs récents par identifiant et par adresse IP
+     */
+    @Bean
+    public AuthenticationProvider authenticationProvider(PrincipalUserDetailsService userDetailsService,
+                                                         PasswordEncoder passwordEncoder,
+                                                         LoginAttemptService loginAttemptService,
+                                                         UserActivityService userActivityService) {
+        DaoAuthenticationProvider daoProvider = new DaoAuthenticationProvider(userDetailsService);
+        daoProvider.setPasswordEncoder(passwordEncoder);
+        return new ThrottledAuthenticationProvider(daoProvider, loginAttemptService, userActivityService);
+    }
+}
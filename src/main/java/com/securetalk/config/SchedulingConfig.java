@@ -0,0 +1,12 @@
+package com.securetalk.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active les tâches planifiées (purges, flush périodiques des états en mémoire)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,40 @@
+package com.securetalk.config;
+
+import com.securetalk.service.security.JwtAuthenticationFilter;
+import com.securetalk.service.security.JwtClaimsCache;
+import com.securetalk.service.security.PrincipalUserDetailsService;
+import com.securetalk.service.session.SessionActivityTracker;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+/**
+ * Chaîne de sécurité HTTP : API sans état authentifiée par JWT d'accès
+ */
+@Configuration
+@EnableWebSecurity
+public class SecurityConfig {
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   JwtClaimsCache claimsCache,
+                                                   PrincipalUserDetailsService userDetailsService,
+                                                   SessionActivityTracker activityTracker) throws Exception {
+        http
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/api/auth/**", "/api/users/availability").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/info").permitAll()
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        .anyRequest().authenticated())
+                .addFilterBefore(new JwtAuthenticationFilter(claimsCache, userDetailsService, activityTracker),
+                        UsernamePasswordAuthenticationFilter.class);
+        return http.build();
+    }
+}
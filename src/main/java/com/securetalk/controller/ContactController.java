@@ -0,0 +1,36 @@
+package com.securetalk.controller;
+
+import com.securetalk.dto.response.ConversationDto;
+import com.securetalk.model.User;
+import com.securetalk.service.contact.UserContactService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Contrôleur de la boîte de réception (contacts triés par dernier échange)
+ */
+@RestController
+@RequestMapping("/api/contacts")
+@RequiredArgsConstructor
+public class ContactController {
+
+    private final UserContactService userContactService;
+
+    /**
+     * Conversations de l'utilisateur courant, de la plus récente à la plus ancienne
+     */
+    @GetMapping("/inbox")
+    public ResponseEntity<Page<ConversationDto>> inbox(@AuthenticationPrincipal User currentUser,
+                                                       @RequestParam(defaultValue = "0") int page,
+                                                       @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(userContactService.getInbox(currentUser.getId(),
+                PageRequest.of(page, Math.min(size, 100))));
+    }
+}
@@ -0,0 +1,37 @@
+package com.securetalk.controller;
+
+import com.securetalk.dto.response.IdentifierAvailabilityDto;
+import com.securetalk.service.user.IdentifierAvailabilityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Contrôleur de vérification de disponibilité des identifiants (formulaire d'inscription)
+ */
+@RestController
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
+public class IdentifierAvailabilityController {
+
+    private final IdentifierAvailabilityService identifierAvailabilityService;
+
+    /**
+     * Indique si le nom d'utilisateur et/ou l'email saisis sont libres
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<IdentifierAvailabilityDto> availability(@RequestParam(required = false) String username,
+                                                                  @RequestParam(required = false) String email) {
+        return ResponseEntity.ok(IdentifierAvailabilityDto.builder()
+                .usernameAvailable(isBlank(username) ? null : identifierAvailabilityService.isUsernameAvailable(username))
+                .emailAvailable(isBlank(email) ? null : identifierAvailabilityService.isEmailAvailable(email))
+                .build());
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
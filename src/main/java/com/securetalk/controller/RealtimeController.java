@@ -0,0 +1,57 @@
+package com.securetalk.controller;
+
+import com.securetalk.dto.request.realtime.TypingEventRequest;
+import com.securetalk.model.User;
+import com.securetalk.service.presence.PresenceRegistry;
+import com.securetalk.service.realtime.EphemeralEventService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Contrôleur des événements temps réel éphémères
+ */
+@RestController
+@RequestMapping("/api/realtime")
+@RequiredArgsConstructor
+public class RealtimeController {
+
+    private final EphemeralEventService ephemeralEventService;
+
+    private final PresenceRegistry presenceRegistry;
+
+    /**
+     * Flux SSE des événements de saisie et de présence de l'utilisateur courant
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@AuthenticationPrincipal User currentUser) {
+        return ephemeralEventService.subscribe(currentUser.getId());
+    }
+
+    /**
+     * Signale que l'utilisateur courant écrit à un destinataire
+     */
+    @PostMapping("/typing")
+    public ResponseEntity<Void> typing(@AuthenticationPrincipal User currentUser,
+                                       @Valid @RequestBody TypingEventRequest request) {
+        ephemeralEventService.publishTyping(currentUser.getId(), request.getRecipientId(), request.getTyping());
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Battement de cœur de présence, à envoyer périodiquement par le client
+     */
+    @PostMapping("/heartbeat")
+    public ResponseEntity<Void> heartbeat(@AuthenticationPrincipal User currentUser) {
+        presenceRegistry.heartbeat(currentUser.getId());
+        return ResponseEntity.noContent().build();
+    }
+}
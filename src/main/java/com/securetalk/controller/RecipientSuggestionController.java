@@ -0,0 +1,35 @@
+package com.securetalk.controller;
+
+import com.securetalk.dto.response.UserSuggestionDto;
+import com.securetalk.model.User;
+import com.securetalk.service.search.RecipientSuggestionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Contrôleur d'autocomplétion des destinataires
+ */
+@RestController
+@RequestMapping("/api/recipients")
+@RequiredArgsConstructor
+public class RecipientSuggestionController {
+
+    private final RecipientSuggestionService recipientSuggestionService;
+
+    /**
+     * Suggestions de destinataires pour le préfixe saisi
+     */
+    @GetMapping("/suggestions")
+    public ResponseEntity<List<UserSuggestionDto>> suggestions(@AuthenticationPrincipal User currentUser,
+                                                               @RequestParam(name = "q", defaultValue = "") String prefix,
+                                                               @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(recipientSuggestionService.suggest(currentUser.getId(), prefix, limit));
+    }
+}
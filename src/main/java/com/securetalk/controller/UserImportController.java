@@ -0,0 +1,48 @@
+package com.securetalk.controller;
+
+import com.securetalk.dto.response.UserImportResult;
+import com.securetalk.model.User;
+import com.securetalk.service.user.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Contrôleur d'import d'utilisateurs en masse (admin uniquement).
+ * Le corps de la requête est lu en flux : {@code text/csv} ou {@code application/x-ndjson}.
+ */
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+public class UserImportController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final UserImportService userImportService;
+
+    /**
+     * Importe les utilisateurs du fichier et rapporte les lignes rejetées
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", NDJSON})
+    public ResponseEntity<UserImportResult> importUsers(@AuthenticationPrincipal User currentUser,
+                                                        @RequestHeader("Content-Type") String contentType,
+                                                        HttpServletRequest request) throws IOException {
+        if (!currentUser.isAdmin()) {
+            throw new AccessDeniedException("Import réservé aux administrateurs");
+        }
+        UserImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.valueOf(NDJSON))
+                ? UserImportService.Format.NDJSON
+                : UserImportService.Format.CSV;
+        return ResponseEntity.ok(userImportService.importUsers(request.getInputStream(), format,
+                currentUser.getUsername()));
+    }
+}
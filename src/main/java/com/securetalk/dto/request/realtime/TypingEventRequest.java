@@ -0,0 +1,21 @@
+package com.securetalk.dto.request.realtime;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO pour signaler qu'un utilisateur est en train d'écrire
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypingEventRequest {
+
+    @NotNull(message = "L'ID du destinataire est requis")
+    private Long recipientId;
+
+    @NotNull(message = "L'état de saisie est requis")
+    private Boolean typing;
+}
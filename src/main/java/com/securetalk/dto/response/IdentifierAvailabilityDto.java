@@ -0,0 +1,22 @@
+package com.securetalk.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de disponibilité d'un nom d'utilisateur et/ou d'un email (champs absents si non demandés)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IdentifierAvailabilityDto {
+
+    private Boolean usernameAvailable;
+
+    private Boolean emailAvailable;
+}
@@ -0,0 +1,31 @@
+package com.securetalk.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO des événements temps réel éphémères (jamais persistés)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RealtimeEventDto {
+
+    private String type; // TYPING, PRESENCE
+
+    private Long userId; // Utilisateur à l'origine de l'événement
+
+    private Long conversationWith; // Destinataire pour les événements de saisie
+
+    private Boolean active; // En train d'écrire / en ligne
+
+    @Builder.Default
+    private LocalDateTime timestamp = LocalDateTime.now();
+}
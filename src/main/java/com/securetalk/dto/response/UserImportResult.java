@@ -0,0 +1,47 @@
+package com.securetalk.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Rapport d'un import d'utilisateurs en masse
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResult {
+
+    private Long totalRows;
+
+    private Long importedRows;
+
+    private Long failedRows;
+
+    private Long durationMs;
+
+    private Double rowsPerSecond; // Débit des lignes importées
+
+    private List<RowError> errors; // Limité aux premières erreurs
+
+    private Boolean errorsTruncated;
+
+    /**
+     * Erreur sur une ligne du fichier (numéro de ligne à partir de 1, en-tête CSV compris)
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        private Long line;
+
+        private String message;
+    }
+}
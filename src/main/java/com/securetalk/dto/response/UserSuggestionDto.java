@@ -0,0 +1,22 @@
+package com.securetalk.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de suggestion de destinataire (autocomplétion)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSuggestionDto {
+
+    private Long id;
+
+    private String username;
+
+    private String displayName;
+}
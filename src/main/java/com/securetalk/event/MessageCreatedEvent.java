@@ -0,0 +1,24 @@
+package com.securetalk.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement applicatif émis à l'insertion d'un message
+ */
+@Getter
+@AllArgsConstructor
+public class MessageCreatedEvent {
+
+    private final Long messageId;
+
+    private final Long senderId;
+
+    private final Long recipientId;
+
+    private final LocalDateTime timestamp;
+
+    private final String messageType; // TEXT, IMAGE, FILE, etc. (le contenu, chiffré, n'est pas transmis)
+}
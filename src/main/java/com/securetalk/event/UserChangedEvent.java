@@ -0,0 +1,31 @@
+package com.securetalk.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Événement applicatif émis après la création, la modification ou la suppression d'un utilisateur.
+ * Porte un instantané des champs utiles aux index en mémoire.
+ */
+@Getter
+@AllArgsConstructor
+public class UserChangedEvent {
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final ChangeType changeType;
+
+    private final Long userId;
+
+    private final String username;
+
+    private final String email;
+
+    private final String firstName;
+
+    private final String lastName;
+
+    private final boolean enabled;
+}
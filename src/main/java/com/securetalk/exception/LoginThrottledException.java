@@ -0,0 +1,21 @@
+package com.securetalk.exception;
+
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Levée quand un identifiant ou une adresse IP a dépassé le nombre d'échecs de connexion
+ * autorisé sur la fenêtre glissante ; traduite en 429 avec un en-tête {@code Retry-After}
+ */
+public class LoginThrottledException extends AuthenticationException {
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,19 @@
+package com.securetalk.exception;
+
+/**
+ * Levée quand une ressource bornée (pool dédié, file d'attente) est saturée ;
+ * traduite en 503 avec un en-tête {@code Retry-After}
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,5 +1,6 @@
 package com.securetalk.model;
 
+import com.securetalk.model.listener.AuditLogEntityListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -10,6 +11,7 @@ import java.util.Map;
  * Entité pour l'audit et le tracking des actions dans l'application
  */
 @Entity
+@EntityListeners(AuditLogEntityListener.class)
 @Table(name = "audit_logs",
         indexes = {
                 @Index(name = "idx_audit_log_user", columnList = "user_id"),
@@ -24,7 +26,7 @@ import java.util.Map;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@ToString(exclude = {"user"})
+@ToString(exclude = {"user", "userAgent"})
 public class AuditLog extends BaseEntity {
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -44,11 +46,13 @@ public class AuditLog extends BaseEntity {
     @Builder.Default
     private LocalDateTime timestamp = LocalDateTime.now();
 
-    @Column(name = "ip_address", length = 45)
+    @Column(name = "ip_address", columnDefinition = "VARBINARY(16)")
+    @Convert(converter = IpAddressConverter.class)
     private String ipAddress;
 
-    @Column(name = "user_agent", length = 1000)
-    private String userAgent;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_agent_id", foreignKey = @ForeignKey(name = "fk_audit_log_user_agent"))
+    private UserAgent userAgent; // Dictionnaire partagé (voir UserAgentDictionary)
 
     @Column(name = "session_id", length = 100)
     private String sessionId;
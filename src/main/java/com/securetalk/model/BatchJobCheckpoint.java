@@ -0,0 +1,43 @@
+package com.securetalk.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Point de reprise d'un job par lots : dernière clé traitée du passage en cours.
+ * <p>
+ * Mis à jour dans la transaction de chaque tranche ; un job interrompu reprend après
+ * {@code lastId} au lieu de repartir du début.
+ */
+@Entity
+@Table(name = "batch_job_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchJobCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Column(name = "last_id", nullable = false)
+    @Builder.Default
+    private Long lastId = 0L;
+
+    @Column(name = "processed_count", nullable = false)
+    @Builder.Default
+    private Long processedCount = 0L; // Éléments traités dans le passage en cours
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt; // Null tant que le passage en cours n'est pas terminé
+}
@@ -0,0 +1,146 @@
+package com.securetalk.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Stocke les adresses IP en VARBINARY(16) : IPv6 sur 16 octets, IPv4 sous sa forme IPv4-mappée
+ * ({@code ::ffff:a.b.c.d}). Toutes les valeurs ont ainsi la même longueur et l'ordre des octets
+ * est celui des adresses : un sous-réseau est une plage contiguë de l'index.
+ * <p>
+ * Seules les adresses littérales sont acceptées (jamais de résolution DNS) ; une valeur
+ * illisible est stockée comme NULL.
+ */
+@Converter
+public class IpAddressConverter implements AttributeConverter<String, byte[]> {
+
+    static final int ADDRESS_BYTES = 16;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String address) {
+        return toBytes(address);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] bytes) {
+        return toText(bytes);
+    }
+
+    /**
+     * Adresse sur 16 octets, ou null si la valeur n'est pas une adresse IP littérale
+     */
+    public static byte[] toBytes(String address) {
+        if (address == null) {
+            return null;
+        }
+        String value = address.trim();
+        int zone = value.indexOf('%');
+        if (zone >= 0) {
+            value = value.substring(0, zone);
+        }
+        if (value.indexOf(':') >= 0) {
+            if (!hasIpv6Characters(value)) {
+                return null;
+            }
+            // Littéral IPv6 (chiffres hexadécimaux, ':' et '.') : InetAddress ne tente aucune résolution
+            try {
+                byte[] parsed = InetAddress.getByName(value).getAddress();
+                return parsed.length == 4 ? mapped(parsed) : parsed;
+            } catch (UnknownHostException e) {
+                return null;
+            }
+        }
+        byte[] ipv4 = parseIpv4(value);
+        return ipv4 != null ? mapped(ipv4) : null;
+    }
+
+    /**
+     * Forme textuelle : pointée pour une adresse IPv4(-mappée), IPv6 sinon
+     */
+    public static String toText(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length == 4) {
+            return dotted(bytes, 0);
+        }
+        if (bytes.length != ADDRESS_BYTES) {
+            return null;
+        }
+        if (isIpv4Mapped(bytes)) {
+            return dotted(bytes, 12);
+        }
+        try {
+            return InetAddress.getByAddress(bytes).getHostAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    // ===== UTILITAIRES =====
+
+    /**
+     * InetAddress ne résout pas une valeur qui commence par un chiffre hexadécimal ou ':' ; tout
+     * autre caractère (nom d'hôte comme {@code hote:80}) pourrait déclencher une requête DNS
+     */
+    private static boolean hasIpv6Characters(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean hex = c >= '0' && c <= '9' || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F';
+            if (!hex && c != ':' && c != '.') {
+                return false;
+            }
+        }
+        return !value.isEmpty();
+    }
+
+    private static byte[] parseIpv4(String value) {
+        byte[] result = new byte[4];
+        int octets = 0;
+        int octet = -1;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) {
+                    return null;
+                }
+            } else if (c == '.' && octet >= 0 && octets < 3) {
+                result[octets++] = (byte) octet;
+                octet = -1;
+            } else {
+                return null;
+            }
+        }
+        if (octets != 3 || octet < 0) {
+            return null;
+        }
+        result[3] = (byte) octet;
+        return result;
+    }
+
+    private static byte[] mapped(byte[] ipv4) {
+        byte[] bytes = new byte[ADDRESS_BYTES];
+        bytes[10] = (byte) 0xFF;
+        bytes[11] = (byte) 0xFF;
+        System.arraycopy(ipv4, 0, bytes, 12, 4);
+        return bytes;
+    }
+
+    private static boolean isIpv4Mapped(byte[] bytes) {
+        for (int i = 0; i < 10; i++) {
+            if (bytes[i] != 0) {
+                return false;
+            }
+        }
+        return bytes[10] == (byte) 0xFF && bytes[11] == (byte) 0xFF;
+    }
+
+    private static String dotted(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) + "." + (bytes[offset + 1] & 0xFF) + "."
+                + (bytes[offset + 2] & 0xFF) + "." + (bytes[offset + 3] & 0xFF);
+    }
+}
@@ -1,5 +1,6 @@
 package com.securetalk.model;
 
+import com.securetalk.model.listener.MessageEntityListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -16,14 +17,16 @@ import java.time.LocalDateTime;
                 @Index(name = "idx_message_timestamp", columnList = "timestamp"),
                 @Index(name = "idx_message_conversation", columnList = "sender_id, recipient_id"),
                 @Index(name = "idx_message_read", columnList = "is_read"),
-                @Index(name = "idx_message_deleted", columnList = "is_deleted")
+                @Index(name = "idx_message_deleted", columnList = "is_deleted"),
+                @Index(name = "idx_message_client_ip", columnList = "client_ip")
         })
+@EntityListeners(MessageEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@ToString(exclude = {"sender", "recipient"})
+@ToString(exclude = {"sender", "recipient", "userAgent"})
 public class Message extends AuditableEntity {
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -94,11 +97,13 @@ public class Message extends AuditableEntity {
     private String encryptionVersion = "1.0";
 
     // Métadonnées additionnelles
-    @Column(name = "client_ip", length = 45)
+    @Column(name = "client_ip", columnDefinition = "VARBINARY(16)")
+    @Convert(converter = IpAddressConverter.class)
     private String clientIp;
 
-    @Column(name = "user_agent", length = 500)
-    private String userAgent;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_agent_id", foreignKey = @ForeignKey(name = "fk_message_user_agent"))
+    private UserAgent userAgent; // Dictionnaire partagé (voir UserAgentDictionary)
 
     @Column(name = "device_info", length = 200)
     private String deviceInfo;
@@ -112,6 +112,14 @@ public class Notification extends BaseEntity {
     @Column(name = "related_entity_id")
     private Long relatedEntityId;
 
+    // Regroupement des notifications en rafale (voir NotificationPipeline)
+    @Column(name = "collapse_key", length = 150)
+    private String collapseKey; // ex. MESSAGE:sender:42, unique par destinataire tant que non lue
+
+    @Column(name = "collapse_count", nullable = false)
+    @Builder.Default
+    private Integer collapseCount = 1; // Nombre d'événements regroupés ; message = aperçu du dernier
+
     // Méthodes utilitaires
     public void markAsRead() {
         this.isRead = true;
@@ -208,22 +216,24 @@ public class Notification extends BaseEntity {
 
         // Définir une expiration par défaut basée sur la priorité
         if (expiresAt == null) {
-            switch (priority) {
-                case "URGENT":
-                    expiresAt = timestamp.plusDays(7);
-                    break;
-                case "HIGH":
-                    expiresAt = timestamp.plusDays(14);
-                    break;
-                case "NORMAL":
-                    expiresAt = timestamp.plusDays(30);
-                    break;
-                case "LOW":
-                    expiresAt = timestamp.plusDays(60);
-                    break;
-                default:
-                    expiresAt = timestamp.plusDays(30);
-            }
+            expiresAt = defaultExpiry(priority, timestamp);
+        }
+    }
+
+    /**
+     * Expiration par défaut selon la priorité (aussi appliquée aux insertions JDBC par lots)
+     */
+    public static LocalDateTime defaultExpiry(String priority, LocalDateTime timestamp) {
+        switch (priority != null ? priority : "NORMAL") {
+            case "URGENT":
+                return timestamp.plusDays(7);
+            case "HIGH":
+                return timestamp.plusDays(14);
+            case "LOW":
+                return timestamp.plusDays(60);
+            case "NORMAL":
+            default:
+                return timestamp.plusDays(30);
         }
     }
 }
@@ -6,27 +6,28 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 /**
- * Entité représentant un token de rafraîchissement
+ * Entité représentant un token de rafraîchissement.
+ * Seule l'empreinte SHA-256 du token est stockée ; la valeur brute n'est connue que du client.
  */
 @Entity
 @Table(name = "refresh_tokens",
-        uniqueConstraints = @UniqueConstraint(columnNames = "token"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_refresh_token_hash", columnNames = "token_hash"),
         indexes = {
-                @Index(name = "idx_refresh_token_token", columnList = "token"),
                 @Index(name = "idx_refresh_token_user", columnList = "user_id"),
                 @Index(name = "idx_refresh_token_expires", columnList = "expires_at"),
-                @Index(name = "idx_refresh_token_active", columnList = "is_active")
+                @Index(name = "idx_refresh_token_active", columnList = "is_active"),
+                @Index(name = "idx_refresh_token_ip", columnList = "ip_address")
         })
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@ToString(exclude = {"user"})
+@ToString(exclude = {"user", "tokenHash", "userAgent"})
 public class RefreshToken extends BaseEntity {
 
-    @Column(name = "token", nullable = false, unique = true)
-    private String token;
+    @Column(name = "token_hash", nullable = false, columnDefinition = "BINARY(32)")
+    private byte[] tokenHash; // SHA-256 du token brut
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(name = "fk_refresh_token_user"))
@@ -52,12 +53,15 @@ public class RefreshToken extends BaseEntity {
     @Column(name = "device_info", length = 500)
     private String deviceInfo;
 
-    @Column(name = "ip_address", length = 45)
+    @Column(name = "ip_address", columnDefinition = "VARBINARY(16)")
+    @Convert(converter = IpAddressConverter.class)
     private String ipAddress;
 
-    @Column(name = "user_agent", length = 1000)
-    private String userAgent;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_agent_id", foreignKey = @ForeignKey(name = "fk_refresh_token_user_agent"))
+    private UserAgent userAgent; // Dictionnaire partagé (voir UserAgentDictionary)
 
+    // Statistiques d'usage écrites en différé (voir RefreshTokenService)
     @Column(name = "last_used_at")
     private LocalDateTime lastUsedAt;
 
@@ -85,11 +89,6 @@ public class RefreshToken extends BaseEntity {
         this.isActive = false;
     }
 
-    public void markAsUsed() {
-        this.lastUsedAt = LocalDateTime.now();
-        this.usageCount++;
-    }
-
     public boolean isRecentlyUsed() {
         return lastUsedAt != null &&
                 lastUsedAt.isAfter(LocalDateTime.now().minusMinutes(5));
@@ -1,25 +1,108 @@
 package com.securetalk.model;
 
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 /**
- * Énumération des rôles utilisateur
+ * Énumération des rôles utilisateur.
+ * <p>
+ * Chaque rôle occupe un bit fixe de {@code users.roles_mask} : ne jamais réordonner ni
+ * réaffecter les bits existants, seulement en ajouter.
  */
 public enum Role {
-    USER("USER"),
-    ADMIN("ADMIN"),
-    MODERATOR("MODERATOR");
+    USER("USER", 1),
+    ADMIN("ADMIN", 1 << 1),
+    MODERATOR("MODERATOR", 1 << 2);
+
+    private static final int ALL_MASK = (1 << values().length) - 1;
+
+    // Ensembles immuables partagés, indexés par masque
+    private static final List<Set<Role>> ROLE_SETS = buildRoleSets();
+
+    private static final List<Collection<GrantedAuthority>> AUTHORITY_SETS = buildAuthoritySets();
 
     private final String name;
 
-    Role(String name) {
+    private final int mask;
+
+    Role(String name, int mask) {
         this.name = name;
+        this.mask = mask;
     }
 
     public String getName() {
         return name;
     }
 
+    public int getMask() {
+        return mask;
+    }
+
     @Override
     public String toString() {
         return name;
     }
+
+    // ===== CONVERSIONS MASQUE =====
+
+    /**
+     * Masque correspondant à un ensemble de rôles
+     */
+    public static int toMask(Collection<Role> roles) {
+        int mask = 0;
+        if (roles != null) {
+            for (Role role : roles) {
+                mask |= role.mask;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Ensemble immuable partagé des rôles d'un masque
+     */
+    public static Set<Role> fromMask(int mask) {
+        return ROLE_SETS.get(mask & ALL_MASK);
+    }
+
+    /**
+     * Autorités Spring Security précalculées d'un masque (aucune allocation)
+     */
+    public static Collection<GrantedAuthority> authoritiesFor(int mask) {
+        return AUTHORITY_SETS.get(mask & ALL_MASK);
+    }
+
+    private static List<Set<Role>> buildRoleSets() {
+        List<Set<Role>> sets = new ArrayList<>(ALL_MASK + 1);
+        for (int mask = 0; mask <= ALL_MASK; mask++) {
+            EnumSet<Role> roles = EnumSet.noneOf(Role.class);
+            for (Role role : values()) {
+                if ((mask & role.mask) != 0) {
+                    roles.add(role);
+                }
+            }
+            sets.add(Collections.unmodifiableSet(roles));
+        }
+        return Collections.unmodifiableList(sets);
+    }
+
+    private static List<Collection<GrantedAuthority>> buildAuthoritySets() {
+        List<Collection<GrantedAuthority>> sets = new ArrayList<>(ALL_MASK + 1);
+        for (int mask = 0; mask <= ALL_MASK; mask++) {
+            Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+            for (Role role : ROLE_SETS.get(mask)) {
+                authorities.add(new SimpleGrantedAuthority("ROLE_" + role.getName()));
+            }
+            sets.add(Collections.unmodifiableSet(authorities));
+        }
+        return Collections.unmodifiableList(sets);
+    }
 }
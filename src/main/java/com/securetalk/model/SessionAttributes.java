@@ -0,0 +1,478 @@
+package com.securetalk.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Attributs typés d'une session ({@code UserSession.sessionData}), dans un format binaire compact
+ * et versionné.
+ * <p>
+ * Format : un octet de version, le nombre d'attributs (varint), puis pour chacun son nom
+ * (longueur varint + UTF-8), son type (un octet) et sa valeur (longueur varint + octets).
+ * Seuls les noms sont lus au premier accès ; une valeur n'est décodée que lorsqu'elle est
+ * demandée, et un attribut non modifié est recopié tel quel à la réécriture. Un attribut de
+ * type inconnu (version plus récente) est conservé sans être lisible.
+ * <p>
+ * Immuable : {@link #with} et {@link #without} renvoient une nouvelle instance. L'encodage est
+ * limité à {@link #MAX_ENCODED_BYTES} octets. Les anciennes valeurs JSON sont converties à la lecture.
+ */
+public final class SessionAttributes {
+
+    public static final int MAX_ENCODED_BYTES = 8192;
+
+    static final byte FORMAT_VERSION = 1;
+
+    private static final SessionAttributes EMPTY = new SessionAttributes(new byte[]{FORMAT_VERSION, 0});
+
+    private static final ObjectMapper LEGACY_MAPPER = new ObjectMapper();
+
+    private final byte[] encoded;
+
+    /**
+     * Position de chaque attribut, construit au premier accès
+     */
+    private volatile Map<String, Entry> index;
+
+    private SessionAttributes(byte[] encoded) {
+        this.encoded = encoded;
+    }
+
+    public static SessionAttributes empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Relit des attributs encodés ; accepte aussi l'ancien format JSON
+     *
+     * @throws IllegalArgumentException version inconnue ; des données tronquées ne sont détectées
+     *                                  qu'au premier accès
+     */
+    public static SessionAttributes decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            return EMPTY;
+        }
+        if (data[0] == FORMAT_VERSION) {
+            // Aucun parcours ici : une session chargée puis réécrite sans accès aux attributs ne coûte rien
+            return new SessionAttributes(data);
+        }
+        int start = 0;
+        while (start < data.length && isJsonWhitespace(data[start])) {
+            start++;
+        }
+        if (start == data.length) {
+            return EMPTY;
+        }
+        if (data[start] == '{' || data[start] == '[' || data[start] == 'n') {
+            return fromLegacyJson(data);
+        }
+        throw new IllegalArgumentException("Version d'attributs de session inconnue: " + data[0]);
+    }
+
+    private static boolean isJsonWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    // ===== LECTURE =====
+
+    public <T> Optional<T> get(Key<T> key) {
+        Entry entry = index().get(key.name);
+        if (entry == null || entry.type != key.type.tag) {
+            return Optional.empty();
+        }
+        return Optional.of(key.javaType.cast(key.type.read(encoded, entry.valueOffset, entry.valueLength)));
+    }
+
+    public <T> T get(Key<T> key, T defaultValue) {
+        return get(key).orElse(defaultValue);
+    }
+
+    public boolean contains(String name) {
+        return index().containsKey(name);
+    }
+
+    public Set<String> names() {
+        return Collections.unmodifiableSet(index().keySet());
+    }
+
+    public int size() {
+        return index().size();
+    }
+
+    public boolean isEmpty() {
+        return index().isEmpty();
+    }
+
+    /**
+     * Taille encodée, en octets
+     */
+    public int encodedSize() {
+        return encoded.length;
+    }
+
+    // ===== MODIFICATION =====
+
+    /**
+     * Copie avec l'attribut ajouté ou remplacé
+     *
+     * @throws IllegalArgumentException si l'encodage dépasse {@link #MAX_ENCODED_BYTES}
+     */
+    public <T> SessionAttributes with(Key<T> key, T value) {
+        if (value == null) {
+            return without(key.name);
+        }
+        byte[] valueBytes = key.type.write(value);
+        Map<String, Entry> current = index();
+        Writer writer = new Writer(encoded.length + valueBytes.length + key.name.length() + 8);
+        writer.begin(current.containsKey(key.name) ? current.size() : current.size() + 1);
+        for (Map.Entry<String, Entry> other : current.entrySet()) {
+            if (!other.getKey().equals(key.name)) {
+                writer.copy(encoded, other.getValue());
+            }
+        }
+        writer.entry(key.name, key.type.tag, valueBytes);
+        return new SessionAttributes(writer.finish());
+    }
+
+    /**
+     * Copie sans l'attribut
+     */
+    public SessionAttributes without(String name) {
+        Map<String, Entry> current = index();
+        if (!current.containsKey(name)) {
+            return this;
+        }
+        Writer writer = new Writer(encoded.length);
+        writer.begin(current.size() - 1);
+        for (Map.Entry<String, Entry> other : current.entrySet()) {
+            if (!other.getKey().equals(name)) {
+                writer.copy(encoded, other.getValue());
+            }
+        }
+        return new SessionAttributes(writer.finish());
+    }
+
+    /**
+     * Octets à stocker ; ne pas modifier
+     */
+    byte[] encoded() {
+        return encoded;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof SessionAttributes && Arrays.equals(encoded, ((SessionAttributes) o).encoded);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(encoded);
+    }
+
+    @Override
+    public String toString() {
+        return "SessionAttributes" + names();
+    }
+
+    // ===== INDEX =====
+
+    private Map<String, Entry> index() {
+        Map<String, Entry> result = index;
+        if (result == null) {
+            result = buildIndex(encoded);
+            index = result;
+        }
+        return result;
+    }
+
+    private static Map<String, Entry> buildIndex(byte[] data) {
+        int[] position = {1};
+        int count = readVarint(data, position);
+        Map<String, Entry> entries = new LinkedHashMap<>(Math.max(4, count * 2));
+        for (int i = 0; i < count; i++) {
+            int start = position[0];
+            int nameLength = readVarint(data, position);
+            checkBounds(data, position[0], nameLength + 1);
+            String name = new String(data, position[0], nameLength, StandardCharsets.UTF_8);
+            position[0] += nameLength;
+            byte type = data[position[0]++];
+            int valueLength = readVarint(data, position);
+            int valueOffset = position[0];
+            checkBounds(data, valueOffset, valueLength);
+            position[0] += valueLength;
+            entries.put(name, new Entry(start, position[0], type, valueOffset, valueLength));
+        }
+        return entries;
+    }
+
+    private static void checkBounds(byte[] data, int offset, int length) {
+        if (length < 0 || offset + length > data.length) {
+            throw new IllegalArgumentException("Attributs de session tronqués");
+        }
+    }
+
+    private static final class Entry {
+        private final int start;
+        private final int end;
+        private final byte type;
+        private final int valueOffset;
+        private final int valueLength;
+
+        private Entry(int start, int end, byte type, int valueOffset, int valueLength) {
+            this.start = start;
+            this.end = end;
+            this.type = type;
+            this.valueOffset = valueOffset;
+            this.valueLength = valueLength;
+        }
+    }
+
+    // ===== CONVERSION DE L'ANCIEN FORMAT =====
+
+    /**
+     * Valeurs scalaires reprises avec leur type ; objets et tableaux gardés en texte JSON.
+     * Une racine autre qu'un objet ({@code []}, {@code null}) ne porte aucun attribut.
+     */
+    private static SessionAttributes fromLegacyJson(byte[] data) {
+        JsonNode root;
+        try {
+            root = LEGACY_MAPPER.readTree(data);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Données de session JSON invalides", e);
+        }
+        if (root == null || !root.isObject()) {
+            return EMPTY;
+        }
+        SessionAttributes attributes = EMPTY;
+        for (Map.Entry<String, JsonNode> field : root.properties()) {
+            JsonNode value = field.getValue();
+            if (value.isNull()) {
+                continue;
+            }
+            if (value.isBoolean()) {
+                attributes = attributes.with(Key.bool(field.getKey()), value.booleanValue());
+            } else if (value.isIntegralNumber() && value.canConvertToLong()) {
+                attributes = attributes.with(Key.longValue(field.getKey()), value.longValue());
+            } else if (value.isNumber()) {
+                attributes = attributes.with(Key.doubleValue(field.getKey()), value.doubleValue());
+            } else if (value.isTextual()) {
+                attributes = attributes.with(Key.string(field.getKey()), value.textValue());
+            } else {
+                attributes = attributes.with(Key.string(field.getKey()), value.toString());
+            }
+        }
+        return attributes;
+    }
+
+    // ===== CLÉS ET TYPES =====
+
+    /**
+     * Nom et type d'un attribut
+     */
+    public static final class Key<T> {
+
+        private final String name;
+
+        private final Type type;
+
+        private final Class<T> javaType;
+
+        private Key(String name, Type type, Class<T> javaType) {
+            if (name == null || name.isEmpty()) {
+                throw new IllegalArgumentException("Nom d'attribut requis");
+            }
+            this.name = name;
+            this.type = type;
+            this.javaType = javaType;
+        }
+
+        public static Key<String> string(String name) {
+            return new Key<>(name, Type.STRING, String.class);
+        }
+
+        public static Key<Long> longValue(String name) {
+            return new Key<>(name, Type.LONG, Long.class);
+        }
+
+        public static Key<Boolean> bool(String name) {
+            return new Key<>(name, Type.BOOLEAN, Boolean.class);
+        }
+
+        public static Key<Double> doubleValue(String name) {
+            return new Key<>(name, Type.DOUBLE, Double.class);
+        }
+
+        public static Key<byte[]> bytes(String name) {
+            return new Key<>(name, Type.BYTES, byte[].class);
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private enum Type {
+
+        STRING(1) {
+            @Override
+            Object read(byte[] data, int offset, int length) {
+                return new String(data, offset, length, StandardCharsets.UTF_8);
+            }
+
+            @Override
+            byte[] write(Object value) {
+                return ((String) value).getBytes(StandardCharsets.UTF_8);
+            }
+        },
+
+        LONG(2) {
+            @Override
+            Object read(byte[] data, int offset, int length) {
+                long zigzag = 0;
+                for (int i = 0, shift = 0; i < length; i++, shift += 7) {
+                    zigzag |= (long) (data[offset + i] & 0x7F) << shift;
+                }
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+
+            @Override
+            byte[] write(Object value) {
+                long v = (Long) value;
+                long zigzag = (v << 1) ^ (v >> 63);
+                byte[] buffer = new byte[10];
+                int length = 0;
+                while ((zigzag & ~0x7FL) != 0) {
+                    buffer[length++] = (byte) ((zigzag & 0x7F) | 0x80);
+                    zigzag >>>= 7;
+                }
+                buffer[length++] = (byte) zigzag;
+                return Arrays.copyOf(buffer, length);
+            }
+        },
+
+        BOOLEAN(3) {
+            @Override
+            Object read(byte[] data, int offset, int length) {
+                return length > 0 && data[offset] != 0;
+            }
+
+            @Override
+            byte[] write(Object value) {
+                return new byte[]{(byte) ((Boolean) value ? 1 : 0)};
+            }
+        },
+
+        DOUBLE(4) {
+            @Override
+            Object read(byte[] data, int offset, int length) {
+                long bits = 0;
+                for (int i = 0; i < length; i++) {
+                    bits = (bits << 8) | (data[offset + i] & 0xFF);
+                }
+                return Double.longBitsToDouble(bits);
+            }
+
+            @Override
+            byte[] write(Object value) {
+                long bits = Double.doubleToLongBits((Double) value);
+                byte[] bytes = new byte[8];
+                for (int i = 7; i >= 0; i--) {
+                    bytes[i] = (byte) bits;
+                    bits >>>= 8;
+                }
+                return bytes;
+            }
+        },
+
+        BYTES(5) {
+            @Override
+            Object read(byte[] data, int offset, int length) {
+                return Arrays.copyOfRange(data, offset, offset + length);
+            }
+
+            @Override
+            byte[] write(Object value) {
+                return ((byte[]) value).clone();
+            }
+        };
+
+        private final byte tag;
+
+        Type(int tag) {
+            this.tag = (byte) tag;
+        }
+
+        abstract Object read(byte[] data, int offset, int length);
+
+        abstract byte[] write(Object value);
+    }
+
+    // ===== ENCODAGE =====
+
+    private static int readVarint(byte[] data, int[] position) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (position[0] >= data.length) {
+                throw new IllegalArgumentException("Attributs de session tronqués");
+            }
+            byte b = data[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint invalide dans les attributs de session");
+    }
+
+    private static final class Writer {
+
+        private final ByteArrayOutputStream out;
+
+        private Writer(int expectedSize) {
+            this.out = new ByteArrayOutputStream(expectedSize);
+        }
+
+        void begin(int count) {
+            out.write(FORMAT_VERSION);
+            varint(count);
+        }
+
+        void copy(byte[] data, Entry entry) {
+            out.write(data, entry.start, entry.end - entry.start);
+        }
+
+        void entry(String name, byte type, byte[] value) {
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            varint(nameBytes.length);
+            out.write(nameBytes, 0, nameBytes.length);
+            out.write(type);
+            varint(value.length);
+            out.write(value, 0, value.length);
+        }
+
+        byte[] finish() {
+            if (out.size() > MAX_ENCODED_BYTES) {
+                throw new IllegalArgumentException("Attributs de session trop volumineux: " + out.size()
+                        + " octets (maximum " + MAX_ENCODED_BYTES + ")");
+            }
+            return out.toByteArray();
+        }
+
+        private void varint(int value) {
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+    }
+}
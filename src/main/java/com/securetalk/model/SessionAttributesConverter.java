@@ -0,0 +1,24 @@
+package com.securetalk.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Stocke les {@link SessionAttributes} en VARBINARY ; aucun attribut n'est stocké comme NULL.
+ * Les octets lus sont gardés tels quels : une session réécrite sans modification n'est pas réencodée.
+ */
+@Converter
+@Immutable
+public class SessionAttributesConverter implements AttributeConverter<SessionAttributes, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(SessionAttributes attributes) {
+        return attributes == null || attributes.isEmpty() ? null : attributes.encoded();
+    }
+
+    @Override
+    public SessionAttributes convertToEntityAttribute(byte[] data) {
+        return SessionAttributes.decode(data);
+    }
+}
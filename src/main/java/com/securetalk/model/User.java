@@ -1,18 +1,18 @@
 package com.securetalk.model;
 
+import com.securetalk.model.listener.UserEntityListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
- * Entité représentant un utilisateur de l'application
+ * Entité représentant un utilisateur de l'application.
+ * Les données d'activité volatiles (connexion, présence, échecs) sont dans {@link UserActivity}.
  */
 @Entity
 @Table(name = "users",
@@ -25,6 +25,7 @@ import java.util.stream.Collectors;
                 @Index(name = "idx_user_username", columnList = "username"),
                 @Index(name = "idx_user_enabled", columnList = "enabled")
         })
+@EntityListeners(UserEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -51,14 +52,10 @@ public class User extends AuditableEntity implements UserDetails {
     @Column(name = "bio", length = 255)
     private String bio;
 
-    @Enumerated(EnumType.STRING)
-    @ElementCollection(targetClass = Role.class, fetch = FetchType.EAGER)
-    @CollectionTable(name = "user_roles",
-            joinColumns = @JoinColumn(name = "user_id"),
-            uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "roles"}))
-    @Column(name = "roles", nullable = false)
+    // Rôles sous forme de masque de bits (voir Role#getMask)
+    @Column(name = "roles_mask", nullable = false)
     @Builder.Default
-    private Set<Role> roles = Set.of(Role.USER);
+    private int rolesMask = Role.USER.getMask();
 
     @Column(name = "enabled", nullable = false)
     @Builder.Default
@@ -76,23 +73,12 @@ public class User extends AuditableEntity implements UserDetails {
     @Builder.Default
     private Boolean credentialsNonExpired = true;
 
-    @Column(name = "last_login")
-    private LocalDateTime lastLogin;
-
-    @Column(name = "last_seen")
-    private LocalDateTime lastSeen;
-
-    @Column(name = "is_online")
-    @Builder.Default
-    private Boolean isOnline = false;
-
-    @Column(name = "failed_login_attempts")
-    @Builder.Default
-    private Integer failedLoginAttempts = 0;
-
     @Column(name = "locked_until")
     private LocalDateTime lockedUntil;
 
+    @Column(name = "password_changed_at")
+    private LocalDateTime passwordChangedAt;
+
     @Column(name = "password_reset_token")
     private String passwordResetToken;
 
@@ -132,9 +118,7 @@ public class User extends AuditableEntity implements UserDetails {
     // Méthodes UserDetails
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return roles.stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getName()))
-                .collect(Collectors.toSet());
+        return Role.authoritiesFor(rolesMask);
     }
 
     @Override
@@ -183,12 +167,23 @@ public class User extends AuditableEntity implements UserDetails {
         }
     }
 
+    /**
+     * Rôles de l'utilisateur (ensemble immuable partagé, modifier via {@link #setRoles})
+     */
+    public Set<Role> getRoles() {
+        return Role.fromMask(rolesMask);
+    }
+
+    public void setRoles(Set<Role> roles) {
+        this.rolesMask = Role.toMask(roles);
+    }
+
     public boolean hasRole(Role role) {
-        return roles.contains(role);
+        return (rolesMask & role.getMask()) != 0;
     }
 
     public boolean isAdmin() {
-        return roles.contains(Role.ADMIN);
+        return hasRole(Role.ADMIN);
     }
 
     public void lockAccount(LocalDateTime until) {
@@ -199,30 +194,15 @@ public class User extends AuditableEntity implements UserDetails {
     public void unlockAccount() {
         this.accountNonLocked = true;
         this.lockedUntil = null;
-        this.failedLoginAttempts = 0;
     }
 
-    public void incrementFailedLoginAttempts() {
-        this.failedLoginAttempts++;
-    }
-
-    public void resetFailedLoginAttempts() {
-        this.failedLoginAttempts = 0;
-    }
-
-    public void updateLastLogin() {
-        this.lastLogin = LocalDateTime.now();
-        this.lastSeen = LocalDateTime.now();
-    }
-
-    public void updateLastSeen() {
-        this.lastSeen = LocalDateTime.now();
-    }
+    /**
+     * Complète le builder Lombok : les rôles sont fournis en ensemble et stockés en masque
+     */
+    public static class UserBuilder {
 
-    public void setOnline(boolean online) {
-        this.isOnline = online;
-        if (online) {
-            updateLastSeen();
+        public UserBuilder roles(Set<Role> roles) {
+            return rolesMask(Role.toMask(roles));
         }
     }
 }
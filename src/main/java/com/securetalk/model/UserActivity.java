@@ -0,0 +1,48 @@
+package com.securetalk.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Données d'activité volatiles d'un utilisateur (connexion, dernière activité, échecs d'authentification).
+ * <p>
+ * Isolées dans une table étroite, sans verrou optimiste, pour que leurs écritures fréquentes
+ * n'entrent pas en conflit avec les modifications du profil stockées dans {@code users}.
+ * La présence en ligne n'est pas persistée : elle vit dans {@code PresenceRegistry}.
+ */
+@Entity
+@Table(name = "user_activity",
+        indexes = {
+                @Index(name = "idx_user_activity_last_seen", columnList = "last_seen"),
+                @Index(name = "idx_user_activity_last_login", columnList = "last_login"),
+                @Index(name = "idx_user_activity_failed", columnList = "failed_login_attempts")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString(exclude = {"user"})
+public class UserActivity {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @MapsId
+    @JoinColumn(name = "user_id", foreignKey = @ForeignKey(name = "fk_user_activity_user"))
+    private User user;
+
+    @Column(name = "last_login")
+    private LocalDateTime lastLogin;
+
+    @Column(name = "last_seen")
+    private LocalDateTime lastSeen;
+
+    @Column(name = "failed_login_attempts", nullable = false)
+    @Builder.Default
+    private Integer failedLoginAttempts = 0;
+}
@@ -0,0 +1,36 @@
+package com.securetalk.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Entrée du dictionnaire des User-Agent, partagé par les sessions, refresh tokens, messages et
+ * journaux d'audit : chaque chaîne n'est stockée qu'une fois, les lignes n'en gardent que l'ID.
+ * <p>
+ * Immuable ; l'unicité repose sur l'empreinte SHA-256 de la chaîne, trop longue pour être indexée
+ * elle-même. Les instances sont créées par {@code UserAgentDictionary}.
+ */
+@Entity
+@Immutable
+@Table(name = "user_agents",
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_agent_hash", columnNames = "user_agent_hash"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@ToString(exclude = "valueHash")
+public class UserAgent {
+
+    public static final int MAX_LENGTH = 1000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // Un ID présent suffit à Hibernate pour ne pas relire l'entrée
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "user_agent_hash", nullable = false, columnDefinition = "BINARY(32)")
+    private byte[] valueHash;
+
+    @Column(name = "user_agent", nullable = false, length = MAX_LENGTH)
+    private String value;
+}
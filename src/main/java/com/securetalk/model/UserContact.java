@@ -0,0 +1,49 @@
+package com.securetalk.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Arête du graphe de contacts : un utilisateur et un correspondant avec qui il a échangé.
+ * <p>
+ * Chaque échange met à jour les deux sens (A→B et B→A), si bien que la liste des contacts
+ * d'un utilisateur est un parcours de plage sur la clé primaire ou sur {@code (user_id, last_contact)}.
+ */
+@Entity
+@Table(name = "user_contacts",
+        indexes = {
+                @Index(name = "idx_user_contact_recent", columnList = "user_id, last_contact")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString(exclude = {"user", "peer"})
+public class UserContact {
+
+    @EmbeddedId
+    private UserContactId id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @MapsId("userId")
+    @JoinColumn(name = "user_id", foreignKey = @ForeignKey(name = "fk_user_contact_user"))
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @MapsId("peerId")
+    @JoinColumn(name = "peer_id", foreignKey = @ForeignKey(name = "fk_user_contact_peer"))
+    private User peer;
+
+    @Column(name = "first_contact", nullable = false)
+    private LocalDateTime firstContact;
+
+    @Column(name = "last_contact", nullable = false)
+    private LocalDateTime lastContact;
+
+    @Column(name = "message_count", nullable = false)
+    @Builder.Default
+    private Long messageCount = 0L;
+}
@@ -0,0 +1,45 @@
+package com.securetalk.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Compteurs de messages dénormalisés d'un utilisateur.
+ * <p>
+ * Tenus à jour dans la transaction de chaque écriture de message ; un job de réparation
+ * les recalcule périodiquement à partir de {@code messages}.
+ */
+@Entity
+@Table(name = "user_message_stats",
+        indexes = {
+                @Index(name = "idx_user_message_stats_sent", columnList = "sent_count")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString(exclude = {"user"})
+public class UserMessageStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @MapsId
+    @JoinColumn(name = "user_id", foreignKey = @ForeignKey(name = "fk_user_message_stats_user"))
+    private User user;
+
+    @Column(name = "sent_count", nullable = false)
+    @Builder.Default
+    private Long sentCount = 0L; // Messages envoyés non supprimés
+
+    @Column(name = "received_count", nullable = false)
+    @Builder.Default
+    private Long receivedCount = 0L; // Messages reçus non supprimés
+
+    @Column(name = "deleted_count", nullable = false)
+    @Builder.Default
+    private Long deletedCount = 0L; // Messages envoyés ou reçus supprimés logiquement
+}
@@ -0,0 +1,27 @@
+package com.securetalk.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Époque de révocation d'un utilisateur : les JWT d'accès émis avant {@code epochSeconds} sont refusés.
+ * <p>
+ * Chargée en mémoire au démarrage ; seules les époques plus récentes que la durée de vie
+ * d'un token d'accès sont utiles, les plus anciennes sont purgées.
+ */
+@Entity
+@Table(name = "user_revocation_epochs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserRevocationEpoch {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "epoch_seconds", nullable = false)
+    private Long epochSeconds; // Secondes Unix, comparées au claim iat
+}
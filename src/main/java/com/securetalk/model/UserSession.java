@@ -1,14 +1,18 @@
 package com.securetalk.model;
 
+import com.securetalk.model.listener.UserSessionEntityListener;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
 
 /**
- * Entité représentant une session utilisateur
+ * Entité représentant une session utilisateur.
+ * {@code lastActivity} et {@code activityCount} sont tenus en mémoire par {@code SessionActivityTracker}
+ * et écrits en différé ; ils peuvent retarder de l'intervalle d'écriture.
  */
 @Entity
+@EntityListeners(UserSessionEntityListener.class)
 @Table(name = "user_sessions",
         uniqueConstraints = @UniqueConstraint(columnNames = "session_id"),
         indexes = {
@@ -16,14 +20,15 @@ import java.time.LocalDateTime;
                 @Index(name = "idx_user_session_user", columnList = "user_id"),
                 @Index(name = "idx_user_session_active", columnList = "is_active"),
                 @Index(name = "idx_user_session_expires", columnList = "expires_at"),
-                @Index(name = "idx_user_session_last_activity", columnList = "last_activity")
+                @Index(name = "idx_user_session_last_activity", columnList = "last_activity"),
+                @Index(name = "idx_user_session_ip", columnList = "ip_address")
         })
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@ToString(exclude = {"user"})
+@ToString(exclude = {"user", "userAgent"})
 public class UserSession extends BaseEntity {
 
     @Column(name = "session_id", nullable = false, unique = true)
@@ -33,14 +38,16 @@ public class UserSession extends BaseEntity {
     @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(name = "fk_user_session_user"))
     private User user;
 
-    @Column(name = "ip_address", length = 45)
+    @Column(name = "ip_address", columnDefinition = "VARBINARY(16)")
+    @Convert(converter = IpAddressConverter.class)
     private String ipAddress;
 
-    @Column(name = "user_agent", length = 1000)
-    private String userAgent;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_agent_id", foreignKey = @ForeignKey(name = "fk_user_session_user_agent"))
+    private UserAgent userAgent; // Dictionnaire partagé (voir UserAgentDictionary)
 
     @Column(name = "device_type", length = 50)
-    private String deviceType; // DESKTOP, MOBILE, TABLET
+    private String deviceType; // DESKTOP, MOBILE, TABLET, BOT
 
     @Column(name = "device_name", length = 100)
     private String deviceName;
@@ -85,8 +92,10 @@ public class UserSession extends BaseEntity {
     @Builder.Default
     private Boolean isCurrent = false;
 
-    @Column(name = "session_data", columnDefinition = "TEXT")
-    private String sessionData; // Données de session JSON
+    @Column(name = "session_data", columnDefinition = "VARBINARY(" + SessionAttributes.MAX_ENCODED_BYTES + ")")
+    @Convert(converter = SessionAttributesConverter.class)
+    @Builder.Default
+    private SessionAttributes sessionData = SessionAttributes.empty();
 
     @Column(name = "logout_reason", length = 50)
     private String logoutReason; // MANUAL, TIMEOUT, FORCE, SECURITY
@@ -112,11 +121,6 @@ public class UserSession extends BaseEntity {
         return lastActivity.isBefore(LocalDateTime.now().minusMinutes(timeoutMinutes));
     }
 
-    public void updateActivity() {
-        this.lastActivity = LocalDateTime.now();
-        this.activityCount++;
-    }
-
     public void logout(String reason) {
         this.isActive = false;
         this.isCurrent = false;
@@ -169,12 +173,4 @@ public class UserSession extends BaseEntity {
             expiresAt = LocalDateTime.now().plusHours(24);
         }
     }
-
-    @PreUpdate
-    public void preUpdate() {
-        // Mise à jour automatique de lastActivity si la session est encore active
-        if (isActive && lastActivity.isBefore(LocalDateTime.now().minusMinutes(1))) {
-            updateActivity();
-        }
-    }
 }
@@ -0,0 +1,30 @@
+package com.securetalk.model.listener;
+
+import com.securetalk.model.AuditLog;
+import com.securetalk.service.geo.GeoIpService;
+import com.securetalk.service.geo.GeoLocation;
+import jakarta.persistence.PrePersist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA localisant une entrée d'audit à partir de son adresse IP, sauf si l'appelant l'a déjà fait
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditLogEntityListener {
+
+    private final GeoIpService geoIpService;
+
+    @PrePersist
+    public void beforeCreate(AuditLog auditLog) {
+        if (auditLog.getLocationCountry() != null) {
+            return;
+        }
+        GeoLocation location = geoIpService.lookup(auditLog.getIpAddress());
+        if (location != null) {
+            auditLog.setLocationCountry(location.getCountry());
+            auditLog.setLocationCity(location.getCity());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.securetalk.model.listener;
+
+import com.securetalk.event.MessageCreatedEvent;
+import com.securetalk.model.Message;
+import jakarta.persistence.PostPersist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA publiant un {@link MessageCreatedEvent} à chaque insertion de message
+ */
+@Component
+@RequiredArgsConstructor
+public class MessageEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    public void afterCreate(Message message) {
+        eventPublisher.publishEvent(new MessageCreatedEvent(message.getId(), message.getSender().getId(),
+                message.getRecipient().getId(), message.getTimestamp(), message.getMessageType()));
+    }
+}
@@ -0,0 +1,42 @@
+package com.securetalk.model.listener;
+
+import com.securetalk.event.UserChangedEvent;
+import com.securetalk.event.UserChangedEvent.ChangeType;
+import com.securetalk.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA publiant un {@link UserChangedEvent} à chaque écriture d'un utilisateur.
+ * Les mises à jour en masse (requêtes {@code @Modifying}) ne passent pas par ce listener.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    public void afterCreate(User user) {
+        publish(ChangeType.CREATED, user);
+    }
+
+    @PostUpdate
+    public void afterUpdate(User user) {
+        publish(ChangeType.UPDATED, user);
+    }
+
+    @PostRemove
+    public void afterDelete(User user) {
+        publish(ChangeType.DELETED, user);
+    }
+
+    private void publish(ChangeType changeType, User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(changeType, user.getId(), user.getUsername(),
+                user.getEmail(), user.getFirstName(), user.getLastName(), user.isEnabled()));
+    }
+}
@@ -0,0 +1,60 @@
+package com.securetalk.model.listener;
+
+import com.securetalk.model.UserSession;
+import com.securetalk.service.geo.GeoIpService;
+import com.securetalk.service.geo.GeoLocation;
+import com.securetalk.service.session.UserAgentClassifier;
+import com.securetalk.service.session.UserAgentInfo;
+import jakarta.persistence.PrePersist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA renseignant l'appareil, le navigateur et le système d'une nouvelle session
+ * à partir de son User-Agent, et sa localisation à partir de son adresse IP, sans écraser
+ * les valeurs fournies par l'appelant
+ */
+@Component
+@RequiredArgsConstructor
+public class UserSessionEntityListener {
+
+    private final UserAgentClassifier userAgentClassifier;
+
+    private final GeoIpService geoIpService;
+
+    @PrePersist
+    public void beforeCreate(UserSession session) {
+        fillDevice(session);
+        fillLocation(session);
+    }
+
+    private void fillDevice(UserSession session) {
+        UserAgentInfo info = userAgentClassifier.classify(
+                session.getUserAgent() != null ? session.getUserAgent().getValue() : null);
+        if (!info.isKnown()) {
+            return;
+        }
+        if (session.getDeviceType() == null) {
+            session.setDeviceType(info.getDeviceType());
+        }
+        if (session.getBrowserName() == null) {
+            session.setBrowserName(info.getBrowserName());
+            session.setBrowserVersion(info.getBrowserVersion());
+        }
+        if (session.getOsName() == null) {
+            session.setOsName(info.getOsName());
+            session.setOsVersion(info.getOsVersion());
+        }
+    }
+
+    private void fillLocation(UserSession session) {
+        if (session.getLocationCountry() != null) {
+            return;
+        }
+        GeoLocation location = geoIpService.lookup(session.getIpAddress());
+        if (location != null) {
+            session.setLocationCountry(location.getCountry());
+            session.setLocationCity(location.getCity());
+        }
+    }
+}
@@ -49,6 +49,20 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
      */
     List<AuditLog> findByIpAddressAndTimestampAfterOrderByTimestampDesc(String ipAddress, LocalDateTime since);
 
+    /**
+     * Trouve les logs d'une plage d'adresses (parcours de plage sur l'index)
+     */
+    List<AuditLog> findByIpAddressBetweenAndTimestampAfterOrderByTimestampDesc(String first, String last,
+                                                                                 LocalDateTime since);
+
+    /**
+     * Trouve les logs d'un sous-réseau ({@code 192.168.1.0/24}, {@code 2001:db8::/32})
+     */
+    default List<AuditLog> findBySubnetSince(String cidr, LocalDateTime since) {
+        IpRange range = IpRange.parse(cidr);
+        return findByIpAddressBetweenAndTimestampAfterOrderByTimestampDesc(range.getFirst(), range.getLast(), since);
+    }
+
     /**
      * Statistiques d'audit par action
      */
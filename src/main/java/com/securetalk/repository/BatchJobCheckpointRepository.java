@@ -0,0 +1,12 @@
+package com.securetalk.repository;
+
+import com.securetalk.model.BatchJobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository des points de reprise des jobs par lots
+ */
+@Repository
+public interface BatchJobCheckpointRepository extends JpaRepository<BatchJobCheckpoint, String> {
+}
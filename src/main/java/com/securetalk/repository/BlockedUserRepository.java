@@ -52,6 +52,18 @@ public interface BlockedUserRepository extends JpaRepository<BlockedUser, Long>
     @Query("SELECT bu.blocker FROM BlockedUser bu WHERE bu.blocked = :blocked AND bu.isActive = true")
     List<User> findBlockersByBlockedUser(@Param("blocked") User blocked);
 
+    /**
+     * IDs des utilisateurs bloqués par un utilisateur (sans charger les entités)
+     */
+    @Query("SELECT bu.blocked.id FROM BlockedUser bu WHERE bu.blocker.id = :blockerId AND bu.isActive = true")
+    List<Long> findBlockedUserIdsByBlockerId(@Param("blockerId") Long blockerId);
+
+    /**
+     * IDs des utilisateurs qui bloquent un utilisateur donné (sans charger les entités)
+     */
+    @Query("SELECT bu.blocker.id FROM BlockedUser bu WHERE bu.blocked.id = :blockedId AND bu.isActive = true")
+    List<Long> findBlockerIdsByBlockedId(@Param("blockedId") Long blockedId);
+
     /**
      * Trouve tous les blocages actifs d'un utilisateur
      */
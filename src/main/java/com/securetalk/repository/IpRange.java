@@ -0,0 +1,67 @@
+package com.securetalk.repository;
+
+import com.securetalk.model.IpAddressConverter;
+import lombok.Getter;
+
+/**
+ * Plage d'adresses IP désignée par une notation CIDR ({@code 192.168.1.0/24}, {@code 2001:db8::/32})
+ * ou une adresse seule.
+ * <p>
+ * Les bornes sont rendues sous forme textuelle : passées à une requête sur une colonne convertie
+ * par {@link IpAddressConverter}, elles deviennent une condition {@code BETWEEN} sur l'index.
+ */
+@Getter
+public final class IpRange {
+
+    private final String first;
+
+    private final String last;
+
+    private IpRange(String first, String last) {
+        this.first = first;
+        this.last = last;
+    }
+
+    /**
+     * @throws IllegalArgumentException adresse ou longueur de préfixe invalide
+     */
+    public static IpRange parse(String cidr) {
+        if (cidr == null) {
+            throw new IllegalArgumentException("Plage d'adresses requise");
+        }
+        String value = cidr.trim();
+        int slash = value.indexOf('/');
+        String address = slash >= 0 ? value.substring(0, slash) : value;
+        byte[] bytes = IpAddressConverter.toBytes(address);
+        if (bytes == null) {
+            throw new IllegalArgumentException("Adresse IP invalide: " + address);
+        }
+        // Les adresses IPv4 sont stockées IPv4-mappées : leur préfixe commence au bit 96
+        boolean ipv4 = address.indexOf(':') < 0;
+        int maxPrefix = ipv4 ? 32 : 128;
+        int prefix;
+        try {
+            prefix = slash >= 0 ? Integer.parseInt(value.substring(slash + 1).trim()) : maxPrefix;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Longueur de préfixe invalide: " + value);
+        }
+        if (prefix < 0 || prefix > maxPrefix) {
+            throw new IllegalArgumentException("Longueur de préfixe invalide: " + value);
+        }
+        int bits = ipv4 ? 96 + prefix : prefix;
+
+        byte[] first = bytes.clone();
+        byte[] last = bytes.clone();
+        for (int bit = bits; bit < 128; bit++) {
+            int mask = 0x80 >>> (bit & 7);
+            first[bit >>> 3] &= (byte) ~mask;
+            last[bit >>> 3] |= (byte) mask;
+        }
+        return new IpRange(IpAddressConverter.toText(first), IpAddressConverter.toText(last));
+    }
+
+    @Override
+    public String toString() {
+        return first + " - " + last;
+    }
+}
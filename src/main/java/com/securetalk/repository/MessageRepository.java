@@ -20,7 +20,8 @@ import java.util.Optional;
  * Repository pour la gestion des messages
  */
 @Repository
-public interface MessageRepository extends JpaRepository<Message, Long>, JpaSpecificationExecutor<Message> {
+public interface MessageRepository extends JpaRepository<Message, Long>, JpaSpecificationExecutor<Message>,
+        MessageRepositoryCustom {
 
     // ===== CONVERSATIONS =====
 
@@ -92,6 +93,15 @@ public interface MessageRepository extends JpaRepository<Message, Long>, JpaSpec
             "AND m.isRead = false AND m.isDeleted = false")
     long countUnreadMessagesBetweenUsers(@Param("senderId") Long senderId, @Param("recipientId") Long recipientId);
 
+    /**
+     * Compte les messages non lus d'un utilisateur par expéditeur, pour une page de la boîte de réception
+     */
+    @Query("SELECT m.sender.id, COUNT(m) FROM Message m WHERE m.recipient.id = :recipientId " +
+            "AND m.sender.id IN :senderIds AND m.isRead = false AND m.isDeleted = false " +
+            "GROUP BY m.sender.id")
+    List<Object[]> countUnreadMessagesBySenders(@Param("recipientId") Long recipientId,
+                                                @Param("senderIds") List<Long> senderIds);
+
     /**
      * Trouve les messages non lus d'une conversation spécifique
      */
@@ -165,11 +175,13 @@ public interface MessageRepository extends JpaRepository<Message, Long>, JpaSpec
 
     /**
      * Compte les messages envoyés par un utilisateur
+     * (pour les listes, préférer les compteurs de {@code UserMessageStatsRepository})
      */
     long countBySenderAndIsDeletedFalse(User sender);
 
     /**
      * Compte les messages reçus par un utilisateur
+     * (pour les listes, préférer les compteurs de {@code UserMessageStatsRepository})
      */
     long countByRecipientAndIsDeletedFalse(User recipient);
 
@@ -225,36 +237,42 @@ public interface MessageRepository extends JpaRepository<Message, Long>, JpaSpec
     void markAsDelivered(@Param("messageId") Long messageId, @Param("deliveredTime") LocalDateTime deliveredTime);
 
     /**
-     * Supprime logiquement un message
+     * Supprime logiquement un message (sans effet s'il l'est déjà)
      */
     @Modifying
     @Query("UPDATE Message m SET m.isDeleted = true, m.deletedAt = :deletedTime, m.deletedBy = :deletedBy " +
-            "WHERE m.id = :messageId")
-    void softDeleteMessage(@Param("messageId") Long messageId,
-                           @Param("deletedTime") LocalDateTime deletedTime,
-                           @Param("deletedBy") Long deletedBy);
+            "WHERE m.id = :messageId AND m.isDeleted = false")
+    int softDeleteMessage(@Param("messageId") Long messageId,
+                          @Param("deletedTime") LocalDateTime deletedTime,
+                          @Param("deletedBy") Long deletedBy);
 
     /**
-     * Supprime logiquement tous les messages d'un utilisateur
+     * Supprime logiquement les messages d'un utilisateur d'ID inférieur ou égal à {@code maxId}
+     * (les messages verrouillés par {@link #lockUndeletedForUser})
      */
     @Modifying
     @Query("UPDATE Message m SET m.isDeleted = true, m.deletedAt = :deletedTime, m.deletedBy = :deletedBy " +
-            "WHERE m.sender.id = :userId OR m.recipient.id = :userId")
-    void softDeleteAllMessagesForUser(@Param("userId") Long userId,
-                                      @Param("deletedTime") LocalDateTime deletedTime,
-                                      @Param("deletedBy") Long deletedBy);
+            "WHERE (m.sender.id = :userId OR m.recipient.id = :userId) AND m.isDeleted = false " +
+            "AND m.id <= :maxId")
+    int softDeleteAllMessagesForUser(@Param("userId") Long userId,
+                                     @Param("maxId") Long maxId,
+                                     @Param("deletedTime") LocalDateTime deletedTime,
+                                     @Param("deletedBy") Long deletedBy);
 
     /**
-     * Supprime logiquement une conversation complète
+     * Supprime logiquement une conversation jusqu'au message {@code maxId} inclus
+     * (les messages verrouillés par {@link #lockUndeletedConversation})
      */
     @Modifying
     @Query("UPDATE Message m SET m.isDeleted = true, m.deletedAt = :deletedTime, m.deletedBy = :deletedBy " +
             "WHERE ((m.sender.id = :userId1 AND m.recipient.id = :userId2) OR " +
-            "       (m.sender.id = :userId2 AND m.recipient.id = :userId1))")
-    void softDeleteConversation(@Param("userId1") Long userId1,
-                                @Param("userId2") Long userId2,
-                                @Param("deletedTime") LocalDateTime deletedTime,
-                                @Param("deletedBy") Long deletedBy);
+            "       (m.sender.id = :userId2 AND m.recipient.id = :userId1)) " +
+            "AND m.isDeleted = false AND m.id <= :maxId")
+    int softDeleteConversation(@Param("userId1") Long userId1,
+                               @Param("userId2") Long userId2,
+                               @Param("maxId") Long maxId,
+                               @Param("deletedTime") LocalDateTime deletedTime,
+                               @Param("deletedBy") Long deletedBy);
 
     // ===== NETTOYAGE ET MAINTENANCE =====
 
@@ -282,10 +300,26 @@ public interface MessageRepository extends JpaRepository<Message, Long>, JpaSpec
     /**
      * Trouve les messages par adresse IP (pour audit de sécurité)
      */
-    @Query("SELECT m FROM Message m WHERE m.ipAddress = :ipAddress AND m.timestamp >= :since")
+    @Query("SELECT m FROM Message m WHERE m.clientIp = :ipAddress AND m.timestamp >= :since")
     List<Message> findMessagesByIpAddress(@Param("ipAddress") String ipAddress,
                                           @Param("since") LocalDateTime since);
 
+    /**
+     * Trouve les messages envoyés depuis une plage d'adresses (parcours de plage sur l'index)
+     */
+    @Query("SELECT m FROM Message m WHERE m.clientIp BETWEEN :first AND :last AND m.timestamp >= :since")
+    List<Message> findMessagesByIpRange(@Param("first") String first,
+                                        @Param("last") String last,
+                                        @Param("since") LocalDateTime since);
+
+    /**
+     * Trouve les messages envoyés depuis un sous-réseau ({@code 192.168.1.0/24}, {@code 2001:db8::/32})
+     */
+    default List<Message> findMessagesBySubnet(String cidr, LocalDateTime since) {
+        IpRange range = IpRange.parse(cidr);
+        return findMessagesByIpRange(range.getFirst(), range.getLast(), since);
+    }
+
     /**
      * Trouve les messages suspects (trop de messages en peu de temps)
      */
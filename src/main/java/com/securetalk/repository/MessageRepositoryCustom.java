@@ -0,0 +1,57 @@
+package com.securetalk.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Préparation des suppressions logiques de {@link MessageRepository}, en JDBC.
+ * <p>
+ * Les messages encore visibles de la portée sont verrouillés ({@code FOR UPDATE}) et comptés par
+ * (expéditeur, destinataire) avant la mise à jour : les compteurs sont calculés sur les lignes
+ * que la suppression va modifier, sans les relire ensuite.
+ */
+public interface MessageRepositoryCustom {
+
+    /**
+     * Verrouille et compte un message non supprimé
+     */
+    PendingDeletion lockUndeletedMessage(Long messageId);
+
+    /**
+     * Verrouille et compte les messages non supprimés d'une conversation
+     */
+    PendingDeletion lockUndeletedConversation(Long userId1, Long userId2);
+
+    /**
+     * Verrouille et compte les messages non supprimés envoyés ou reçus par un utilisateur
+     */
+    PendingDeletion lockUndeletedForUser(Long userId);
+
+    /**
+     * Messages verrouillés en vue d'une suppression, regroupés par (expéditeur, destinataire)
+     */
+    @Getter
+    @AllArgsConstructor
+    final class PendingDeletion {
+        private final List<PairCount> counts;
+
+        /**
+         * Plus grand ID verrouillé, borne de la mise à jour
+         */
+        private final long maxMessageId;
+
+        public boolean isEmpty() {
+            return counts.isEmpty();
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    final class PairCount {
+        private final Long senderId;
+        private final Long recipientId;
+        private final long count;
+    }
+}
@@ -0,0 +1,48 @@
+package com.securetalk.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implémentation JDBC de {@link MessageRepositoryCustom} (lecture verrouillante MySQL)
+ */
+@RequiredArgsConstructor
+public class MessageRepositoryImpl implements MessageRepositoryCustom {
+
+    private static final String LOCK_SQL =
+            "SELECT sender_id, recipient_id, COUNT(*), MAX(id) FROM messages " +
+            "WHERE is_deleted = 0 AND %s " +
+            "GROUP BY sender_id, recipient_id " +
+            "FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public PendingDeletion lockUndeletedMessage(Long messageId) {
+        return lock("id = ?", messageId);
+    }
+
+    @Override
+    public PendingDeletion lockUndeletedConversation(Long userId1, Long userId2) {
+        return lock("((sender_id = ? AND recipient_id = ?) OR (sender_id = ? AND recipient_id = ?))",
+                userId1, userId2, userId2, userId1);
+    }
+
+    @Override
+    public PendingDeletion lockUndeletedForUser(Long userId) {
+        return lock("(sender_id = ? OR recipient_id = ?)", userId, userId);
+    }
+
+    private PendingDeletion lock(String scope, Object... args) {
+        List<PairCount> counts = new ArrayList<>();
+        long[] maxId = new long[1];
+        jdbcTemplate.query(String.format(LOCK_SQL, scope), rs -> {
+            counts.add(new PairCount(rs.getLong(1), rs.getLong(2), rs.getLong(3)));
+            maxId[0] = Math.max(maxId[0], rs.getLong(4));
+        }, args);
+        return new PendingDeletion(counts, maxId[0]);
+    }
+}
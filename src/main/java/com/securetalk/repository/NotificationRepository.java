@@ -18,7 +18,7 @@ import java.util.List;
  * Repository pour les notifications
  */
 @Repository
-public interface NotificationRepository extends JpaRepository<Notification, Long> {
+public interface NotificationRepository extends JpaRepository<Notification, Long>, NotificationRepositoryCustom {
 
     /**
      * Trouve toutes les notifications d'un utilisateur
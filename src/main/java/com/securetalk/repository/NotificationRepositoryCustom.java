@@ -0,0 +1,53 @@
+package com.securetalk.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Insertion des notifications par lots, en JDBC
+ */
+public interface NotificationRepositoryCustom {
+
+    /**
+     * Insère les notifications puis leurs métadonnées, chacune en un seul lot
+     *
+     * @return IDs générés, dans l'ordre de la liste
+     */
+    List<Long> insertBatch(List<NewNotification> notifications);
+
+    /**
+     * Regroupe chaque notification dans la notification existante de même ID : ajoute son compte
+     * et remplace l'aperçu, la date et l'entité liée par les siens. Une notification déjà lue ou
+     * supprimée n'est pas modifiée.
+     *
+     * @return pour chaque entrée, vrai si la notification existante a été mise à jour
+     */
+    boolean[] collapseInto(List<Long> notificationIds, List<NewNotification> latest);
+
+    /**
+     * Notification à insérer ; les champs de suivi (lu, livré, envoyé) partent à faux
+     */
+    @Getter
+    @Builder(toBuilder = true)
+    final class NewNotification {
+        private final Long userId;
+        private final Long senderId;
+        private final String type;
+        private final String title;
+        private final String message;
+        private final String priority;
+        private final String category;
+        private final String relatedEntityType;
+        private final Long relatedEntityId;
+        private final Map<String, String> metadata;
+        private final LocalDateTime timestamp;
+        private final LocalDateTime expiresAt;
+        private final String collapseKey;
+        @Builder.Default
+        private final int collapseCount = 1;
+    }
+}
@@ -0,0 +1,159 @@
+package com.securetalk.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implémentation JDBC de {@link NotificationRepositoryCustom} (insertion par lots avec clés générées).
+ * Contourne le cycle de vie JPA : une notification et ses métadonnées coûtent deux lignes de lot
+ * au lieu de deux allers-retours.
+ */
+@RequiredArgsConstructor
+public class NotificationRepositoryImpl implements NotificationRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (user_id, sender_id, type, title, message, priority, category, " +
+            "related_entity_type, related_entity_id, timestamp, expires_at, is_read, is_deleted, delivered, " +
+            "push_sent, email_sent, collapse_key, collapse_count, created_at, updated_at, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false, false, false, false, false, ?, ?, ?, ?, 0)";
+
+    private static final String INSERT_METADATA_SQL =
+            "INSERT INTO notification_metadata (notification_id, meta_key, meta_value) VALUES (?, ?, ?)";
+
+    private static final String COLLAPSE_SQL =
+            "UPDATE notifications SET collapse_count = collapse_count + ?, title = ?, message = ?, timestamp = ?, " +
+            "related_entity_id = ?, expires_at = ?, delivered = false, push_sent = false, email_sent = false, " +
+            "updated_at = ?, version = version + 1 " +
+            "WHERE id = ? AND is_read = false AND is_deleted = false";
+
+    private static final String UPDATE_METADATA_SQL =
+            "UPDATE notification_metadata SET meta_value = ? WHERE notification_id = ? AND meta_key = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> insertBatch(List<NewNotification> notifications) {
+        if (notifications.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        NewNotification notification = notifications.get(i);
+                        ps.setLong(1, notification.getUserId());
+                        setLong(ps, 2, notification.getSenderId());
+                        ps.setString(3, notification.getType());
+                        ps.setString(4, notification.getTitle());
+                        ps.setString(5, notification.getMessage());
+                        ps.setString(6, notification.getPriority());
+                        ps.setString(7, notification.getCategory());
+                        ps.setString(8, notification.getRelatedEntityType());
+                        setLong(ps, 9, notification.getRelatedEntityId());
+                        ps.setTimestamp(10, Timestamp.valueOf(notification.getTimestamp()));
+                        ps.setTimestamp(11, notification.getExpiresAt() != null
+                                ? Timestamp.valueOf(notification.getExpiresAt()) : null);
+                        ps.setString(12, notification.getCollapseKey());
+                        ps.setInt(13, notification.getCollapseCount());
+                        ps.setTimestamp(14, now);
+                        ps.setTimestamp(15, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return notifications.size();
+                    }
+                },
+                keys);
+
+        List<Long> ids = new ArrayList<>(notifications.size());
+        for (Map<String, Object> key : keys.getKeyList()) {
+            ids.add(((Number) key.values().iterator().next()).longValue());
+        }
+        if (ids.size() != notifications.size()) {
+            throw new IllegalStateException("Clés générées incomplètes: " + ids.size() + " pour " + notifications.size());
+        }
+
+        List<Object[]> metadataRows = new ArrayList<>();
+        for (int i = 0; i < notifications.size(); i++) {
+            Map<String, String> metadata = notifications.get(i).getMetadata();
+            if (metadata != null) {
+                for (Map.Entry<String, String> entry : metadata.entrySet()) {
+                    metadataRows.add(new Object[]{ids.get(i), entry.getKey(), entry.getValue()});
+                }
+            }
+        }
+        if (!metadataRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_METADATA_SQL, metadataRows);
+        }
+        return ids;
+    }
+
+    @Override
+    public boolean[] collapseInto(List<Long> notificationIds, List<NewNotification> latest) {
+        boolean[] updated = new boolean[notificationIds.size()];
+        if (notificationIds.isEmpty()) {
+            return updated;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] counts = jdbcTemplate.batchUpdate(COLLAPSE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                NewNotification notification = latest.get(i);
+                ps.setInt(1, notification.getCollapseCount());
+                ps.setString(2, notification.getTitle());
+                ps.setString(3, notification.getMessage());
+                ps.setTimestamp(4, Timestamp.valueOf(notification.getTimestamp()));
+                setLong(ps, 5, notification.getRelatedEntityId());
+                ps.setTimestamp(6, notification.getExpiresAt() != null
+                        ? Timestamp.valueOf(notification.getExpiresAt()) : null);
+                ps.setTimestamp(7, now);
+                ps.setLong(8, notificationIds.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return notificationIds.size();
+            }
+        });
+
+        List<Object[]> metadataRows = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            updated[i] = counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO;
+            Map<String, String> metadata = latest.get(i).getMetadata();
+            if (updated[i] && metadata != null) {
+                for (Map.Entry<String, String> entry : metadata.entrySet()) {
+                    metadataRows.add(new Object[]{entry.getValue(), notificationIds.get(i), entry.getKey()});
+                }
+            }
+        }
+        if (!metadataRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_METADATA_SQL, metadataRows);
+        }
+        return updated;
+    }
+
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value != null) {
+            ps.setLong(index, value);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+}
@@ -17,12 +17,12 @@ import java.util.Optional;
  * Repository pour la gestion des refresh tokens
  */
 @Repository
-public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long>, RefreshTokenRepositoryCustom {
 
     /**
-     * Trouve un refresh token par sa valeur
+     * Trouve un refresh token par l'empreinte SHA-256 de sa valeur
      */
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
 
     /**
      * Trouve tous les tokens d'un utilisateur
@@ -32,7 +32,7 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     /**
      * Trouve tous les tokens valides d'un utilisateur
      */
-    @Query("SELECT rt FROM RefreshToken rt WHERE rt.user = :user AND rt.revoked = false AND rt.expiresAt > :now")
+    @Query("SELECT rt FROM RefreshToken rt WHERE rt.user = :user AND rt.isRevoked = false AND rt.expiresAt > :now")
     List<RefreshToken> findValidTokensByUser(@Param("user") User user, @Param("now") LocalDateTime now);
 
     /**
@@ -42,34 +42,50 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     List<RefreshToken> findExpiredTokens(@Param("now") LocalDateTime now);
 
     /**
-     * Révoque tous les tokens d'un utilisateur
+     * Révoque tous les tokens actifs d'un utilisateur
      */
     @Modifying
-    @Query("UPDATE RefreshToken rt SET rt.revoked = true, rt.revokedAt = :revokedAt WHERE rt.user = :user")
-    void revokeAllTokensForUser(@Param("user") User user, @Param("revokedAt") LocalDateTime revokedAt);
+    @Query("UPDATE RefreshToken rt SET rt.isRevoked = true, rt.isActive = false, rt.revokedAt = :revokedAt " +
+            "WHERE rt.user.id = :userId AND rt.isRevoked = false")
+    int revokeAllTokensForUser(@Param("userId") Long userId, @Param("revokedAt") LocalDateTime revokedAt);
 
     /**
      * Révoque un token spécifique
      */
     @Modifying
-    @Query("UPDATE RefreshToken rt SET rt.revoked = true, rt.revokedAt = :revokedAt WHERE rt.token = :token")
-    void revokeToken(@Param("token") String token, @Param("revokedAt") LocalDateTime revokedAt);
+    @Query("UPDATE RefreshToken rt SET rt.isRevoked = true, rt.isActive = false, rt.revokedAt = :revokedAt, " +
+            "rt.revokedReason = :reason WHERE rt.tokenHash = :tokenHash AND rt.isRevoked = false")
+    int revokeToken(@Param("tokenHash") byte[] tokenHash, @Param("revokedAt") LocalDateTime revokedAt,
+                    @Param("reason") String reason);
 
     /**
      * Supprime les tokens expirés et révoqués
      */
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE (rt.expiresAt <= :now OR rt.revoked = true) AND rt.createdAt < :cutoffDate")
+    @Query("DELETE FROM RefreshToken rt WHERE (rt.expiresAt <= :now OR rt.isRevoked = true) AND rt.createdAt < :cutoffDate")
     void deleteExpiredAndRevokedTokens(@Param("now") LocalDateTime now, @Param("cutoffDate") LocalDateTime cutoffDate);
 
     /**
      * Compte les tokens actifs par utilisateur
      */
-    @Query("SELECT COUNT(rt) FROM RefreshToken rt WHERE rt.user = :user AND rt.revoked = false AND rt.expiresAt > :now")
+    @Query("SELECT COUNT(rt) FROM RefreshToken rt WHERE rt.user = :user AND rt.isRevoked = false AND rt.expiresAt > :now")
     long countActiveTokensByUser(@Param("user") User user, @Param("now") LocalDateTime now);
 
     /**
      * Trouve les tokens par adresse IP (sécurité)
      */
     List<RefreshToken> findByIpAddressAndCreatedAtAfter(String ipAddress, LocalDateTime since);
+
+    /**
+     * Trouve les tokens émis depuis une plage d'adresses
+     */
+    List<RefreshToken> findByIpAddressBetweenAndCreatedAtAfter(String first, String last, LocalDateTime since);
+
+    /**
+     * Trouve les tokens émis depuis un sous-réseau ({@code 192.168.1.0/24}, {@code 2001:db8::/32})
+     */
+    default List<RefreshToken> findBySubnetSince(String cidr, LocalDateTime since) {
+        IpRange range = IpRange.parse(cidr);
+        return findByIpAddressBetweenAndCreatedAtAfter(range.getFirst(), range.getLast(), since);
+    }
 }
\ No newline at end of file
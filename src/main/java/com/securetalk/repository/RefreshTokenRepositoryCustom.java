@@ -0,0 +1,45 @@
+package com.securetalk.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Écriture par lots de l'usage des refresh tokens, en JDBC
+ */
+public interface RefreshTokenRepositoryCustom {
+
+    /**
+     * Ajoute à chaque token ses utilisations cumulées et avance sa dernière utilisation
+     */
+    void addUsage(List<UsageDelta> deltas);
+
+    /**
+     * Utilisations cumulées en mémoire d'un token depuis la dernière écriture
+     */
+    final class UsageDelta {
+
+        private final Long tokenId;
+
+        private final int uses;
+
+        private final LocalDateTime lastUsedAt;
+
+        public UsageDelta(Long tokenId, int uses, LocalDateTime lastUsedAt) {
+            this.tokenId = tokenId;
+            this.uses = uses;
+            this.lastUsedAt = lastUsedAt;
+        }
+
+        public Long getTokenId() {
+            return tokenId;
+        }
+
+        public int getUses() {
+            return uses;
+        }
+
+        public LocalDateTime getLastUsedAt() {
+            return lastUsedAt;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.securetalk.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Implémentation JDBC de {@link RefreshTokenRepositoryCustom} (mises à jour par lots)
+ */
+@RequiredArgsConstructor
+public class RefreshTokenRepositoryImpl implements RefreshTokenRepositoryCustom {
+
+    private static final String ADD_USAGE_SQL =
+            "UPDATE refresh_tokens SET usage_count = COALESCE(usage_count, 0) + ?, " +
+            "last_used_at = GREATEST(COALESCE(last_used_at, ?), ?) " +
+            "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addUsage(List<UsageDelta> deltas) {
+        jdbcTemplate.batchUpdate(ADD_USAGE_SQL, deltas, deltas.size(), (ps, delta) -> {
+            Timestamp lastUsedAt = Timestamp.valueOf(delta.getLastUsedAt());
+            ps.setInt(1, delta.getUses());
+            ps.setTimestamp(2, lastUsedAt);
+            ps.setTimestamp(3, lastUsedAt);
+            ps.setLong(4, delta.getTokenId());
+        });
+    }
+}
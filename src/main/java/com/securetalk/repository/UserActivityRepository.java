@@ -0,0 +1,68 @@
+package com.securetalk.repository;
+
+import com.securetalk.model.User;
+import com.securetalk.model.UserActivity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository pour l'activité des utilisateurs (table {@code user_activity})
+ */
+@Repository
+public interface UserActivityRepository extends JpaRepository<UserActivity, Long>, UserActivityRepositoryCustom {
+
+    // ===== RECHERCHES TEMPORELLES =====
+
+    /**
+     * Trouve les utilisateurs connectés après une date
+     */
+    @Query("SELECT a.user FROM UserActivity a WHERE a.lastLogin > :date")
+    List<User> findUsersLoggedInAfter(@Param("date") LocalDateTime date);
+
+    /**
+     * Trouve les utilisateurs actifs récemment (dernière activité)
+     */
+    @Query("SELECT u FROM UserActivity a JOIN a.user u WHERE a.lastSeen >= :since AND u.enabled = true")
+    List<User> findRecentlyActiveUsers(@Param("since") LocalDateTime since);
+
+    /**
+     * Tranche des utilisateurs inactifs depuis une date (y compris ceux sans activité enregistrée),
+     * d'ID strictement supérieur à {@code afterId}
+     */
+    @Query("SELECT u FROM User u WHERE u.id > :afterId AND NOT EXISTS (" +
+            "    SELECT a FROM UserActivity a WHERE a.userId = u.id AND a.lastSeen >= :since" +
+            ") ORDER BY u.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    List<User> findInactiveUsersSince(@Param("since") LocalDateTime since,
+                                      @Param("afterId") Long afterId, Pageable pageable);
+
+    // ===== REQUÊTES DE SÉCURITÉ =====
+
+    /**
+     * Tranche des comptes avec trop de tentatives de connexion échouées, par ID croissant
+     */
+    @Query("SELECT u FROM UserActivity a JOIN a.user u " +
+            "WHERE a.failedLoginAttempts >= :maxAttempts AND u.id > :afterId ORDER BY u.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    List<User> findAccountsWithTooManyFailedAttempts(@Param("maxAttempts") Integer maxAttempts,
+                                                     @Param("afterId") Long afterId, Pageable pageable);
+
+    // ===== MISE À JOUR =====
+
+    /**
+     * Remet à zéro les tentatives de connexion échouées
+     */
+    @Modifying
+    @Query("UPDATE UserActivity a SET a.failedLoginAttempts = 0 WHERE a.userId = :userId")
+    int resetFailedLoginAttempts(@Param("userId") Long userId);
+}
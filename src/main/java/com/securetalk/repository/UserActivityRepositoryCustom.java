@@ -0,0 +1,28 @@
+package com.securetalk.repository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Opérations JDBC en lot sur l'activité des utilisateurs, hors du cycle de vie des entités JPA
+ */
+public interface UserActivityRepositoryCustom {
+
+    /**
+     * Avance la dernière activité de plusieurs utilisateurs en un seul lot, en créant la ligne
+     * d'activité au besoin ; une activité plus récente déjà enregistrée est conservée
+     *
+     * @return nombre de lignes insérées ou modifiées
+     */
+    int upsertLastSeen(Map<Long, LocalDateTime> lastSeenByUserId);
+
+    /**
+     * Enregistre une connexion réussie et remet à zéro les échecs, en créant la ligne au besoin
+     */
+    void upsertLogin(Long userId, LocalDateTime loginTime);
+
+    /**
+     * Ajoute des tentatives de connexion échouées, en créant la ligne au besoin
+     */
+    void upsertFailedLogins(Long userId, int attempts);
+}
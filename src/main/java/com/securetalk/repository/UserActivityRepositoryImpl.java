@@ -0,0 +1,68 @@
+package com.securetalk.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implémentation JDBC des opérations en lot de {@link UserActivityRepositoryCustom}.
+ * Les écritures de connexion sont des upserts MySQL en une instruction : deux connexions
+ * simultanées d'un utilisateur sans ligne d'activité ne peuvent pas insérer deux fois.
+ */
+@RequiredArgsConstructor
+public class UserActivityRepositoryImpl implements UserActivityRepositoryCustom {
+
+    private static final String UPSERT_LOGIN_SQL =
+            "INSERT INTO user_activity (user_id, last_login, last_seen, failed_login_attempts) " +
+            "VALUES (?, ?, ?, 0) " +
+            "ON DUPLICATE KEY UPDATE last_login = VALUES(last_login), last_seen = VALUES(last_seen), " +
+            "failed_login_attempts = 0";
+
+    // Sélection sur users : un utilisateur supprimé entre-temps est ignoré au lieu de violer la clé étrangère
+    private static final String UPSERT_LAST_SEEN_SQL =
+            "INSERT INTO user_activity (user_id, last_seen, failed_login_attempts) " +
+            "SELECT u.id, ?, 0 FROM users u WHERE u.id = ? " +
+            "ON DUPLICATE KEY UPDATE last_seen = GREATEST(COALESCE(last_seen, VALUES(last_seen)), VALUES(last_seen))";
+
+    private static final String UPSERT_FAILED_LOGIN_SQL =
+            "INSERT INTO user_activity (user_id, failed_login_attempts) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE failed_login_attempts = failed_login_attempts + VALUES(failed_login_attempts)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int upsertLastSeen(Map<Long, LocalDateTime> lastSeenByUserId) {
+        if (lastSeenByUserId.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> args = new ArrayList<>(lastSeenByUserId.size());
+        for (Map.Entry<Long, LocalDateTime> entry : lastSeenByUserId.entrySet()) {
+            args.add(new Object[]{Timestamp.valueOf(entry.getValue()), entry.getKey()});
+        }
+
+        int written = 0;
+        for (int count : jdbcTemplate.batchUpdate(UPSERT_LAST_SEEN_SQL, args)) {
+            // 1 par insertion, 2 par mise à jour, 0 si inchangée ; SUCCESS_NO_INFO (-2) compte pour une
+            written += count == Statement.SUCCESS_NO_INFO ? 1 : Math.min(Math.max(count, 0), 1);
+        }
+        return written;
+    }
+
+    @Override
+    public void upsertLogin(Long userId, LocalDateTime loginTime) {
+        Timestamp timestamp = Timestamp.valueOf(loginTime);
+        jdbcTemplate.update(UPSERT_LOGIN_SQL, userId, timestamp, timestamp);
+    }
+
+    @Override
+    public void upsertFailedLogins(Long userId, int attempts) {
+        jdbcTemplate.update(UPSERT_FAILED_LOGIN_SQL, userId, attempts);
+    }
+}
@@ -0,0 +1,12 @@
+package com.securetalk.repository;
+
+import com.securetalk.model.UserAgent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository du dictionnaire des User-Agent
+ */
+@Repository
+public interface UserAgentRepository extends JpaRepository<UserAgent, Integer>, UserAgentRepositoryCustom {
+}
@@ -0,0 +1,21 @@
+package com.securetalk.repository;
+
+import com.securetalk.model.UserAgent;
+
+import java.util.List;
+
+/**
+ * Insertion idempotente dans le dictionnaire des User-Agent et lecture de ses entrées récentes, en JDBC
+ */
+public interface UserAgentRepositoryCustom {
+
+    /**
+     * ID de la chaîne, insérée si elle est absente
+     */
+    int internId(byte[] valueHash, String value);
+
+    /**
+     * Entrées les plus récemment ajoutées, détachées
+     */
+    List<UserAgent> findMostRecent(int limit);
+}
@@ -0,0 +1,42 @@
+package com.securetalk.repository;
+
+import com.securetalk.model.UserAgent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Implémentation JDBC de {@link UserAgentRepositoryCustom} (INSERT IGNORE MySQL)
+ */
+@RequiredArgsConstructor
+public class UserAgentRepositoryImpl implements UserAgentRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT IGNORE INTO user_agents (user_agent_hash, user_agent) VALUES (?, ?)";
+
+    private static final String SELECT_ID_SQL =
+            "SELECT id FROM user_agents WHERE user_agent_hash = ?";
+
+    private static final String SELECT_RECENT_SQL =
+            "SELECT id, user_agent_hash, user_agent FROM user_agents ORDER BY id DESC LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int internId(byte[] valueHash, String value) {
+        // Une insertion concurrente de la même chaîne est ignorée : l'ID est relu dans tous les cas
+        jdbcTemplate.update(INSERT_SQL, valueHash, value);
+        Integer id = jdbcTemplate.queryForObject(SELECT_ID_SQL, Integer.class, (Object) valueHash);
+        if (id == null) {
+            throw new IllegalStateException("User-Agent absent du dictionnaire après insertion");
+        }
+        return id;
+    }
+
+    @Override
+    public List<UserAgent> findMostRecent(int limit) {
+        return jdbcTemplate.query(SELECT_RECENT_SQL, (rs, rowNum) ->
+                new UserAgent(rs.getInt("id"), rs.getBytes("user_agent_hash"), rs.getString("user_agent")), limit);
+    }
+}
@@ -0,0 +1,45 @@
+package com.securetalk.repository;
+
+import com.securetalk.model.UserContact;
+import com.securetalk.model.UserContactId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository des contacts (table {@code user_contacts})
+ */
+@Repository
+public interface UserContactRepository extends JpaRepository<UserContact, UserContactId>, UserContactRepositoryCustom {
+
+    /**
+     * Contacts d'un utilisateur, du plus récent au plus ancien, avec le correspondant chargé
+     */
+    @Query(value = "SELECT c FROM UserContact c JOIN FETCH c.peer WHERE c.id.userId = :userId " +
+            "ORDER BY c.lastContact DESC",
+            countQuery = "SELECT COUNT(c) FROM UserContact c WHERE c.id.userId = :userId")
+    Page<UserContact> findRecentContacts(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * IDs des correspondants les plus récents (classement de l'autocomplétion)
+     */
+    @Query("SELECT c.id.peerId FROM UserContact c WHERE c.id.userId = :userId ORDER BY c.lastContact DESC")
+    List<Long> findRecentPeerIds(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * IDs de tous les correspondants d'un utilisateur (audience de sa présence)
+     */
+    @Query("SELECT c.id.peerId FROM UserContact c WHERE c.id.userId = :userId")
+    List<Long> findPeerIds(@Param("userId") Long userId);
+
+    /**
+     * Nombre de contacts d'un utilisateur
+     */
+    @Query("SELECT COUNT(c) FROM UserContact c WHERE c.id.userId = :userId")
+    long countContacts(@Param("userId") Long userId);
+}
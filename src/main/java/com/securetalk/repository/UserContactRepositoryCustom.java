@@ -0,0 +1,14 @@
+package com.securetalk.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Opérations d'écriture de {@link UserContactRepository} sans passer par le contexte de persistance
+ */
+public interface UserContactRepositoryCustom {
+
+    /**
+     * Enregistre un échange dans les deux sens (insertion ou mise à jour de l'arête existante)
+     */
+    void recordExchange(Long senderId, Long recipientId, LocalDateTime at);
+}
@@ -0,0 +1,37 @@
+package com.securetalk.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Implémentation JDBC de {@link UserContactRepositoryCustom} (upsert MySQL)
+ */
+@RequiredArgsConstructor
+public class UserContactRepositoryImpl implements UserContactRepositoryCustom {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO user_contacts (user_id, peer_id, first_contact, last_contact, message_count) " +
+            "VALUES (?, ?, ?, ?, 1), (?, ?, ?, ?, 1) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "last_contact = GREATEST(last_contact, VALUES(last_contact)), " +
+            "message_count = message_count + 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void recordExchange(Long senderId, Long recipientId, LocalDateTime at) {
+        if (senderId.equals(recipientId)) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.valueOf(at);
+        // Ordre des lignes fixe (plus petit ID d'abord) pour éviter les interblocages entre envois croisés
+        Long first = Math.min(senderId, recipientId);
+        Long second = Math.max(senderId, recipientId);
+        jdbcTemplate.update(UPSERT_SQL,
+                first, second, timestamp, timestamp,
+                second, first, timestamp, timestamp);
+    }
+}
@@ -0,0 +1,30 @@
+package com.securetalk.repository;
+
+import com.securetalk.model.UserMessageStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository des compteurs de messages par utilisateur (table {@code user_message_stats})
+ */
+@Repository
+public interface UserMessageStatsRepository extends JpaRepository<UserMessageStats, Long>,
+        UserMessageStatsRepositoryCustom {
+
+    /**
+     * Compteurs d'une page d'utilisateurs en une seule requête (listes d'administration)
+     */
+    @Query("SELECT s FROM UserMessageStats s WHERE s.userId IN :userIds")
+    List<UserMessageStats> findByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Plus grand ID utilisateur, borne du job de réparation
+     */
+    @Query("SELECT COALESCE(MAX(u.id), 0) FROM User u")
+    long findMaxUserId();
+}
@@ -0,0 +1,55 @@
+package com.securetalk.repository;
+
+import java.util.Map;
+
+/**
+ * Écritures des compteurs de {@link UserMessageStatsRepository}, par upsert JDBC
+ */
+public interface UserMessageStatsRepositoryCustom {
+
+    /**
+     * Ajoute des deltas aux compteurs d'un utilisateur (crée la ligne si nécessaire)
+     */
+    void addDeltas(Long userId, long sentDelta, long receivedDelta, long deletedDelta);
+
+    /**
+     * Ajoute les deltas de plusieurs utilisateurs en un lot, par ID croissant : deux transactions
+     * qui touchent les mêmes lignes les verrouillent dans le même ordre et ne s'interbloquent pas
+     */
+    void addDeltas(Map<Long, StatsDelta> deltasByUserId);
+
+    /**
+     * Recalcule les compteurs des utilisateurs d'une plage d'IDs à partir de {@code messages}
+     *
+     * @return nombre d'utilisateurs traités
+     */
+    int recompute(Long fromUserId, Long toUserId);
+
+    /**
+     * Deltas cumulables des trois compteurs d'un utilisateur
+     */
+    final class StatsDelta {
+        private long sent;
+        private long received;
+        private long deleted;
+
+        public StatsDelta add(long sentDelta, long receivedDelta, long deletedDelta) {
+            sent += sentDelta;
+            received += receivedDelta;
+            deleted += deletedDelta;
+            return this;
+        }
+
+        public long getSent() {
+            return sent;
+        }
+
+        public long getReceived() {
+            return received;
+        }
+
+        public long getDeleted() {
+            return deleted;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.securetalk.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Implémentation JDBC de {@link UserMessageStatsRepositoryCustom} (upsert MySQL)
+ */
+@RequiredArgsConstructor
+public class UserMessageStatsRepositoryImpl implements UserMessageStatsRepositoryCustom {
+
+    private static final String ADD_DELTAS_SQL =
+            "INSERT INTO user_message_stats (user_id, sent_count, received_count, deleted_count) " +
+            "VALUES (?, GREATEST(?, 0), GREATEST(?, 0), GREATEST(?, 0)) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "sent_count = GREATEST(sent_count + ?, 0), " +
+            "received_count = GREATEST(received_count + ?, 0), " +
+            "deleted_count = GREATEST(deleted_count + ?, 0)";
+
+    private static final String RECOMPUTE_SQL =
+            "INSERT INTO user_message_stats (user_id, sent_count, received_count, deleted_count) " +
+            "SELECT u.id, " +
+            "  (SELECT COUNT(*) FROM messages m WHERE m.sender_id = u.id AND m.is_deleted = 0), " +
+            "  (SELECT COUNT(*) FROM messages m WHERE m.recipient_id = u.id AND m.is_deleted = 0), " +
+            "  (SELECT COUNT(*) FROM messages m WHERE m.sender_id = u.id AND m.is_deleted = 1) + " +
+            "  (SELECT COUNT(*) FROM messages m WHERE m.recipient_id = u.id AND m.is_deleted = 1) " +
+            "FROM users u WHERE u.id BETWEEN ? AND ? " +
+            "ON DUPLICATE KEY UPDATE " +
+            "sent_count = VALUES(sent_count), " +
+            "received_count = VALUES(received_count), " +
+            "deleted_count = VALUES(deleted_count)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addDeltas(Long userId, long sentDelta, long receivedDelta, long deletedDelta) {
+        jdbcTemplate.update(ADD_DELTAS_SQL,
+                userId, sentDelta, receivedDelta, deletedDelta,
+                sentDelta, receivedDelta, deletedDelta);
+    }
+
+    @Override
+    public void addDeltas(Map<Long, StatsDelta> deltasByUserId) {
+        if (deltasByUserId.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(deltasByUserId.size());
+        for (Map.Entry<Long, StatsDelta> entry : new TreeMap<>(deltasByUserId).entrySet()) {
+            StatsDelta delta = entry.getValue();
+            args.add(new Object[]{entry.getKey(), delta.getSent(), delta.getReceived(), delta.getDeleted(),
+                    delta.getSent(), delta.getReceived(), delta.getDeleted()});
+        }
+        jdbcTemplate.batchUpdate(ADD_DELTAS_SQL, args);
+    }
+
+    @Override
+    public int recompute(Long fromUserId, Long toUserId) {
+        return jdbcTemplate.update(RECOMPUTE_SQL, fromUserId, toUserId);
+    }
+}
@@ -3,16 +3,21 @@ package com.securetalk.repository;
 
 import com.securetalk.model.Role;
 import com.securetalk.model.User;
+import com.securetalk.repository.projection.UserSearchView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,7 +25,8 @@ import java.util.Optional;
  * Repository pour la gestion des utilisateurs
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User>,
+        UserRepositoryCustom {
 
     // ===== RECHERCHES BASIQUES =====
 
@@ -62,12 +68,26 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
      */
     boolean existsByUsernameAndIdNot(String username, Long id);
 
+    /**
+     * Noms d'utilisateur déjà pris parmi ceux donnés (collation insensible à la casse)
+     */
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Emails déjà pris parmi ceux donnés (collation insensible à la casse)
+     */
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     // ===== RECHERCHES PAR STATUT =====
 
     /**
-     * Trouve tous les utilisateurs actifs
+     * Tranche des utilisateurs actifs d'ID strictement supérieur à {@code afterId}
      */
-    List<User> findByEnabledTrue();
+    @Query("SELECT u FROM User u WHERE u.enabled = true AND u.id > :afterId ORDER BY u.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    List<User> findByEnabledTrue(@Param("afterId") Long afterId, Pageable pageable);
 
     /**
      * Trouve tous les utilisateurs actifs avec pagination
@@ -79,43 +99,47 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
      */
     List<User> findByEnabledFalse();
 
+    // ===== RECHERCHES PAR RÔLE =====
+
     /**
-     * Trouve tous les utilisateurs en ligne
+     * Trouve tous les utilisateurs ayant un rôle spécifique
      */
-    @Query("SELECT u FROM User u WHERE u.isOnline = true AND u.enabled = true")
-    List<User> findOnlineUsers();
+    default List<User> findByRole(Role role) {
+        return findByRolesMaskBit(role.getMask());
+    }
 
     /**
-     * Trouve tous les utilisateurs en ligne sauf un utilisateur spécifique
+     * Compte le nombre d'utilisateurs ayant un rôle spécifique
      */
-    @Query("SELECT u FROM User u WHERE u.isOnline = true AND u.enabled = true AND u.id != :excludeUserId")
-    List<User> findOnlineUsersExcept(@Param("excludeUserId") Long excludeUserId);
-
-    // ===== RECHERCHES PAR RÔLE =====
+    default long countByRole(Role role) {
+        return countByRolesMaskBit(role.getMask());
+    }
 
     /**
-     * Trouve tous les utilisateurs ayant un rôle spécifique
+     * Trouve les utilisateurs dont le masque de rôles contient le bit donné
      */
-    @Query("SELECT u FROM User u JOIN u.roles r WHERE r = :role")
-    List<User> findByRole(@Param("role") Role role);
+    @Query("SELECT u FROM User u WHERE bitand(u.rolesMask, :bit) <> 0")
+    List<User> findByRolesMaskBit(@Param("bit") int bit);
 
     /**
-     * Compte le nombre d'utilisateurs ayant un rôle spécifique
+     * Compte les utilisateurs dont le masque de rôles contient le bit donné
      */
-    @Query("SELECT COUNT(u) FROM User u JOIN u.roles r WHERE r = :role")
-    long countByRole(@Param("role") Role role);
+    @Query("SELECT COUNT(u) FROM User u WHERE bitand(u.rolesMask, :bit) <> 0")
+    long countByRolesMaskBit(@Param("bit") int bit);
 
     /**
      * Trouve tous les administrateurs
      */
-    @Query("SELECT u FROM User u JOIN u.roles r WHERE r = 'ADMIN'")
-    List<User> findAllAdmins();
+    default List<User> findAllAdmins() {
+        return findByRolesMaskBit(Role.ADMIN.getMask());
+    }
 
     /**
      * Compte le nombre d'administrateurs
      */
-    @Query("SELECT COUNT(u) FROM User u JOIN u.roles r WHERE r = 'ADMIN'")
-    long countAdmins();
+    default long countAdmins() {
+        return countByRolesMaskBit(Role.ADMIN.getMask());
+    }
 
     // ===== RECHERCHES TEMPORELLES =====
 
@@ -124,27 +148,11 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
      */
     List<User> findByCreatedAtAfter(LocalDateTime date);
 
-    /**
-     * Trouve les utilisateurs connectés après une date
-     */
-    List<User> findByLastLoginAfter(LocalDateTime date);
-
-    /**
-     * Trouve les utilisateurs actifs récemment (dernière activité)
-     */
-    @Query("SELECT u FROM User u WHERE u.lastSeen >= :since AND u.enabled = true")
-    List<User> findRecentlyActiveUsers(@Param("since") LocalDateTime since);
-
-    /**
-     * Trouve les utilisateurs inactifs depuis une date
-     */
-    @Query("SELECT u FROM User u WHERE u.lastSeen < :since OR u.lastSeen IS NULL")
-    List<User> findInactiveUsersSince(@Param("since") LocalDateTime since);
-
     // ===== RECHERCHES TEXTUELLES =====
 
     /**
-     * Recherche d'utilisateurs par nom d'utilisateur ou email (LIKE)
+     * Recherche d'utilisateurs par nom d'utilisateur ou email (LIKE).
+     * Parcours complet de la table : préférer {@code UserSearchService}, adossé à l'index trigramme.
      */
     @Query("SELECT u FROM User u WHERE " +
             "LOWER(u.username) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
@@ -154,7 +162,8 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     Page<User> searchUsers(@Param("searchTerm") String searchTerm, Pageable pageable);
 
     /**
-     * Recherche d'utilisateurs actifs pour la messagerie
+     * Recherche d'utilisateurs actifs pour la messagerie.
+     * Parcours complet de la table : préférer {@code UserSearchService}, adossé à l'index trigramme.
      */
     @Query("SELECT u FROM User u WHERE u.enabled = true AND u.id != :currentUserId AND (" +
             "LOWER(u.username) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
@@ -163,6 +172,23 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     List<User> searchActiveUsersForMessaging(@Param("currentUserId") Long currentUserId,
                                              @Param("searchTerm") String searchTerm);
 
+    /**
+     * Parcourt les champs indexés des utilisateurs par tranches de clé primaire
+     * (construction des index de recherche en mémoire)
+     */
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, " +
+            "u.firstName AS firstName, u.lastName AS lastName, u.enabled AS enabled " +
+            "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSearchView> findSearchViewsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Champs indexés des utilisateurs aux noms donnés (publication des créations faites en JDBC)
+     */
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, " +
+            "u.firstName AS firstName, u.lastName AS lastName, u.enabled AS enabled " +
+            "FROM User u WHERE u.username IN :usernames")
+    List<UserSearchView> findSearchViewsByUsernames(@Param("usernames") Collection<String> usernames);
+
     // ===== STATISTIQUES =====
 
     /**
@@ -175,12 +201,6 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
      */
     long countByEnabledTrue();
 
-    /**
-     * Compte les utilisateurs en ligne
-     */
-    @Query("SELECT COUNT(u) FROM User u WHERE u.isOnline = true AND u.enabled = true")
-    long countOnlineUsers();
-
     /**
      * Statistiques d'inscription par période
      */
@@ -190,42 +210,15 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     List<Object[]> getRegistrationStatistics(@Param("startDate") LocalDateTime startDate);
 
     /**
-     * Top utilisateurs par nombre de messages envoyés
+     * Top utilisateurs par nombre de messages envoyés (compteur dénormalisé, parcours d'index)
      */
-    @Query("SELECT u, COUNT(m) as messageCount FROM User u " +
-            "LEFT JOIN u.sentMessages m " +
+    @Query("SELECT u, s.sentCount FROM UserMessageStats s JOIN s.user u " +
             "WHERE u.enabled = true " +
-            "GROUP BY u " +
-            "ORDER BY messageCount DESC")
+            "ORDER BY s.sentCount DESC")
     List<Object[]> getTopUsersByMessagesCount(Pageable pageable);
 
     // ===== MISE À JOUR EN MASSE =====
 
-    /**
-     * Met à jour le statut en ligne d'un utilisateur
-     */
-    @Modifying
-    @Query("UPDATE User u SET u.isOnline = :isOnline, u.lastSeen = :lastSeen WHERE u.id = :userId")
-    void updateOnlineStatus(@Param("userId") Long userId,
-                            @Param("isOnline") Boolean isOnline,
-                            @Param("lastSeen") LocalDateTime lastSeen);
-
-    /**
-     * Met à jour la dernière connexion
-     */
-    @Modifying
-    @Query("UPDATE User u SET u.lastLogin = :loginTime, u.lastSeen = :loginTime, " +
-            "u.isOnline = true, u.failedLoginAttempts = 0, u.lockedUntil = null " +
-            "WHERE u.id = :userId")
-    void updateLastLogin(@Param("userId") Long userId, @Param("loginTime") LocalDateTime loginTime);
-
-    /**
-     * Incrémente les tentatives de connexion échouées
-     */
-    @Modifying
-    @Query("UPDATE User u SET u.failedLoginAttempts = u.failedLoginAttempts + 1 WHERE u.email = :email")
-    void incrementFailedLoginAttempts(@Param("email") String email);
-
     /**
      * Verrouille un compte
      */
@@ -234,19 +227,19 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     void lockAccount(@Param("userId") Long userId, @Param("lockedUntil") LocalDateTime lockedUntil);
 
     /**
-     * Déverrouille un compte
+     * Verrouille temporairement un compte (trop d'échecs de connexion) : le verrou tombe de lui-même
+     * à {@code lockedUntil}, sans toucher au verrouillage administratif
      */
     @Modifying
-    @Query("UPDATE User u SET u.lockedUntil = null, u.accountNonLocked = true, " +
-            "u.failedLoginAttempts = 0 WHERE u.id = :userId")
-    void unlockAccount(@Param("userId") Long userId);
+    @Query("UPDATE User u SET u.lockedUntil = :lockedUntil WHERE u.id = :userId")
+    void lockTemporarily(@Param("userId") Long userId, @Param("lockedUntil") LocalDateTime lockedUntil);
 
     /**
-     * Met tous les utilisateurs hors ligne (utile au redémarrage du serveur)
+     * Déverrouille un compte (les échecs sont remis à zéro dans {@code user_activity})
      */
     @Modifying
-    @Query("UPDATE User u SET u.isOnline = false WHERE u.isOnline = true")
-    void setAllUsersOffline();
+    @Query("UPDATE User u SET u.lockedUntil = null, u.accountNonLocked = true WHERE u.id = :userId")
+    void unlockAccount(@Param("userId") Long userId);
 
     /**
      * Met à jour le mot de passe et la date de changement
@@ -261,13 +254,10 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     // ===== REQUÊTES POUR LA MESSAGERIE =====
 
     /**
-     * Trouve les utilisateurs avec qui un utilisateur a échangé des messages
+     * Trouve les utilisateurs avec qui un utilisateur a échangé des messages, du plus récent
+     * au plus ancien (parcours de l'index {@code user_contacts})
      */
-    @Query("SELECT DISTINCT CASE " +
-            "WHEN m.sender.id = :userId THEN m.recipient " +
-            "ELSE m.sender END " +
-            "FROM Message m " +
-            "WHERE m.sender.id = :userId OR m.recipient.id = :userId")
+    @Query("SELECT c.peer FROM UserContact c WHERE c.id.userId = :userId ORDER BY c.lastContact DESC")
     List<User> findConversationParticipants(@Param("userId") Long userId);
 
     /**
@@ -293,20 +283,18 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     List<User> findLockedAccounts(@Param("now") LocalDateTime now);
 
     /**
-     * Trouve les comptes avec trop de tentatives de connexion échouées
-     */
-    @Query("SELECT u FROM User u WHERE u.failedLoginAttempts >= :maxAttempts")
-    List<User> findAccountsWithTooManyFailedAttempts(@Param("maxAttempts") Integer maxAttempts);
-
-    /**
-     * Trouve les utilisateurs qui n'ont jamais changé leur mot de passe
+     * Tranche des utilisateurs qui n'ont jamais changé leur mot de passe, par ID croissant
      */
-    @Query("SELECT u FROM User u WHERE u.passwordChangedAt IS NULL")
-    List<User> findUsersWithDefaultPassword();
+    @Query("SELECT u FROM User u WHERE u.passwordChangedAt IS NULL AND u.id > :afterId ORDER BY u.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    List<User> findUsersWithDefaultPassword(@Param("afterId") Long afterId, Pageable pageable);
 
     /**
-     * Trouve les utilisateurs dont le mot de passe est ancien
+     * Tranche des utilisateurs dont le mot de passe est ancien, par ID croissant
      */
-    @Query("SELECT u FROM User u WHERE u.passwordChangedAt < :date OR u.passwordChangedAt IS NULL")
-    List<User> findUsersWithOldPassword(@Param("date") LocalDateTime date);
+    @Query("SELECT u FROM User u WHERE (u.passwordChangedAt < :date OR u.passwordChangedAt IS NULL) " +
+            "AND u.id > :afterId ORDER BY u.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    List<User> findUsersWithOldPassword(@Param("date") LocalDateTime date,
+                                        @Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
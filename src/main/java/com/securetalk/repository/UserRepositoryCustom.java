@@ -0,0 +1,18 @@
+package com.securetalk.repository;
+
+import com.securetalk.model.User;
+
+import java.util.List;
+
+/**
+ * Écritures en masse de {@link UserRepository}, par lots JDBC
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Insère les utilisateurs en un lot ; les lignes en conflit d'unicité sont ignorées.
+     * Le lot étant réécrit en une requête multi-lignes par le driver, les comptes par ligne ne
+     * sont pas disponibles : l'appelant relit les lignes pour savoir lesquelles ont été insérées.
+     */
+    void insertIgnoringDuplicates(List<User> users);
+}
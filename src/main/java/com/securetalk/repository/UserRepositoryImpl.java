@@ -0,0 +1,43 @@
+package com.securetalk.repository;
+
+import com.securetalk.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implémentation JDBC de {@link UserRepositoryCustom} (insertion par lots MySQL).
+ * Contourne le listener d'entité : l'appelant publie lui-même les événements de création.
+ */
+@RequiredArgsConstructor
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT IGNORE INTO users (username, email, password, first_name, last_name, roles_mask, enabled, " +
+            "account_non_expired, account_non_locked, credentials_non_expired, email_verified, " +
+            "created_at, updated_at, version, created_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, true, true, true, false, ?, ?, 0, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertIgnoringDuplicates(List<User> users) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, users, users.size(), (PreparedStatement ps, User user) -> {
+            ps.setString(1, user.getUsername());
+            ps.setString(2, user.getEmail());
+            ps.setString(3, user.getPassword());
+            ps.setString(4, user.getFirstName());
+            ps.setString(5, user.getLastName());
+            ps.setInt(6, user.getRolesMask());
+            ps.setBoolean(7, user.isEnabled());
+            ps.setTimestamp(8, now);
+            ps.setTimestamp(9, now);
+            ps.setString(10, user.getCreatedBy());
+        });
+    }
+}
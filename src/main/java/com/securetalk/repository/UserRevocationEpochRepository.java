@@ -0,0 +1,23 @@
+package com.securetalk.repository;
+
+import com.securetalk.model.UserRevocationEpoch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository des époques de révocation (table {@code user_revocation_epochs})
+ */
+@Repository
+public interface UserRevocationEpochRepository extends JpaRepository<UserRevocationEpoch, Long>,
+        UserRevocationEpochRepositoryCustom {
+
+    /**
+     * Supprime les époques antérieures au plus ancien token d'accès encore valide
+     */
+    @Modifying
+    @Query("DELETE FROM UserRevocationEpoch e WHERE e.epochSeconds <= :epochSeconds")
+    int deleteEpochsUpTo(@Param("epochSeconds") long epochSeconds);
+}
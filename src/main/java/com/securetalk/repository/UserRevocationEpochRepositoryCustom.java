@@ -0,0 +1,19 @@
+package com.securetalk.repository;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Écritures et chargement en flux des époques de révocation, en JDBC
+ */
+public interface UserRevocationEpochRepositoryCustom {
+
+    /**
+     * Enregistre l'époque de l'utilisateur si elle est plus récente que l'actuelle
+     */
+    void raiseEpoch(Long userId, long epochSeconds);
+
+    /**
+     * Parcourt les époques postérieures à {@code afterEpochSeconds} sans les charger en entités
+     */
+    void forEachEpochAfter(long afterEpochSeconds, BiConsumer<Long, Long> consumer);
+}
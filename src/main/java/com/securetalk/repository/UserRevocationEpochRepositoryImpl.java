@@ -0,0 +1,36 @@
+package com.securetalk.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Implémentation JDBC de {@link UserRevocationEpochRepositoryCustom} (upsert MySQL)
+ */
+@RequiredArgsConstructor
+public class UserRevocationEpochRepositoryImpl implements UserRevocationEpochRepositoryCustom {
+
+    private static final String RAISE_SQL =
+            "INSERT INTO user_revocation_epochs (user_id, epoch_seconds) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE epoch_seconds = GREATEST(epoch_seconds, VALUES(epoch_seconds))";
+
+    private static final String SELECT_AFTER_SQL =
+            "SELECT user_id, epoch_seconds FROM user_revocation_epochs WHERE epoch_seconds > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void raiseEpoch(Long userId, long epochSeconds) {
+        jdbcTemplate.update(RAISE_SQL, userId, epochSeconds);
+    }
+
+    @Override
+    public void forEachEpochAfter(long afterEpochSeconds, BiConsumer<Long, Long> consumer) {
+        jdbcTemplate.query(SELECT_AFTER_SQL,
+                rs -> {
+                    consumer.accept(rs.getLong(1), rs.getLong(2));
+                },
+                afterEpochSeconds);
+    }
+}
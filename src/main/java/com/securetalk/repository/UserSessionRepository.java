@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,12 +18,12 @@ import java.util.Optional;
  * Repository pour la gestion des sessions utilisateur
  */
 @Repository
-public interface UserSessionRepository extends JpaRepository<UserSession, Long> {
+public interface UserSessionRepository extends JpaRepository<UserSession, Long>, UserSessionRepositoryCustom {
 
     /**
-     * Trouve une session par token
+     * Trouve une session par son identifiant
      */
-    Optional<UserSession> findBySessionToken(String sessionToken);
+    Optional<UserSession> findBySessionId(String sessionId);
 
     /**
      * Trouve toutes les sessions actives d'un utilisateur
@@ -46,6 +47,19 @@ public interface UserSessionRepository extends JpaRepository<UserSession, Long>
      */
     List<UserSession> findByIpAddressAndCreatedAtAfter(String ipAddress, LocalDateTime since);
 
+    /**
+     * Trouve les sessions ouvertes depuis une plage d'adresses
+     */
+    List<UserSession> findByIpAddressBetweenAndCreatedAtAfter(String first, String last, LocalDateTime since);
+
+    /**
+     * Trouve les sessions ouvertes depuis un sous-réseau ({@code 192.168.1.0/24}, {@code 2001:db8::/32})
+     */
+    default List<UserSession> findBySubnetSince(String cidr, LocalDateTime since) {
+        IpRange range = IpRange.parse(cidr);
+        return findByIpAddressBetweenAndCreatedAtAfter(range.getFirst(), range.getLast(), since);
+    }
+
     /**
      * Compte les sessions actives par utilisateur
      */
@@ -53,18 +67,26 @@ public interface UserSessionRepository extends JpaRepository<UserSession, Long>
     long countActiveSessionsByUser(@Param("user") User user, @Param("now") LocalDateTime now);
 
     /**
-     * Met à jour l'activité d'une session
+     * Termine les sessions expirées par inactivité (détectée en mémoire), si la base confirme :
+     * une autre instance a pu servir la session depuis et avancer sa dernière activité
      */
     @Modifying
-    @Query("UPDATE UserSession us SET us.lastActivity = :lastActivity WHERE us.sessionToken = :sessionToken")
-    void updateSessionActivity(@Param("sessionToken") String sessionToken, @Param("lastActivity") LocalDateTime lastActivity);
+    @Query("UPDATE UserSession us SET us.isActive = false, us.isCurrent = false, us.logoutTime = :logoutTime, " +
+            "us.logoutReason = :reason WHERE us.sessionId IN :sessionIds AND us.isActive = true " +
+            "AND (us.lastActivity < :idleCutoff OR us.expiresAt <= :logoutTime)")
+    int terminateIdleSessions(@Param("sessionIds") Collection<String> sessionIds,
+                              @Param("idleCutoff") LocalDateTime idleCutoff,
+                              @Param("logoutTime") LocalDateTime logoutTime, @Param("reason") String reason);
 
     /**
-     * Termine toutes les sessions d'un utilisateur
+     * Termine toutes les sessions actives d'un utilisateur
+     * (les JWT d'accès déjà émis sont refusés par l'époque de révocation, voir {@code UserAccountService})
      */
     @Modifying
-    @Query("UPDATE UserSession us SET us.isActive = false, us.logoutAt = :logoutTime WHERE us.user = :user AND us.isActive = true")
-    void terminateAllSessionsForUser(@Param("user") User user, @Param("logoutTime") LocalDateTime logoutTime);
+    @Query("UPDATE UserSession us SET us.isActive = false, us.isCurrent = false, us.logoutTime = :logoutTime, " +
+            "us.logoutReason = :reason WHERE us.user.id = :userId AND us.isActive = true")
+    int terminateAllSessionsForUser(@Param("userId") Long userId, @Param("logoutTime") LocalDateTime logoutTime,
+                                    @Param("reason") String reason);
 
     /**
      * Supprime les sessions anciennes
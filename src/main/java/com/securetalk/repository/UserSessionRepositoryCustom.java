@@ -0,0 +1,88 @@
+package com.securetalk.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Écriture par lots de l'activité des sessions et lecture de leur état, en JDBC
+ */
+public interface UserSessionRepositoryCustom {
+
+    /**
+     * Ajoute à chaque session active ses requêtes cumulées et avance sa dernière activité
+     */
+    void addActivity(List<ActivityDelta> deltas);
+
+    /**
+     * État de la session nécessaire au contrôle des requêtes, sans charger l'entité
+     */
+    Optional<SessionState> findState(String sessionId);
+
+    /**
+     * Activité cumulée en mémoire d'une session depuis la dernière écriture
+     */
+    final class ActivityDelta {
+
+        private final String sessionId;
+
+        private final int requests;
+
+        private final LocalDateTime lastActivity;
+
+        public ActivityDelta(String sessionId, int requests, LocalDateTime lastActivity) {
+            this.sessionId = sessionId;
+            this.requests = requests;
+            this.lastActivity = lastActivity;
+        }
+
+        public String getSessionId() {
+            return sessionId;
+        }
+
+        public int getRequests() {
+            return requests;
+        }
+
+        public LocalDateTime getLastActivity() {
+            return lastActivity;
+        }
+    }
+
+    /**
+     * État d'une session tel qu'enregistré en base
+     */
+    final class SessionState {
+
+        private final Long userId;
+
+        private final boolean active;
+
+        private final LocalDateTime expiresAt;
+
+        private final LocalDateTime lastActivity;
+
+        public SessionState(Long userId, boolean active, LocalDateTime expiresAt, LocalDateTime lastActivity) {
+            this.userId = userId;
+            this.active = active;
+            this.expiresAt = expiresAt;
+            this.lastActivity = lastActivity;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public LocalDateTime getExpiresAt() {
+            return expiresAt;
+        }
+
+        public LocalDateTime getLastActivity() {
+            return lastActivity;
+        }
+    }
+}
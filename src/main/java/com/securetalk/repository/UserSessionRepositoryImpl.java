@@ -0,0 +1,46 @@
+package com.securetalk.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implémentation JDBC de {@link UserSessionRepositoryCustom} (mises à jour par lots)
+ */
+@RequiredArgsConstructor
+public class UserSessionRepositoryImpl implements UserSessionRepositoryCustom {
+
+    private static final String ADD_ACTIVITY_SQL =
+            "UPDATE user_sessions SET activity_count = COALESCE(activity_count, 0) + ?, " +
+            "last_activity = GREATEST(last_activity, ?) " +
+            "WHERE session_id = ? AND is_active = true";
+
+    private static final String FIND_STATE_SQL =
+            "SELECT user_id, is_active, expires_at, last_activity FROM user_sessions WHERE session_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addActivity(List<ActivityDelta> deltas) {
+        jdbcTemplate.batchUpdate(ADD_ACTIVITY_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setInt(1, delta.getRequests());
+            ps.setTimestamp(2, Timestamp.valueOf(delta.getLastActivity()));
+            ps.setString(3, delta.getSessionId());
+        });
+    }
+
+    @Override
+    public Optional<SessionState> findState(String sessionId) {
+        List<SessionState> states = jdbcTemplate.query(FIND_STATE_SQL, (rs, rowNum) -> {
+            Timestamp expiresAt = rs.getTimestamp("expires_at");
+            Timestamp lastActivity = rs.getTimestamp("last_activity");
+            return new SessionState(rs.getLong("user_id"), rs.getBoolean("is_active"),
+                    expiresAt != null ? expiresAt.toLocalDateTime() : null,
+                    lastActivity != null ? lastActivity.toLocalDateTime() : null);
+        }, sessionId);
+        return states.stream().findFirst();
+    }
+}
@@ -0,0 +1,19 @@
+package com.securetalk.repository.projection;
+
+/**
+ * Projection des champs d'un utilisateur utilisés par les index de recherche en mémoire
+ */
+public interface UserSearchView {
+
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    String getFirstName();
+
+    String getLastName();
+
+    Boolean getEnabled();
+}
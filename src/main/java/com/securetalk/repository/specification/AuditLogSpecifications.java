@@ -3,6 +3,7 @@ package com.securetalk.repository.specification;
 
 import com.securetalk.model.AuditLog;
 import com.securetalk.model.User;
+import com.securetalk.repository.IpRange;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Predicate;
@@ -93,14 +94,18 @@ public class AuditLogSpecifications {
     }
 
     /**
-     * Logs par adresse IP
+     * Logs par adresse IP, ou par sous-réseau en notation CIDR ({@code 192.168.1.0/24})
      */
     public static Specification<AuditLog> fromIpAddress(String ipAddress) {
         return (root, query, criteriaBuilder) -> {
             if (ipAddress == null || ipAddress.trim().isEmpty()) {
                 return criteriaBuilder.conjunction();
             }
-            return criteriaBuilder.equal(root.get("ipAddress"), ipAddress);
+            if (ipAddress.indexOf('/') >= 0) {
+                IpRange range = IpRange.parse(ipAddress);
+                return criteriaBuilder.between(root.get("ipAddress"), range.getFirst(), range.getLast());
+            }
+            return criteriaBuilder.equal(root.get("ipAddress"), ipAddress.trim());
         };
     }
 
@@ -3,13 +3,15 @@ package com.securetalk.repository.specification;
 
 import com.securetalk.model.Role;
 import com.securetalk.model.User;
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
+import com.securetalk.model.UserActivity;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -55,8 +57,11 @@ public class UserSpecifications {
             if (role == null) {
                 return criteriaBuilder.conjunction();
             }
-            Join<User, Role> rolesJoin = root.join("roles", JoinType.INNER);
-            return criteriaBuilder.equal(rolesJoin, role);
+            return criteriaBuilder.notEqual(
+                    criteriaBuilder.function("bitand", Integer.class,
+                            root.get("rolesMask"), criteriaBuilder.literal(role.getMask())),
+                    0
+            );
         };
     }
 
@@ -73,14 +78,19 @@ public class UserSpecifications {
     }
 
     /**
-     * Utilisateurs en ligne ou hors ligne
+     * Utilisateurs en ligne ou hors ligne, d'après les IDs en ligne du registre de présence
+     * ({@code PresenceRegistry#getOnlineUserIds})
      */
-    public static Specification<User> isOnline(Boolean online) {
+    public static Specification<User> isOnline(Boolean online, Collection<Long> onlineUserIds) {
         return (root, query, criteriaBuilder) -> {
             if (online == null) {
                 return criteriaBuilder.conjunction();
             }
-            return criteriaBuilder.equal(root.get("isOnline"), online);
+            if (onlineUserIds.isEmpty()) {
+                return online ? criteriaBuilder.disjunction() : criteriaBuilder.conjunction();
+            }
+            Predicate inOnline = root.get("id").in(onlineUserIds);
+            return online ? inOnline : criteriaBuilder.not(inOnline);
         };
     }
 
@@ -109,19 +119,40 @@ public class UserSpecifications {
     }
 
     /**
-     * Utilisateurs connectés après une date
+     * Utilisateurs connectés après une date (d'après {@code user_activity})
      */
     public static Specification<User> lastLoginAfter(LocalDateTime date) {
         return (root, query, criteriaBuilder) -> {
             if (date == null) {
                 return criteriaBuilder.conjunction();
             }
-            return criteriaBuilder.greaterThanOrEqualTo(root.get("lastLogin"), date);
+            Subquery<Long> recentLogins = query.subquery(Long.class);
+            Root<UserActivity> activity = recentLogins.from(UserActivity.class);
+            recentLogins.select(activity.get("userId"))
+                    .where(criteriaBuilder.greaterThanOrEqualTo(activity.get("lastLogin"), date));
+            return root.get("id").in(recentLogins);
+        };
+    }
+
+    /**
+     * Utilisateurs dont l'ID fait partie d'un ensemble (candidats issus d'un index en mémoire)
+     */
+    public static Specification<User> idIn(Collection<Long> ids) {
+        return (root, query, criteriaBuilder) -> {
+            if (ids == null) {
+                return criteriaBuilder.conjunction();
+            }
+            if (ids.isEmpty()) {
+                return criteriaBuilder.disjunction();
+            }
+            return root.get("id").in(ids);
         };
     }
 
     /**
-     * Recherche globale dans plusieurs champs
+     * Recherche globale dans plusieurs champs.
+     * Les {@code LIKE '%terme%'} ne peuvent pas utiliser d'index : pour un terme saisi en direct,
+     * combiner plutôt {@link #idIn} avec les candidats de {@code UserSearchIndex}.
      */
     public static Specification<User> globalSearch(String searchTerm) {
         return (root, query, criteriaBuilder) -> {
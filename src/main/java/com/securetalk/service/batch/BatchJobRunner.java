@@ -0,0 +1,155 @@
+package com.securetalk.service.batch;
+
+import com.securetalk.model.BatchJobCheckpoint;
+import com.securetalk.model.User;
+import com.securetalk.repository.BatchJobCheckpointRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Exécute un job par lots en parcourant une table par tranches de clé primaire.
+ * <p>
+ * Chaque tranche est lue, traitée et validée dans sa propre transaction, avec la mise à jour
+ * du point de reprise ; le contexte de persistance est vidé entre deux tranches, la mémoire
+ * reste donc bornée par la taille d'une tranche. Un job interrompu reprend après la dernière
+ * tranche validée ; un job terminé repart du début au passage suivant.
+ */
+@Slf4j
+@Service
+public class BatchJobRunner {
+
+    private final BatchJobCheckpointRepository checkpointRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    private final Set<String> runningJobs = ConcurrentHashMap.newKeySet();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BatchJobRunner(BatchJobCheckpointRepository checkpointRepository,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${app.batch.chunk-size:500}") int chunkSize) {
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Parcourt les utilisateurs renvoyés par {@code query}
+     *
+     * @return nombre d'utilisateurs traités dans le passage
+     */
+    public long runOverUsers(String jobName, KeysetQuery<User> query, ChunkProcessor<User> processor) {
+        return run(jobName, query, User::getId, processor);
+    }
+
+    /**
+     * Parcourt les éléments renvoyés par {@code query}, tranche par tranche, depuis le dernier point de reprise
+     *
+     * @return nombre d'éléments traités dans le passage (y compris avant une éventuelle reprise),
+     * ou -1 si le job est déjà en cours sur cette instance
+     */
+    public <T> long run(String jobName, KeysetQuery<T> query, ToLongFunction<T> idOf, ChunkProcessor<T> processor) {
+        if (!runningJobs.add(jobName)) {
+            log.warn("Job {} déjà en cours, passage ignoré", jobName);
+            return -1;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            BatchJobCheckpoint checkpoint = transactionTemplate.execute(status -> begin(jobName));
+            if (checkpoint.getLastId() > 0) {
+                log.info("Job {}: reprise après l'ID {}", jobName, checkpoint.getLastId());
+            }
+
+            long lastId = checkpoint.getLastId();
+            long processed = checkpoint.getProcessedCount();
+            ChunkResult result;
+            do {
+                long afterId = lastId;
+                long processedBefore = processed;
+                result = transactionTemplate.execute(status ->
+                        processChunk(jobName, afterId, processedBefore, query, idOf, processor));
+                lastId = result.lastId;
+                processed += result.size;
+            } while (result.size == chunkSize);
+
+            transactionTemplate.executeWithoutResult(status -> complete(jobName));
+            log.info("Job {} terminé: {} éléments en {} ms", jobName, processed, System.currentTimeMillis() - start);
+            return processed;
+        } finally {
+            runningJobs.remove(jobName);
+        }
+    }
+
+    // ===== TRANCHES =====
+
+    private <T> ChunkResult processChunk(String jobName, long afterId, long processedBefore,
+                                         KeysetQuery<T> query, ToLongFunction<T> idOf,
+                                         ChunkProcessor<T> processor) {
+        List<T> chunk = query.fetch(afterId, PageRequest.of(0, chunkSize));
+        if (chunk.isEmpty()) {
+            return new ChunkResult(afterId, 0);
+        }
+
+        processor.process(chunk);
+        long lastId = idOf.applyAsLong(chunk.get(chunk.size() - 1));
+        BatchJobCheckpoint checkpoint = checkpointRepository.getReferenceById(jobName);
+        checkpoint.setLastId(lastId);
+        checkpoint.setProcessedCount(processedBefore + chunk.size());
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+
+        entityManager.flush();
+        entityManager.clear();
+        return new ChunkResult(lastId, chunk.size());
+    }
+
+    // ===== POINT DE REPRISE =====
+
+    /**
+     * Reprend le passage inachevé, ou en ouvre un nouveau si le précédent est terminé
+     */
+    private BatchJobCheckpoint begin(String jobName) {
+        BatchJobCheckpoint checkpoint = checkpointRepository.findById(jobName)
+                .orElseGet(() -> BatchJobCheckpoint.builder().jobName(jobName).build());
+        if (checkpoint.getStartedAt() == null || checkpoint.getCompletedAt() != null) {
+            checkpoint.setLastId(0L);
+            checkpoint.setProcessedCount(0L);
+            checkpoint.setStartedAt(LocalDateTime.now());
+            checkpoint.setCompletedAt(null);
+        }
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        return checkpointRepository.save(checkpoint);
+    }
+
+    private void complete(String jobName) {
+        checkpointRepository.findById(jobName).ifPresent(checkpoint -> {
+            LocalDateTime now = LocalDateTime.now();
+            checkpoint.setUpdatedAt(now);
+            checkpoint.setCompletedAt(now);
+        });
+    }
+
+    private static final class ChunkResult {
+        private final long lastId;
+        private final int size;
+
+        private ChunkResult(long lastId, int size) {
+            this.lastId = lastId;
+            this.size = size;
+        }
+    }
+}
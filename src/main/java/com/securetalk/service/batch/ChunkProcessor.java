@@ -0,0 +1,12 @@
+package com.securetalk.service.batch;
+
+import java.util.List;
+
+/**
+ * Traitement d'une tranche, exécuté dans la transaction de la tranche sur des entités gérées
+ */
+@FunctionalInterface
+public interface ChunkProcessor<T> {
+
+    void process(List<T> chunk);
+}
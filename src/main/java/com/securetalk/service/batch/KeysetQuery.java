@@ -0,0 +1,14 @@
+package com.securetalk.service.batch;
+
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Requête paginée par clé : éléments d'ID strictement supérieur à {@code afterId}, par ID croissant
+ */
+@FunctionalInterface
+public interface KeysetQuery<T> {
+
+    List<T> fetch(Long afterId, Pageable pageable);
+}
@@ -0,0 +1,80 @@
+package com.securetalk.service.contact;
+
+import com.securetalk.dto.response.ConversationDto;
+import com.securetalk.dto.response.UserDto;
+import com.securetalk.event.MessageCreatedEvent;
+import com.securetalk.model.User;
+import com.securetalk.model.UserContact;
+import com.securetalk.repository.MessageRepository;
+import com.securetalk.repository.UserContactRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintien et lecture de l'index des contacts ({@code user_contacts}).
+ * <p>
+ * L'arête est mise à jour dans la transaction d'envoi du message : un message validé a
+ * toujours son contact, un envoi annulé n'en laisse aucun.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserContactService {
+
+    private final UserContactRepository userContactRepository;
+
+    private final MessageRepository messageRepository;
+
+    /**
+     * Met à jour les contacts de l'expéditeur et du destinataire avant la validation de l'envoi
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onMessageCreated(MessageCreatedEvent event) {
+        userContactRepository.recordExchange(event.getSenderId(), event.getRecipientId(), event.getTimestamp());
+    }
+
+    /**
+     * Boîte de réception : contacts les plus récents avec le nombre de messages et de non lus
+     */
+    @Transactional(readOnly = true)
+    public Page<ConversationDto> getInbox(Long userId, Pageable pageable) {
+        Page<UserContact> contacts = userContactRepository.findRecentContacts(userId, pageable);
+        if (contacts.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        List<Long> peerIds = new ArrayList<>(contacts.getNumberOfElements());
+        for (UserContact contact : contacts) {
+            peerIds.add(contact.getId().getPeerId());
+        }
+        Map<Long, Long> unreadBySender = new HashMap<>();
+        for (Object[] row : messageRepository.countUnreadMessagesBySenders(userId, peerIds)) {
+            unreadBySender.put((Long) row[0], (Long) row[1]);
+        }
+
+        return contacts.map(contact -> ConversationDto.builder()
+                .id(contact.getId().getPeerId())
+                .participant(toParticipant(contact.getPeer()))
+                .totalMessages(contact.getMessageCount())
+                .unreadCount(unreadBySender.getOrDefault(contact.getId().getPeerId(), 0L))
+                .build());
+    }
+
+    private static UserDto toParticipant(User peer) {
+        return UserDto.builder()
+                .id(peer.getId())
+                .username(peer.getUsername())
+                .firstName(peer.getFirstName())
+                .lastName(peer.getLastName())
+                .build();
+    }
+}
@@ -0,0 +1,377 @@
+package com.securetalk.service.geo;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base de plages d'adresses IP projetée en mémoire ({@code mmap}), en lecture seule.
+ * <p>
+ * Format binaire (gros-boutiste) : en-tête {@code magic, version, n4, n6, nLieux}, puis les plages
+ * IPv4 triées {@code (début, fin, lieu)} sur 3 entiers non signés, les plages IPv6 triées
+ * {@code (début, fin, lieu)} sur 2 × 2 longs et un entier, enfin la table des lieux (pays et ville
+ * en UTF-8 préfixés par leur longueur). Les plages restent dans le fichier projeté ; une
+ * recherche est une dichotomie par lectures absolues, sans allocation. Seuls les lieux,
+ * peu nombreux, sont décodés au chargement.
+ * <p>
+ * Un fichier CSV {@code début,fin,pays[,ville]} est d'abord compilé dans ce format.
+ */
+final class GeoIpDatabase {
+
+    static final int MAGIC = 0x53544749; // "STGI"
+
+    static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 20;
+
+    private static final int V4_RECORD_BYTES = 12;
+
+    private static final int V6_RECORD_BYTES = 36;
+
+    private final MappedByteBuffer buffer;
+
+    private final int v4Offset;
+
+    private final int v4Count;
+
+    private final int v6Offset;
+
+    private final int v6Count;
+
+    private final GeoLocation[] locations;
+
+    private GeoIpDatabase(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Fichier de géolocalisation invalide");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Version de base de géolocalisation inconnue: " + buffer.getInt(4));
+        }
+        this.v4Count = buffer.getInt(8);
+        this.v6Count = buffer.getInt(12);
+        int locationCount = buffer.getInt(16);
+        // En long : des compteurs corrompus ne doivent pas déborder puis passer le contrôle
+        long locationsOffset = HEADER_BYTES + (long) v4Count * V4_RECORD_BYTES + (long) v6Count * V6_RECORD_BYTES;
+        if (v4Count < 0 || v6Count < 0 || locationCount < 0 || locationsOffset > buffer.capacity()) {
+            throw new IllegalArgumentException("Fichier de géolocalisation tronqué ou corrompu");
+        }
+        this.v4Offset = HEADER_BYTES;
+        this.v6Offset = v4Offset + v4Count * V4_RECORD_BYTES;
+
+        ByteBuffer reader = buffer.duplicate();
+        reader.position((int) locationsOffset);
+        this.locations = new GeoLocation[locationCount];
+        try {
+            for (int i = 0; i < locationCount; i++) {
+                String country = readString(reader);
+                String city = readString(reader);
+                locations[i] = new GeoLocation(country, city.isEmpty() ? null : city);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Table des lieux de géolocalisation tronquée", e);
+        }
+
+        // Une recherche ne lit ensuite plus que des index vérifiés
+        for (int i = 0; i < v4Count; i++) {
+            checkLocation(buffer.getInt(v4Offset + i * V4_RECORD_BYTES + 8));
+        }
+        for (int i = 0; i < v6Count; i++) {
+            checkLocation(buffer.getInt(v6Offset + i * V6_RECORD_BYTES + 32));
+        }
+    }
+
+    private void checkLocation(int location) {
+        if (location < 0 || location >= locations.length) {
+            throw new IllegalArgumentException("Index de lieu invalide dans la base de géolocalisation: " + location);
+        }
+    }
+
+    /**
+     * Projette une copie privée du fichier dans {@code workDir}, compilée d'abord s'il s'agit d'un CSV.
+     * <p>
+     * Le fichier source n'est jamais projeté : remplacé ou tronqué sur place pendant une mise à
+     * jour, il ferait échouer les lectures de la projection (SIGBUS).
+     */
+    static GeoIpDatabase open(Path file, Path workDir) throws IOException {
+        Path binary = Files.createTempFile(workDir, "geoip-", ".bin");
+        try {
+            if (isBinary(file)) {
+                Files.copy(file, binary, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                compile(file, binary);
+            }
+            try (FileChannel channel = FileChannel.open(binary, StandardOpenOption.READ)) {
+                // La projection survit à la fermeture du canal et à la suppression du fichier
+                return new GeoIpDatabase(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        } finally {
+            Files.deleteIfExists(binary);
+        }
+    }
+
+    int rangeCount() {
+        return v4Count + v6Count;
+    }
+
+    // ===== RECHERCHE =====
+
+    /**
+     * Lieu de l'adresse IPv4 (entier non signé), ou null
+     */
+    GeoLocation lookupV4(int address) {
+        int low = 0;
+        int high = v4Count - 1;
+        int candidate = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Integer.compareUnsigned(buffer.getInt(v4Offset + mid * V4_RECORD_BYTES), address) <= 0) {
+                candidate = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (candidate < 0) {
+            return null;
+        }
+        int record = v4Offset + candidate * V4_RECORD_BYTES;
+        return Integer.compareUnsigned(address, buffer.getInt(record + 4)) <= 0
+                ? locations[buffer.getInt(record + 8)]
+                : null;
+    }
+
+    /**
+     * Lieu de l'adresse IPv6 (128 bits en deux longs), ou null
+     */
+    GeoLocation lookupV6(long high64, long low64) {
+        int low = 0;
+        int high = v6Count - 1;
+        int candidate = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int record = v6Offset + mid * V6_RECORD_BYTES;
+            if (compare(buffer.getLong(record), buffer.getLong(record + 8), high64, low64) <= 0) {
+                candidate = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (candidate < 0) {
+            return null;
+        }
+        int record = v6Offset + candidate * V6_RECORD_BYTES;
+        return compare(high64, low64, buffer.getLong(record + 16), buffer.getLong(record + 24)) <= 0
+                ? locations[buffer.getInt(record + 32)]
+                : null;
+    }
+
+    private static int compare(long aHigh, long aLow, long bHigh, long bLow) {
+        int result = Long.compareUnsigned(aHigh, bHigh);
+        return result != 0 ? result : Long.compareUnsigned(aLow, bLow);
+    }
+
+    // ===== COMPILATION CSV =====
+
+    private static boolean isBinary(Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            byte[] header = new byte[4];
+            return input.read(header) == 4 && ByteBuffer.wrap(header).getInt() == MAGIC;
+        }
+    }
+
+    /**
+     * Compile un CSV {@code début,fin,pays[,ville]} (IPv4 ou IPv6, lignes {@code #} ignorées)
+     */
+    static void compile(Path csv, Path target) throws IOException {
+        List<long[]> v4 = new ArrayList<>();
+        List<long[]> v6 = new ArrayList<>();
+        Map<String, Integer> locationIds = new HashMap<>();
+        List<String[]> locations = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",", 4);
+                if (fields.length < 3) {
+                    throw new IllegalArgumentException("Ligne " + lineNumber + " : début,fin,pays[,ville] attendus");
+                }
+                byte[] start = parseLiteral(unquote(fields[0]));
+                byte[] end = parseLiteral(unquote(fields[1]));
+                if (start == null || end == null || start.length != end.length) {
+                    // En-tête ou plage invalide
+                    continue;
+                }
+                String country = unquote(fields[2]);
+                String city = fields.length > 3 ? unquote(fields[3]) : "";
+                String locationKey = country + '\u0000' + city;
+                Integer location = locationIds.get(locationKey);
+                if (location == null) {
+                    location = locations.size();
+                    locationIds.put(locationKey, location);
+                    locations.add(new String[]{country, city});
+                }
+                if (start.length == 4) {
+                    v4.add(new long[]{toUnsignedInt(start), toUnsignedInt(end), location});
+                } else {
+                    v6.add(new long[]{toLong(start, 0), toLong(start, 8), toLong(end, 0), toLong(end, 8), location});
+                }
+            }
+        }
+
+        v4.sort(Comparator.comparingLong(r -> r[0]));
+        v6.sort((a, b) -> compare(a[0], a[1], b[0], b[1]));
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(v4.size());
+            out.writeInt(v6.size());
+            out.writeInt(locations.size());
+            for (long[] range : v4) {
+                out.writeInt((int) range[0]);
+                out.writeInt((int) range[1]);
+                out.writeInt((int) range[2]);
+            }
+            for (long[] range : v6) {
+                out.writeLong(range[0]);
+                out.writeLong(range[1]);
+                out.writeLong(range[2]);
+                out.writeLong(range[3]);
+                out.writeInt((int) range[4]);
+            }
+            for (String[] location : locations) {
+                writeString(out, location[0]);
+                writeString(out, location[1]);
+            }
+        }
+    }
+
+    // ===== UTILITAIRES =====
+
+    /**
+     * Octets d'une adresse IP littérale, ou null ; jamais de résolution DNS
+     */
+    static byte[] parseLiteral(String value) {
+        if (value.indexOf(':') >= 0) {
+            if (!isIpv6Literal(value)) {
+                return null;
+            }
+            try {
+                InetAddress address = InetAddress.getByName(value);
+                // ::ffff:a.b.c.d est rendu en IPv4
+                return address.getAddress();
+            } catch (UnknownHostException e) {
+                return null;
+            }
+        }
+        long ipv4 = parseIpv4(value);
+        if (ipv4 < 0) {
+            return null;
+        }
+        return new byte[]{(byte) (ipv4 >>> 24), (byte) (ipv4 >>> 16), (byte) (ipv4 >>> 8), (byte) ipv4};
+    }
+
+    /**
+     * Vrai si la valeur ne contient que des caractères d'adresse IPv6 : {@link InetAddress#getByName}
+     * ne fait alors qu'analyser le littéral, alors qu'un nom comme {@code hote:80} serait résolu
+     */
+    static boolean isIpv6Literal(CharSequence value) {
+        if (value.length() == 0) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean hex = c >= '0' && c <= '9' || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F';
+            if (!hex && c != ':' && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adresse IPv4 pointée en entier non signé, ou -1 ; sans allocation
+     */
+    static long parseIpv4(CharSequence value) {
+        long result = 0;
+        int octets = 0;
+        int octet = -1;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && octet >= 0 && octets < 3) {
+                result = (result << 8) | octet;
+                octets++;
+                octet = -1;
+            } else {
+                return -1;
+            }
+        }
+        if (octets != 3 || octet < 0) {
+            return -1;
+        }
+        return (result << 8) | octet;
+    }
+
+    static long toLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = (value << 8) | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    static long toUnsignedInt(byte[] bytes) {
+        return ((bytes[0] & 0xFFL) << 24) | ((bytes[1] & 0xFF) << 16) | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+    }
+
+    private static String unquote(String value) {
+        String trimmed = value.trim();
+        if (trimmed.length() >= 2 && trimmed.charAt(0) == '"' && trimmed.charAt(trimmed.length() - 1) == '"') {
+            return trimmed.substring(1, trimmed.length() - 1);
+        }
+        return trimmed;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer reader) {
+        byte[] bytes = new byte[reader.getShort() & 0xFFFF];
+        reader.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
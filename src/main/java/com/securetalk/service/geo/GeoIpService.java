@@ -0,0 +1,152 @@
+package com.securetalk.service.geo;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+
+/**
+ * Géolocalisation hors ligne des adresses IP (pays, ville), à partir d'une base locale.
+ * <p>
+ * La base ({@code app.geoip.database}, binaire ou CSV) est projetée en mémoire par
+ * {@link GeoIpDatabase} ; une recherche IPv4 n'alloue rien. Le fichier est surveillé et rechargé
+ * à chaque modification ; la base précédente reste en service tant que la nouvelle n'est pas
+ * prête, ou si elle est invalide. Sans fichier configuré, aucune adresse n'est localisée.
+ */
+@Slf4j
+@Service
+public class GeoIpService {
+
+    private final Path databaseFile;
+
+    private final Path workDir;
+
+    private volatile GeoIpDatabase database;
+
+    private volatile FileVersion loadedVersion;
+
+    public GeoIpService(MeterRegistry meterRegistry,
+                        @Value("${app.geoip.database:}") String databaseFile,
+                        @Value("${app.geoip.work-dir:${java.io.tmpdir}}") String workDir) {
+        this.databaseFile = databaseFile.trim().isEmpty() ? null : Paths.get(databaseFile.trim());
+        this.workDir = Paths.get(workDir);
+        Gauge.builder("geoip.ranges", this, service -> {
+                    GeoIpDatabase current = service.database;
+                    return current != null ? current.rangeCount() : 0;
+                })
+                .description("Plages d'adresses de la base de géolocalisation chargée")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        reloadIfChanged();
+    }
+
+    // ===== RECHERCHE =====
+
+    /**
+     * Lieu d'une adresse IP littérale (IPv4 pointée ou IPv6) ; jamais de résolution DNS
+     */
+    public Optional<GeoLocation> locate(String ipAddress) {
+        return Optional.ofNullable(lookup(ipAddress));
+    }
+
+    /**
+     * Comme {@link #locate}, sans allocation pour une adresse IPv4
+     */
+    public GeoLocation lookup(String ipAddress) {
+        GeoIpDatabase current = database;
+        if (current == null || ipAddress == null) {
+            return null;
+        }
+        long ipv4 = GeoIpDatabase.parseIpv4(ipAddress);
+        if (ipv4 >= 0) {
+            return current.lookupV4((int) ipv4);
+        }
+        byte[] bytes = ipAddress.indexOf(':') >= 0 ? GeoIpDatabase.parseLiteral(ipAddress.trim()) : null;
+        if (bytes == null) {
+            return null;
+        }
+        return bytes.length == 4
+                ? current.lookupV4((int) GeoIpDatabase.toUnsignedInt(bytes))
+                : current.lookupV6(GeoIpDatabase.toLong(bytes, 0), GeoIpDatabase.toLong(bytes, 8));
+    }
+
+    public boolean isAvailable() {
+        return database != null;
+    }
+
+    // ===== RECHARGEMENT =====
+
+    /**
+     * Recharge la base si le fichier a changé depuis le dernier chargement
+     */
+    @Scheduled(fixedDelayString = "${app.geoip.reload-check-ms:60000}")
+    public void reloadIfChanged() {
+        if (databaseFile == null) {
+            return;
+        }
+        FileVersion version;
+        try {
+            version = FileVersion.of(databaseFile);
+        } catch (IOException e) {
+            if (loadedVersion == null) {
+                log.warn("Base de géolocalisation illisible: {}", databaseFile);
+            }
+            return;
+        }
+        if (version.equals(loadedVersion)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            GeoIpDatabase loaded = GeoIpDatabase.open(databaseFile, workDir);
+            database = loaded;
+            loadedVersion = version;
+            log.info("Base de géolocalisation chargée: {} plages en {} ms", loaded.rangeCount(),
+                    System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            // Ne pas retenter avant la prochaine modification du fichier
+            loadedVersion = version;
+            log.error("Échec du chargement de la base de géolocalisation {}", databaseFile, e);
+        }
+    }
+
+    private static final class FileVersion {
+        private final long lastModified;
+        private final long size;
+
+        private FileVersion(long lastModified, long size) {
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        static FileVersion of(Path file) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new FileVersion(attributes.lastModifiedTime().toMillis(), attributes.size());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof FileVersion
+                    && ((FileVersion) o).lastModified == lastModified
+                    && ((FileVersion) o).size == size;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(lastModified) * 31 + Long.hashCode(size);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.securetalk.service.geo;
+
+import lombok.Getter;
+
+/**
+ * Pays (code ISO) et ville d'une plage d'adresses ; immuable et partagé entre les recherches
+ */
+@Getter
+public final class GeoLocation {
+
+    private final String country;
+
+    private final String city;
+
+    GeoLocation(String country, String city) {
+        this.country = country;
+        this.city = city;
+    }
+
+    @Override
+    public String toString() {
+        return city != null ? city + ", " + country : country;
+    }
+}
@@ -0,0 +1,163 @@
+package com.securetalk.service.message;
+
+import com.securetalk.event.MessageCreatedEvent;
+import com.securetalk.model.UserMessageStats;
+import com.securetalk.repository.MessageRepository;
+import com.securetalk.repository.MessageRepositoryCustom.PairCount;
+import com.securetalk.repository.MessageRepositoryCustom.PendingDeletion;
+import com.securetalk.repository.UserMessageStatsRepository;
+import com.securetalk.repository.UserMessageStatsRepositoryCustom.StatsDelta;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compteurs de messages par utilisateur (envoyés, reçus, supprimés).
+ * <p>
+ * Les envois sont comptés dans la transaction du message via {@link MessageCreatedEvent} ;
+ * les suppressions logiques doivent passer par les méthodes {@code softDelete*} de ce service,
+ * qui ajustent les compteurs dans la même transaction. Le job de réparation corrige toute
+ * dérive (suppressions physiques, écritures hors service).
+ * <p>
+ * Les lignes de compteurs d'une opération sont toujours mises à jour par ID utilisateur croissant,
+ * pour que des envois croisés (A vers B, B vers A) ne s'interbloquent pas.
+ */
+@Slf4j
+@Service
+public class MessageStatsService {
+
+    private final UserMessageStatsRepository statsRepository;
+
+    private final MessageRepository messageRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int repairChunkSize;
+
+    public MessageStatsService(UserMessageStatsRepository statsRepository,
+                               MessageRepository messageRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${app.stats.repair-chunk-size:1000}") int repairChunkSize) {
+        this.statsRepository = statsRepository;
+        this.messageRepository = messageRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.repairChunkSize = repairChunkSize;
+    }
+
+    // ===== ÉCRITURE =====
+
+    /**
+     * Compte un nouveau message avant la validation de l'envoi
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onMessageCreated(MessageCreatedEvent event) {
+        Map<Long, StatsDelta> deltas = new HashMap<>();
+        deltas.computeIfAbsent(event.getSenderId(), id -> new StatsDelta()).add(1, 0, 0);
+        deltas.computeIfAbsent(event.getRecipientId(), id -> new StatsDelta()).add(0, 1, 0);
+        statsRepository.addDeltas(deltas);
+    }
+
+    /**
+     * Supprime logiquement un message et ajuste les compteurs
+     */
+    @Transactional
+    public int softDeleteMessage(Long messageId, Long deletedBy) {
+        PendingDeletion pending = messageRepository.lockUndeletedMessage(messageId);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        return applyDeletion(pending,
+                messageRepository.softDeleteMessage(messageId, LocalDateTime.now(), deletedBy));
+    }
+
+    /**
+     * Supprime logiquement une conversation et ajuste les compteurs
+     */
+    @Transactional
+    public int softDeleteConversation(Long userId1, Long userId2, Long deletedBy) {
+        PendingDeletion pending = messageRepository.lockUndeletedConversation(userId1, userId2);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        return applyDeletion(pending, messageRepository.softDeleteConversation(userId1, userId2,
+                pending.getMaxMessageId(), LocalDateTime.now(), deletedBy));
+    }
+
+    /**
+     * Supprime logiquement tous les messages d'un utilisateur et ajuste les compteurs
+     */
+    @Transactional
+    public int softDeleteAllMessagesForUser(Long userId, Long deletedBy) {
+        PendingDeletion pending = messageRepository.lockUndeletedForUser(userId);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        return applyDeletion(pending, messageRepository.softDeleteAllMessagesForUser(userId,
+                pending.getMaxMessageId(), LocalDateTime.now(), deletedBy));
+    }
+
+    /**
+     * Ajuste les compteurs d'après les messages verrouillés avant la mise à jour : ce sont
+     * exactement les lignes que la suppression fait passer à l'état supprimé
+     */
+    private int applyDeletion(PendingDeletion pending, int deleted) {
+        if (deleted == 0) {
+            return 0;
+        }
+        Map<Long, StatsDelta> deltas = new HashMap<>();
+        for (PairCount pair : pending.getCounts()) {
+            long count = pair.getCount();
+            deltas.computeIfAbsent(pair.getSenderId(), id -> new StatsDelta()).add(-count, 0, count);
+            deltas.computeIfAbsent(pair.getRecipientId(), id -> new StatsDelta()).add(0, -count, count);
+        }
+        statsRepository.addDeltas(deltas);
+        return deleted;
+    }
+
+    // ===== LECTURE =====
+
+    /**
+     * Compteurs d'une page d'utilisateurs, indexés par ID (absents = aucun message)
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, UserMessageStats> getStats(Collection<Long> userIds) {
+        Map<Long, UserMessageStats> stats = new HashMap<>(userIds.size() * 2);
+        if (userIds.isEmpty()) {
+            return stats;
+        }
+        for (UserMessageStats userStats : statsRepository.findByUserIds(userIds)) {
+            stats.put(userStats.getUserId(), userStats);
+        }
+        return stats;
+    }
+
+    // ===== RÉPARATION =====
+
+    /**
+     * Recalcule tous les compteurs depuis {@code messages}, par tranches d'utilisateurs
+     * (une transaction courte par tranche)
+     */
+    @Scheduled(cron = "${app.stats.repair-cron:0 30 3 * * *}")
+    public void repairCounters() {
+        long start = System.currentTimeMillis();
+        long maxUserId = statsRepository.findMaxUserId();
+        int processed = 0;
+        for (long from = 1; from <= maxUserId; from += repairChunkSize) {
+            long to = from + repairChunkSize - 1;
+            long chunkFrom = from;
+            Integer count = transactionTemplate.execute(status -> statsRepository.recompute(chunkFrom, to));
+            processed += count != null ? count : 0;
+        }
+        log.info("Compteurs de messages recalculés: {} lignes en {} ms", processed, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,378 @@
+package com.securetalk.service.notification;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.securetalk.event.MessageCreatedEvent;
+import com.securetalk.model.Notification;
+import com.securetalk.repository.NotificationRepository;
+import com.securetalk.repository.NotificationRepositoryCustom.NewNotification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Création asynchrone des notifications.
+ * <p>
+ * Les messages validés alimentent une file bornée ; l'envoi ne fait qu'y déposer la notification
+ * et répond sans attendre. Un thread dédié vide la file par lots et insère notifications et
+ * métadonnées en JDBC, une transaction par lot ; si le lot échoue, chaque notification est
+ * reprise dans sa propre transaction et seules les fautives sont abandonnées. File pleine : la
+ * notification est abandonnée et comptée ({@code notification.pipeline.dropped}), l'envoi n'est
+ * jamais ralenti. La profondeur de file et le délai entre validation et insertion sont exposés.
+ * <p>
+ * Les notifications portant une clé de regroupement (destinataire, type, expéditeur) sont
+ * regroupées : tant que la notification existante n'est pas lue, une nouvelle rafale incrémente
+ * son compteur et remplace son aperçu au lieu d'insérer une ligne. L'ID de la notification vivante
+ * de chaque clé est gardé en mémoire, si bien que le regroupement ne demande aucune lecture : une
+ * seule mise à jour, conditionnée à l'état non lu. Les regroupements d'un même lot sont d'abord
+ * fusionnés en mémoire.
+ */
+@Slf4j
+@Component
+public class NotificationPipeline {
+
+    static final String MESSAGE_TYPE = "MESSAGE";
+
+    private final NotificationRepository notificationRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<Pending> queue;
+
+    private final int batchSize;
+
+    private final Thread worker;
+
+    private final Cache<String, Long> liveNotifications;
+
+    private volatile boolean running = true;
+
+    private final Timer lagTimer;
+
+    private final Counter insertedCounter;
+
+    private final Counter queueFullCounter;
+
+    private final Counter failedCounter;
+
+    private final Counter collapsedCounter;
+
+    public NotificationPipeline(NotificationRepository notificationRepository,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.notifications.queue-capacity:10000}") int queueCapacity,
+                                @Value("${app.notifications.batch-size:200}") int batchSize,
+                                @Value("${app.notifications.collapse.window-minutes:60}") long collapseWindowMinutes,
+                                @Value("${app.notifications.collapse.max-tracked:100000}") long maxTracked) {
+        this.notificationRepository = notificationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.worker = new Thread(this::drainLoop, "notification-pipeline");
+        this.worker.setDaemon(true);
+        // Seul le thread d'insertion lit et écrit ce cache
+        this.liveNotifications = Caffeine.newBuilder()
+                .maximumSize(maxTracked)
+                .expireAfterWrite(Duration.ofMinutes(collapseWindowMinutes))
+                .build();
+
+        Gauge.builder("notification.pipeline.queue.depth", queue, BlockingQueue::size)
+                .description("Notifications en attente d'insertion")
+                .register(meterRegistry);
+        Gauge.builder("notification.pipeline.oldest.age", queue, NotificationPipeline::oldestAgeMillis)
+                .baseUnit("milliseconds")
+                .description("Ancienneté de la plus ancienne notification en attente")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("notification.pipeline.lag")
+                .description("Délai entre la validation de l'envoi et l'insertion de la notification")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.insertedCounter = Counter.builder("notification.pipeline.inserted")
+                .description("Lignes de notification insérées par la file")
+                .register(meterRegistry);
+        this.queueFullCounter = droppedCounter(meterRegistry, "queue-full");
+        this.failedCounter = droppedCounter(meterRegistry, "insert-failed");
+        this.collapsedCounter = Counter.builder("notification.pipeline.collapsed")
+                .description("Notifications regroupées avec une autre, dans le lot ou en base, au lieu d'être insérées")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        worker.start();
+    }
+
+    // ===== ALIMENTATION =====
+
+    /**
+     * Notifie le destinataire d'un message, une fois l'envoi validé ; les messages d'un même
+     * expéditeur sont regroupés tant que la notification n'est pas lue
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessageCreated(MessageCreatedEvent event) {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("messageId", String.valueOf(event.getMessageId()));
+        metadata.put("senderId", String.valueOf(event.getSenderId()));
+        submit(NewNotification.builder()
+                .userId(event.getRecipientId())
+                .senderId(event.getSenderId())
+                .type(MESSAGE_TYPE)
+                .message(preview(event.getMessageType()))
+                .priority("NORMAL")
+                .category("CHAT")
+                .relatedEntityType(MESSAGE_TYPE)
+                .relatedEntityId(event.getMessageId())
+                .metadata(metadata)
+                .timestamp(event.getTimestamp())
+                .expiresAt(Notification.defaultExpiry("NORMAL", event.getTimestamp()))
+                .collapseKey(MESSAGE_TYPE + ":sender:" + event.getSenderId())
+                .build());
+    }
+
+    /**
+     * Dépose une notification sans attendre son insertion
+     *
+     * @return faux si la file est pleine et la notification abandonnée
+     */
+    public boolean submit(NewNotification notification) {
+        if (queue.offer(new Pending(notification, System.nanoTime()))) {
+            return true;
+        }
+        queueFullCounter.increment();
+        log.warn("File des notifications pleine, notification pour l'utilisateur {} abandonnée",
+                notification.getUserId());
+        return false;
+    }
+
+    // ===== INSERTION PAR LOTS =====
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                if (running) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        // Fusion des regroupements du lot : compte cumulé, aperçu du dernier
+        Map<String, NewNotification> collapsible = new LinkedHashMap<>();
+        List<NewNotification> inserts = new ArrayList<>();
+        for (Pending pending : batch) {
+            NewNotification notification = pending.notification;
+            if (notification.getCollapseKey() == null) {
+                inserts.add(notification);
+                continue;
+            }
+            collapsible.merge(liveKey(notification), notification, (earlier, later) -> later.toBuilder()
+                    .collapseCount(earlier.getCollapseCount() + later.getCollapseCount())
+                    .build());
+        }
+
+        List<String> updateKeys = new ArrayList<>();
+        List<Long> updateIds = new ArrayList<>();
+        List<NewNotification> updates = new ArrayList<>();
+        for (Map.Entry<String, NewNotification> entry : collapsible.entrySet()) {
+            Long liveId = liveNotifications.getIfPresent(entry.getKey());
+            if (liveId != null) {
+                updateKeys.add(entry.getKey());
+                updateIds.add(liveId);
+                updates.add(entry.getValue());
+            } else {
+                inserts.add(entry.getValue());
+            }
+        }
+
+        Map<String, Long> live = new HashMap<>();
+        Written written = new Written();
+        int failed = 0;
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    apply(updateKeys, updateIds, updates, inserts, live, written));
+        } catch (RuntimeException e) {
+            // Une seule ligne fautive annule tout le lot : chaque notification est reprise seule
+            log.warn("Échec d'écriture d'un lot de {} notifications, reprise une par une", batch.size(), e);
+            live.clear();
+            written.clear();
+            for (int i = 0; i < updates.size(); i++) {
+                if (!writeOne(Collections.singletonList(updateKeys.get(i)),
+                        Collections.singletonList(updateIds.get(i)), Collections.singletonList(updates.get(i)),
+                        Collections.<NewNotification>emptyList(), live, written)) {
+                    failed += updates.get(i).getCollapseCount();
+                }
+            }
+            for (NewNotification insert : inserts) {
+                if (!writeOne(Collections.<String>emptyList(), Collections.<Long>emptyList(),
+                        Collections.<NewNotification>emptyList(), Collections.singletonList(insert), live, written)) {
+                    failed += insert.getCollapseCount();
+                }
+            }
+        }
+        liveNotifications.putAll(live);
+
+        long now = System.nanoTime();
+        for (Pending pending : batch) {
+            lagTimer.record(now - pending.enqueuedAtNanos, TimeUnit.NANOSECONDS);
+        }
+        failedCounter.increment(failed);
+        collapsedCounter.increment(written.collapsed);
+        insertedCounter.increment(written.inserted);
+    }
+
+    /**
+     * Regroupe puis insère, dans la transaction courante ; les regroupements refusés (notification
+     * lue ou supprimée depuis) deviennent des insertions. Une ligne insérée compte pour une
+     * insertion, les notifications fusionnées avec elle dans le lot pour des regroupements.
+     */
+    private void apply(List<String> updateKeys, List<Long> updateIds, List<NewNotification> updates,
+                       List<NewNotification> inserts, Map<String, Long> live, Written written) {
+        List<NewNotification> toInsert = new ArrayList<>(inserts);
+        int collapsed = 0;
+        boolean[] updated = notificationRepository.collapseInto(updateIds, updates);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i]) {
+                live.put(updateKeys.get(i), updateIds.get(i));
+                collapsed += updates.get(i).getCollapseCount();
+            } else {
+                toInsert.add(updates.get(i));
+            }
+        }
+        List<Long> ids = notificationRepository.insertBatch(toInsert);
+        for (int i = 0; i < ids.size(); i++) {
+            NewNotification inserted = toInsert.get(i);
+            collapsed += inserted.getCollapseCount() - 1;
+            if (inserted.getCollapseKey() != null) {
+                live.put(liveKey(inserted), ids.get(i));
+            }
+        }
+        written.inserted += ids.size();
+        written.collapsed += collapsed;
+    }
+
+    /**
+     * Reprise isolée d'une notification, dans sa propre transaction
+     *
+     * @return faux si elle est abandonnée
+     */
+    private boolean writeOne(List<String> updateKeys, List<Long> updateIds, List<NewNotification> updates,
+                             List<NewNotification> inserts, Map<String, Long> live, Written written) {
+        Map<String, Long> writtenLive = new HashMap<>();
+        Written one = new Written();
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    apply(updateKeys, updateIds, updates, inserts, writtenLive, one));
+            live.putAll(writtenLive);
+            written.inserted += one.inserted;
+            written.collapsed += one.collapsed;
+            return true;
+        } catch (RuntimeException e) {
+            NewNotification notification = updates.isEmpty() ? inserts.get(0) : updates.get(0);
+            log.error("Notification pour l'utilisateur {} abandonnée", notification.getUserId(), e);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Le thread vide la file avant de s'arrêter
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+        if (!queue.isEmpty()) {
+            log.warn("{} notifications non insérées à l'arrêt", queue.size());
+        }
+    }
+
+    // ===== UTILITAIRES =====
+
+    private static String liveKey(NewNotification notification) {
+        return notification.getUserId() + "|" + notification.getCollapseKey();
+    }
+
+    /**
+     * Aperçu sans le contenu, chiffré et jamais recopié dans les notifications
+     */
+    private static String preview(String messageType) {
+        switch (messageType != null ? messageType.toUpperCase(Locale.ROOT) : "TEXT") {
+            case "IMAGE":
+                return "Nouvelle image";
+            case "FILE":
+                return "Nouveau fichier";
+            case "AUDIO":
+                return "Nouveau message vocal";
+            case "VIDEO":
+                return "Nouvelle vidéo";
+            default:
+                return "Nouveau message";
+        }
+    }
+
+    private static double oldestAgeMillis(BlockingQueue<Pending> queue) {
+        Pending oldest = queue.peek();
+        return oldest == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.enqueuedAtNanos);
+    }
+
+    private static Counter droppedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("notification.pipeline.dropped")
+                .tag("reason", reason)
+                .description("Notifications abandonnées")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Bilan d'écriture d'un lot : lignes insérées et notifications regroupées
+     */
+    private static final class Written {
+        private int inserted;
+        private int collapsed;
+
+        void clear() {
+            inserted = 0;
+            collapsed = 0;
+        }
+    }
+
+    private static final class Pending {
+        private final NewNotification notification;
+        private final long enqueuedAtNanos;
+
+        private Pending(NewNotification notification, long enqueuedAtNanos) {
+            this.notification = notification;
+            this.enqueuedAtNanos = enqueuedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.securetalk.service.presence;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Roue temporelle hachée pour l'expiration d'échéances par identifiant.
+ * <p>
+ * Chaque échéance est rangée dans le seau {@code tick % taille}. Réarmer une échéance
+ * (nouveau battement de cœur) ne retire pas l'ancienne entrée : elle est simplement
+ * ignorée lorsque son seau est parcouru, car l'échéance enregistrée a changé.
+ * Le coût d'un battement est donc O(1) et celui d'un tick proportionnel au seau courant.
+ */
+public class HashedTimingWheel {
+
+    private final long tickMillis;
+
+    private final List<Set<Long>> buckets;
+
+    private final Map<Long, Long> deadlines = new ConcurrentHashMap<>();
+
+    private volatile long currentTick;
+
+    public HashedTimingWheel(long tickMillis, int ticksPerWheel, long startMillis) {
+        if (tickMillis <= 0 || ticksPerWheel <= 0) {
+            throw new IllegalArgumentException("La durée du tick et la taille de la roue doivent être positives");
+        }
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayList<>(ticksPerWheel);
+        for (int i = 0; i < ticksPerWheel; i++) {
+            buckets.add(ConcurrentHashMap.newKeySet());
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Arme (ou réarme) l'échéance d'un identifiant
+     */
+    public void schedule(long id, long deadlineMillis) {
+        long deadlineTick = Math.max(deadlineMillis / tickMillis, currentTick + 1);
+        deadlines.put(id, deadlineTick);
+        buckets.get(bucketIndex(deadlineTick)).add(id);
+    }
+
+    /**
+     * Annule l'échéance d'un identifiant
+     */
+    public boolean cancel(long id) {
+        return deadlines.remove(id) != null;
+    }
+
+    public boolean contains(long id) {
+        return deadlines.containsKey(id);
+    }
+
+    public int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * Fait avancer la roue jusqu'à l'instant donné et notifie les identifiants expirés
+     */
+    public synchronized void advanceTo(long nowMillis, LongConsumer onExpired) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            expireBucket(currentTick, onExpired);
+        }
+    }
+
+    private void expireBucket(long tick, LongConsumer onExpired) {
+        int index = bucketIndex(tick);
+        Iterator<Long> iterator = buckets.get(index).iterator();
+        while (iterator.hasNext()) {
+            Long id = iterator.next();
+            Long deadlineTick = deadlines.get(id);
+            if (deadlineTick == null) {
+                iterator.remove();
+            } else if (deadlineTick <= tick) {
+                iterator.remove();
+                if (deadlines.remove(id, deadlineTick)) {
+                    onExpired.accept(id);
+                }
+            } else if (bucketIndex(deadlineTick) != index) {
+                // Échéance réarmée dans un autre seau
+                iterator.remove();
+            }
+            // Sinon l'échéance tombe dans un tour ultérieur de la roue : on la conserve
+        }
+    }
+
+    private int bucketIndex(long tick) {
+        return (int) (tick % buckets.size());
+    }
+}
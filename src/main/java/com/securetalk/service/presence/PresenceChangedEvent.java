@@ -0,0 +1,16 @@
+package com.securetalk.service.presence;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Événement applicatif émis lorsqu'un utilisateur passe en ligne ou hors ligne
+ */
+@Getter
+@AllArgsConstructor
+public class PresenceChangedEvent {
+
+    private final Long userId;
+
+    private final boolean online;
+}
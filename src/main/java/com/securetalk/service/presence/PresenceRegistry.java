@@ -0,0 +1,180 @@
+package com.securetalk.service.presence;
+
+import com.securetalk.model.User;
+import com.securetalk.repository.UserActivityRepository;
+import com.securetalk.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Registre de présence en mémoire, indexé par ID utilisateur.
+ * <p>
+ * Un battement de cœur réarme l'échéance de l'utilisateur dans une roue temporelle
+ * hachée ; l'utilisateur passe hors ligne quand l'échéance expire. La dernière
+ * activité ({@code last_seen}) est écrite dans la table {@code user_activity} par lots
+ * périodiques : le débit de battements ne devient jamais un débit d'écritures.
+ */
+@Slf4j
+@Service
+public class PresenceRegistry {
+
+    private final UserRepository userRepository;
+
+    private final UserActivityRepository userActivityRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final long heartbeatTimeoutMs;
+
+    private final HashedTimingWheel timingWheel;
+
+    private final Set<Long> onlineUsers = ConcurrentHashMap.newKeySet();
+
+    private final Map<Long, Long> pendingLastSeen = new ConcurrentHashMap<>();
+
+    public PresenceRegistry(UserRepository userRepository,
+                            UserActivityRepository userActivityRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.presence.heartbeat-timeout-ms:60000}") long heartbeatTimeoutMs,
+                            @Value("${app.presence.tick-ms:1000}") long tickMs) {
+        this.userRepository = userRepository;
+        this.userActivityRepository = userActivityRepository;
+        this.eventPublisher = eventPublisher;
+        this.heartbeatTimeoutMs = heartbeatTimeoutMs;
+        int ticksPerWheel = (int) Math.max(1, heartbeatTimeoutMs / tickMs + 1);
+        this.timingWheel = new HashedTimingWheel(tickMs, ticksPerWheel, System.currentTimeMillis());
+
+        Gauge.builder("presence.online.users", onlineUsers, Set::size)
+                .description("Nombre d'utilisateurs en ligne")
+                .register(meterRegistry);
+        Gauge.builder("presence.pending.lastseen", this, registry -> registry.pendingLastSeen.size())
+                .description("Dernières activités en attente d'écriture")
+                .register(meterRegistry);
+    }
+
+    // ===== BATTEMENTS DE CŒUR =====
+
+    /**
+     * Enregistre un battement de cœur : l'utilisateur est (ou reste) en ligne
+     */
+    public void heartbeat(Long userId) {
+        long now = System.currentTimeMillis();
+        timingWheel.schedule(userId, now + heartbeatTimeoutMs);
+        pendingLastSeen.put(userId, now);
+        if (onlineUsers.add(userId)) {
+            eventPublisher.publishEvent(new PresenceChangedEvent(userId, true));
+        }
+    }
+
+    /**
+     * Déconnexion explicite (fermeture de la dernière connexion, logout)
+     */
+    public void disconnect(Long userId) {
+        timingWheel.cancel(userId);
+        markOffline(userId, System.currentTimeMillis());
+    }
+
+    /**
+     * Fait avancer la roue temporelle et expire les utilisateurs silencieux
+     */
+    @Scheduled(fixedRateString = "${app.presence.tick-ms:1000}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        timingWheel.advanceTo(now, userId -> markOffline(userId, now));
+    }
+
+    // ===== CONSULTATION =====
+
+    public boolean isOnline(Long userId) {
+        return onlineUsers.contains(userId);
+    }
+
+    public int countOnlineUsers() {
+        return onlineUsers.size();
+    }
+
+    public Set<Long> getOnlineUserIds() {
+        return Collections.unmodifiableSet(onlineUsers);
+    }
+
+    /**
+     * Utilisateurs actifs en ligne, sauf un utilisateur donné (chargés par clé primaire)
+     */
+    @Transactional(readOnly = true)
+    public List<User> findOnlineUsersExcept(Long excludeUserId) {
+        Set<Long> ids = onlineUsers.stream()
+                .filter(id -> !id.equals(excludeUserId))
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return userRepository.findAllById(ids).stream()
+                .filter(User::isEnabled)
+                .collect(Collectors.toList());
+    }
+
+    // ===== ÉCRITURE EN LOT =====
+
+    /**
+     * Écrit les dernières activités accumulées depuis le dernier flush
+     */
+    @Scheduled(fixedDelayString = "${app.presence.flush-ms:30000}")
+    public void flushLastSeen() {
+        if (pendingLastSeen.isEmpty()) {
+            return;
+        }
+
+        Map<Long, LocalDateTime> lastSeen = new HashMap<>();
+        for (Map.Entry<Long, Long> entry : pendingLastSeen.entrySet()) {
+            // Retrait conditionnel : un battement arrivé entre-temps reste en attente
+            if (pendingLastSeen.remove(entry.getKey(), entry.getValue())) {
+                lastSeen.put(entry.getKey(),
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.getValue()), ZoneId.systemDefault()));
+            }
+        }
+        int written;
+        try {
+            written = userActivityRepository.upsertLastSeen(lastSeen);
+        } catch (RuntimeException e) {
+            // Remis en attente pour le prochain passage, sans écraser un battement plus récent
+            for (Map.Entry<Long, LocalDateTime> entry : lastSeen.entrySet()) {
+                long millis = entry.getValue().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                pendingLastSeen.merge(entry.getKey(), millis, Math::max);
+            }
+            log.warn("Échec d'écriture de la dernière activité de {} utilisateurs", lastSeen.size(), e);
+            return;
+        }
+        log.debug("Flush de présence: {} dernières activités écrites", written);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushLastSeen();
+    }
+
+    private void markOffline(Long userId, long now) {
+        if (onlineUsers.remove(userId)) {
+            pendingLastSeen.put(userId, now);
+            eventPublisher.publishEvent(new PresenceChangedEvent(userId, false));
+        }
+    }
+}
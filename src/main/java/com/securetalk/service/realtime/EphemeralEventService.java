@@ -0,0 +1,246 @@
+package com.securetalk.service.realtime;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.securetalk.dto.response.RealtimeEventDto;
+import com.securetalk.repository.BlockedUserRepository;
+import com.securetalk.repository.UserContactRepository;
+import com.securetalk.service.presence.PresenceChangedEvent;
+import com.securetalk.service.presence.PresenceRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Canal d'événements éphémères (saisie en cours, présence).
+ * <p>
+ * Ces signaux ne sont jamais persistés : ils transitent uniquement par les connexions
+ * temps réel. Les signaux de saisie sont regroupés par conversation afin qu'un flux
+ * de frappes ne produise qu'un événement de début, quelques rappels espacés et un
+ * événement de fin.
+ * <p>
+ * Les deux signaux ne sont adressés qu'aux contacts de l'utilisateur (table {@code user_contacts}),
+ * hors blocages dans un sens ou dans l'autre. Cette audience est mise en cache quelques secondes
+ * par utilisateur ; un changement de présence ne coûte que l'envoi à ses contacts connectés.
+ */
+@Slf4j
+@Service
+public class EphemeralEventService {
+
+    public static final String TYPING = "TYPING";
+    public static final String PRESENCE = "PRESENCE";
+
+    private final RealtimeConnectionRegistry connectionRegistry;
+
+    private final PresenceRegistry presenceRegistry;
+
+    private final UserContactRepository userContactRepository;
+
+    private final BlockedUserRepository blockedUserRepository;
+
+    private final LoadingCache<Long, Set<Long>> audiences;
+
+    private final long coalesceWindowNanos;
+
+    private final long typingTimeoutNanos;
+
+    private final Map<ConversationKey, TypingState> typingStates = new ConcurrentHashMap<>();
+
+    public EphemeralEventService(RealtimeConnectionRegistry connectionRegistry,
+                                 PresenceRegistry presenceRegistry,
+                                 UserContactRepository userContactRepository,
+                                 BlockedUserRepository blockedUserRepository,
+                                 @Value("${app.realtime.typing-coalesce-ms:3000}") long coalesceWindowMs,
+                                 @Value("${app.realtime.typing-timeout-ms:6000}") long typingTimeoutMs,
+                                 @Value("${app.realtime.audience-ttl-ms:30000}") long audienceTtlMs,
+                                 @Value("${app.realtime.audience-cache-max-size:50000}") long audienceCacheMaxSize) {
+        this.connectionRegistry = connectionRegistry;
+        this.presenceRegistry = presenceRegistry;
+        this.userContactRepository = userContactRepository;
+        this.blockedUserRepository = blockedUserRepository;
+        this.audiences = Caffeine.newBuilder()
+                .maximumSize(audienceCacheMaxSize)
+                .expireAfterWrite(Duration.ofMillis(audienceTtlMs))
+                .build(this::loadAudience);
+        this.coalesceWindowNanos = TimeUnit.MILLISECONDS.toNanos(coalesceWindowMs);
+        this.typingTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(typingTimeoutMs);
+    }
+
+    // ===== CONNEXIONS =====
+
+    /**
+     * Ouvre le flux d'événements d'un utilisateur.
+     * L'ouverture vaut battement de cœur, réarmé tant que la connexion reste ouverte ;
+     * la fermeture de la dernière connexion vaut déconnexion.
+     */
+    public SseEmitter subscribe(Long userId) {
+        return connectionRegistry.open(userId,
+                () -> presenceRegistry.heartbeat(userId),
+                () -> presenceRegistry.disconnect(userId));
+    }
+
+    /**
+     * Réarme la présence des utilisateurs dont une connexion est encore ouverte : un client
+     * connecté reste en ligne sans envoyer lui-même de battements de cœur
+     */
+    @Scheduled(fixedDelayString = "${app.realtime.keep-alive-ms:20000}")
+    public void keepConnectionsAlive() {
+        for (Long userId : connectionRegistry.getConnectedUserIds()) {
+            if (connectionRegistry.ping(userId)) {
+                presenceRegistry.heartbeat(userId);
+            }
+        }
+    }
+
+    // ===== SAISIE EN COURS =====
+
+    /**
+     * Signale qu'un utilisateur écrit (ou a cessé d'écrire) à un destinataire.
+     * Les signaux répétés dans la fenêtre de regroupement sont absorbés en mémoire.
+     */
+    public void publishTyping(Long senderId, Long recipientId, boolean typing) {
+        if (Objects.equals(senderId, recipientId)) {
+            return;
+        }
+
+        ConversationKey key = new ConversationKey(senderId, recipientId);
+        if (!typing) {
+            if (typingStates.remove(key) != null) {
+                sendTyping(senderId, recipientId, false);
+            }
+            return;
+        }
+
+        if (!connectionRegistry.isConnected(recipientId) || !audienceOf(senderId).contains(recipientId)) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        TypingState state = typingStates.computeIfAbsent(key, k -> new TypingState());
+        state.lastSignal = now;
+        if (state.lastEmitted == 0 || now - state.lastEmitted >= coalesceWindowNanos) {
+            state.lastEmitted = now;
+            sendTyping(senderId, recipientId, true);
+        }
+    }
+
+    /**
+     * Termine les indicateurs de saisie qui n'ont plus reçu de signal
+     */
+    @Scheduled(fixedDelayString = "${app.realtime.typing-sweep-ms:1000}")
+    public void expireTypingIndicators() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<ConversationKey, TypingState>> iterator = typingStates.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<ConversationKey, TypingState> entry = iterator.next();
+            if (now - entry.getValue().lastSignal >= typingTimeoutNanos) {
+                iterator.remove();
+                sendTyping(entry.getKey().senderId, entry.getKey().recipientId, false);
+            }
+        }
+    }
+
+    // ===== PRÉSENCE =====
+
+    /**
+     * Relaie les transitions du registre de présence aux contacts connectés
+     */
+    @EventListener
+    public void onPresenceChanged(PresenceChangedEvent event) {
+        publishPresence(event.getUserId(), event.isOnline());
+    }
+
+    /**
+     * Diffuse un changement de présence aux contacts connectés, hors blocages
+     */
+    public void publishPresence(Long userId, boolean online) {
+        RealtimeEventDto event = null;
+        for (Long contactId : audienceOf(userId)) {
+            if (!connectionRegistry.isConnected(contactId)) {
+                continue;
+            }
+            if (event == null) {
+                event = RealtimeEventDto.builder()
+                        .type(PRESENCE)
+                        .userId(userId)
+                        .active(online)
+                        .build();
+            }
+            connectionRegistry.send(contactId, event);
+        }
+    }
+
+    public int getActiveTypingIndicators() {
+        return typingStates.size();
+    }
+
+    private Set<Long> audienceOf(Long userId) {
+        return audiences.get(userId);
+    }
+
+    /**
+     * Contacts de l'utilisateur, sans ceux qu'il bloque ni ceux qui le bloquent
+     */
+    private Set<Long> loadAudience(Long userId) {
+        Set<Long> audience = new HashSet<>(userContactRepository.findPeerIds(userId));
+        if (!audience.isEmpty()) {
+            audience.removeAll(blockedUserRepository.findBlockedUserIdsByBlockerId(userId));
+            audience.removeAll(blockedUserRepository.findBlockerIdsByBlockedId(userId));
+        }
+        return audience;
+    }
+
+    private void sendTyping(Long senderId, Long recipientId, boolean typing) {
+        RealtimeEventDto event = RealtimeEventDto.builder()
+                .type(TYPING)
+                .userId(senderId)
+                .conversationWith(recipientId)
+                .active(typing)
+                .build();
+        connectionRegistry.send(recipientId, event);
+    }
+
+    private static final class TypingState {
+        volatile long lastSignal;
+        volatile long lastEmitted;
+    }
+
+    private static final class ConversationKey {
+        private final Long senderId;
+        private final Long recipientId;
+
+        private ConversationKey(Long senderId, Long recipientId) {
+            this.senderId = senderId;
+            this.recipientId = recipientId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ConversationKey)) {
+                return false;
+            }
+            ConversationKey other = (ConversationKey) o;
+            return senderId.equals(other.senderId) && recipientId.equals(other.recipientId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * senderId.hashCode() + recipientId.hashCode();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.securetalk.service.realtime;
+
+import com.securetalk.dto.response.RealtimeEventDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registre des connexions temps réel (SSE) ouvertes, par utilisateur.
+ * Un utilisateur peut avoir plusieurs connexions (un onglet ou un appareil chacun).
+ */
+@Slf4j
+@Component
+public class RealtimeConnectionRegistry {
+
+    private final Map<Long, List<SseEmitter>> connections = new ConcurrentHashMap<>();
+
+    private final long emitterTimeoutMs;
+
+    public RealtimeConnectionRegistry(@Value("${app.realtime.emitter-timeout-ms:1800000}") long emitterTimeoutMs) {
+        this.emitterTimeoutMs = emitterTimeoutMs;
+    }
+
+    /**
+     * Ouvre une nouvelle connexion pour un utilisateur
+     *
+     * @param onFirstConnection appelé si c'est la première connexion de l'utilisateur
+     * @param onLastDisconnection appelé quand la dernière connexion de l'utilisateur se ferme
+     */
+    public SseEmitter open(Long userId, Runnable onFirstConnection, Runnable onLastDisconnection) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        boolean[] first = new boolean[1];
+
+        connections.compute(userId, (id, emitters) -> {
+            if (emitters == null) {
+                emitters = new CopyOnWriteArrayList<>();
+                first[0] = true;
+            }
+            emitters.add(emitter);
+            return emitters;
+        });
+
+        Runnable cleanup = () -> {
+            if (remove(userId, emitter)) {
+                onLastDisconnection.run();
+            }
+        };
+        emitter.onCompletion(cleanup);
+        emitter.onTimeout(cleanup);
+        emitter.onError(error -> cleanup.run());
+
+        if (first[0]) {
+            onFirstConnection.run();
+        }
+        return emitter;
+    }
+
+    /**
+     * Envoie un événement à toutes les connexions d'un utilisateur
+     */
+    public void send(Long userId, RealtimeEventDto event) {
+        List<SseEmitter> emitters = connections.get(userId);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(event.getType()).data(event));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Connexion temps réel fermée pour l'utilisateur {}: {}", userId, e.getMessage());
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    /**
+     * Envoie un commentaire de maintien à toutes les connexions d'un utilisateur ;
+     * les connexions rompues sont fermées au passage
+     *
+     * @return true si au moins une connexion est encore ouverte
+     */
+    public boolean ping(Long userId) {
+        List<SseEmitter> emitters = connections.get(userId);
+        if (emitters == null) {
+            return false;
+        }
+        boolean alive = false;
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+                alive = true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Connexion temps réel rompue pour l'utilisateur {}: {}", userId, e.getMessage());
+                emitter.completeWithError(e);
+            }
+        }
+        return alive;
+    }
+
+    public boolean isConnected(Long userId) {
+        return connections.containsKey(userId);
+    }
+
+    public Set<Long> getConnectedUserIds() {
+        return connections.keySet();
+    }
+
+    /**
+     * Retire une connexion; retourne true si c'était la dernière de l'utilisateur
+     */
+    private boolean remove(Long userId, SseEmitter emitter) {
+        boolean[] last = new boolean[1];
+        connections.computeIfPresent(userId, (id, emitters) -> {
+            if (!emitters.remove(emitter)) {
+                return emitters;
+            }
+            if (emitters.isEmpty()) {
+                last[0] = true;
+                return null;
+            }
+            return emitters;
+        });
+        return last[0];
+    }
+}
@@ -0,0 +1,210 @@
+package com.securetalk.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * Index de préfixes immuable pour l'autocomplétion des destinataires.
+ * <p>
+ * Les clés (nom d'utilisateur, prénom, nom, nom affiché) sont normalisées puis stockées dans
+ * un tableau trié : toutes les clés d'un même préfixe forment une plage contiguë trouvée par
+ * recherche dichotomique. L'index n'est jamais modifié après construction ; il est remplacé
+ * en bloc à chaque reconstruction, ce qui permet des lectures sans verrou.
+ */
+public final class PrefixIndex {
+
+    public static final PrefixIndex EMPTY = new Builder().build();
+
+    private final String[] keys;
+
+    private final int[] keyEntries;
+
+    private final Entry[] entries;
+
+    private final Map<Long, Integer> entryByUserId;
+
+    private PrefixIndex(String[] keys, int[] keyEntries, Entry[] entries, Map<Long, Integer> entryByUserId) {
+        this.keys = keys;
+        this.keyEntries = keyEntries;
+        this.entries = entries;
+        this.entryByUserId = entryByUserId;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * Suggestions pour un préfixe : d'abord les utilisateurs préférés qui correspondent, dans
+     * l'ordre donné, puis les autres correspondances dans l'ordre lexicographique des clés
+     *
+     * @param preferredUserIds utilisateurs à placer en tête (correspondants récents), peut être vide
+     * @param excluded         utilisateurs à écarter (appelant, blocages), peut être null
+     */
+    public List<Entry> suggest(String prefix, int limit, long[] preferredUserIds, LongPredicate excluded) {
+        String needle = normalize(prefix);
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<Entry> result = new ArrayList<>(limit);
+
+        for (long userId : preferredUserIds) {
+            Integer ordinal = entryByUserId.get(userId);
+            if (ordinal == null || (excluded != null && excluded.test(userId))) {
+                continue;
+            }
+            Entry entry = entries[ordinal];
+            if (entry.matches(needle)) {
+                result.add(entry);
+                if (result.size() == limit) {
+                    return result;
+                }
+            }
+        }
+
+        // Sans préfixe, seuls les correspondants récents ont un sens
+        if (needle.isEmpty()) {
+            return result;
+        }
+
+        for (int i = lowerBound(needle); i < keys.length && keys[i].startsWith(needle); i++) {
+            Entry entry = entries[keyEntries[i]];
+            if ((excluded != null && excluded.test(entry.userId)) || result.contains(entry)) {
+                continue;
+            }
+            result.add(entry);
+            if (result.size() == limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private int lowerBound(String needle) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(needle) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Minuscules sans accents, pour que « lea » trouve « Léa »
+     */
+    static String normalize(String value) {
+        return SearchText.fold(value);
+    }
+
+    /**
+     * Utilisateur suggérable
+     */
+    public static final class Entry {
+        private final long userId;
+        private final String username;
+        private final String displayName;
+        private final String[] keys;
+
+        private Entry(long userId, String username, String displayName, String[] keys) {
+            this.userId = userId;
+            this.username = username;
+            this.displayName = displayName;
+            this.keys = keys;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        private boolean matches(String needle) {
+            for (String key : keys) {
+                if (key.startsWith(needle)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Accumule les utilisateurs puis produit un index trié
+     */
+    public static final class Builder {
+
+        private final List<Entry> entries = new ArrayList<>();
+
+        private int keyCount;
+
+        public Builder add(long userId, String username, String firstName, String lastName) {
+            String displayName = displayName(username, firstName, lastName);
+            String[] candidates = {
+                    normalize(username), normalize(firstName), normalize(lastName), normalize(displayName)
+            };
+            String[] keys = Arrays.stream(candidates).filter(key -> !key.isEmpty()).distinct().toArray(String[]::new);
+            entries.add(new Entry(userId, username, displayName, keys));
+            keyCount += keys.length;
+            return this;
+        }
+
+        public PrefixIndex build() {
+            Entry[] entryArray = entries.toArray(new Entry[0]);
+            Map<Long, Integer> entryByUserId = new HashMap<>(entryArray.length * 2);
+            KeyRef[] refs = new KeyRef[keyCount];
+            int k = 0;
+            for (int ordinal = 0; ordinal < entryArray.length; ordinal++) {
+                entryByUserId.put(entryArray[ordinal].userId, ordinal);
+                for (String key : entryArray[ordinal].keys) {
+                    refs[k++] = new KeyRef(key, ordinal);
+                }
+            }
+            Arrays.sort(refs, 0, k, (a, b) -> a.key.compareTo(b.key));
+
+            String[] keys = new String[k];
+            int[] keyEntries = new int[k];
+            for (int i = 0; i < k; i++) {
+                keys[i] = refs[i].key;
+                keyEntries[i] = refs[i].entry;
+            }
+            return new PrefixIndex(keys, keyEntries, entryArray, entryByUserId);
+        }
+
+        private static String displayName(String username, String firstName, String lastName) {
+            if (firstName != null && lastName != null) {
+                return firstName + " " + lastName;
+            } else if (firstName != null) {
+                return firstName;
+            } else if (lastName != null) {
+                return lastName;
+            }
+            return username;
+        }
+    }
+
+    private static final class KeyRef {
+        private final String key;
+        private final int entry;
+
+        private KeyRef(String key, int entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.securetalk.service.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.securetalk.dto.response.UserSuggestionDto;
+import com.securetalk.event.UserChangedEvent;
+import com.securetalk.repository.BlockedUserRepository;
+import com.securetalk.repository.UserContactRepository;
+import com.securetalk.repository.UserRepository;
+import com.securetalk.repository.projection.UserSearchView;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Suggestions de destinataires pour l'écran de composition.
+ * <p>
+ * Les utilisateurs actifs sont servis depuis un {@link PrefixIndex} immuable reconstruit
+ * périodiquement. Les {@link UserChangedEvent} validés entre deux reconstructions sont appliqués
+ * aussitôt : les utilisateurs créés ou renommés vont dans un petit index de surcharge, reconstruit
+ * à la lecture suivante, et masquent leur ancienne entrée ; les utilisateurs désactivés ou
+ * supprimés sont écartés. Le contexte de l'appelant (correspondants récents, blocages dans les
+ * deux sens) est chargé une fois puis gardé quelques secondes : les frappes suivantes ne touchent
+ * pas la base.
+ */
+@Slf4j
+@Service
+public class RecipientSuggestionService {
+
+    private final UserRepository userRepository;
+
+    private final UserContactRepository userContactRepository;
+
+    private final BlockedUserRepository blockedUserRepository;
+
+    private final int rebuildChunkSize;
+
+    private final int maxResults;
+
+    private final int recentCorrespondents;
+
+    private final Cache<Long, CallerContext> contexts;
+
+    // Utilisateurs désactivés ou supprimés depuis la dernière reconstruction
+    private final Set<Long> removedSinceRebuild = ConcurrentHashMap.newKeySet();
+
+    // Utilisateurs créés ou modifiés depuis la dernière reconstruction (dernier état connu)
+    private final Map<Long, UserChangedEvent> changedSinceRebuild = new ConcurrentHashMap<>();
+
+    private volatile PrefixIndex index = PrefixIndex.EMPTY;
+
+    private volatile PrefixIndex overlay = PrefixIndex.EMPTY;
+
+    private volatile boolean overlayStale;
+
+    public RecipientSuggestionService(UserRepository userRepository,
+                                      UserContactRepository userContactRepository,
+                                      BlockedUserRepository blockedUserRepository,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${app.search.rebuild-chunk-size:5000}") int rebuildChunkSize,
+                                      @Value("${app.autocomplete.max-results:10}") int maxResults,
+                                      @Value("${app.autocomplete.recent-correspondents:200}") int recentCorrespondents,
+                                      @Value("${app.autocomplete.context-ttl-ms:30000}") long contextTtlMillis,
+                                      @Value("${app.autocomplete.context-cache-max-size:10000}") long contextCacheMaxSize) {
+        this.userRepository = userRepository;
+        this.userContactRepository = userContactRepository;
+        this.blockedUserRepository = blockedUserRepository;
+        this.rebuildChunkSize = rebuildChunkSize;
+        this.maxResults = maxResults;
+        this.recentCorrespondents = recentCorrespondents;
+        this.contexts = Caffeine.newBuilder()
+                .maximumSize(contextCacheMaxSize)
+                .expireAfterWrite(Duration.ofMillis(contextTtlMillis))
+                .build();
+
+        Gauge.builder("autocomplete.index.size", this, service -> service.index.size())
+                .description("Nombre d'utilisateurs dans l'index d'autocomplétion")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Suggestions pour le préfixe saisi, correspondants les plus récents en tête
+     */
+    public List<UserSuggestionDto> suggest(Long currentUserId, String prefix, int limit) {
+        CallerContext context = contexts.get(currentUserId, this::loadContext);
+        long callerId = currentUserId;
+        int max = Math.max(0, Math.min(limit, maxResults));
+        LongPredicate excluded = userId -> userId == callerId || context.excludedUserIds.contains(userId)
+                || removedSinceRebuild.contains(userId);
+
+        // Les entrées modifiées depuis la reconstruction ne sont lues que dans la surcharge
+        List<PrefixIndex.Entry> entries = index.suggest(prefix, max, context.recentUserIds,
+                userId -> excluded.test(userId) || changedSinceRebuild.containsKey(userId));
+        if (!changedSinceRebuild.isEmpty()) {
+            entries = merge(entries, currentOverlay().suggest(prefix, max, context.recentUserIds, excluded),
+                    context.recentUserIds, max);
+        }
+
+        List<UserSuggestionDto> suggestions = new ArrayList<>(entries.size());
+        for (PrefixIndex.Entry entry : entries) {
+            suggestions.add(UserSuggestionDto.builder()
+                    .id(entry.getUserId())
+                    .username(entry.getUsername())
+                    .displayName(entry.getDisplayName())
+                    .build());
+        }
+        return suggestions;
+    }
+
+    /**
+     * Reconstruit l'index à partir des utilisateurs actifs ; l'ancien reste servi pendant la construction
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.autocomplete.rebuild-ms:300000}",
+            initialDelayString = "${app.autocomplete.rebuild-ms:300000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Set<Long> removedBefore = new HashSet<>(removedSinceRebuild);
+        Map<Long, UserChangedEvent> changedBefore = new HashMap<>(changedSinceRebuild);
+        PrefixIndex.Builder builder = new PrefixIndex.Builder();
+
+        long lastId = 0L;
+        List<UserSearchView> chunk;
+        do {
+            chunk = userRepository.findSearchViewsAfter(lastId, PageRequest.of(0, rebuildChunkSize));
+            for (UserSearchView user : chunk) {
+                if (Boolean.TRUE.equals(user.getEnabled())) {
+                    builder.add(user.getId(), user.getUsername(), user.getFirstName(), user.getLastName());
+                }
+                lastId = user.getId();
+            }
+        } while (chunk.size() == rebuildChunkSize);
+
+        index = builder.build();
+        // Les changements survenus pendant la construction restent appliqués jusqu'au prochain passage
+        removedSinceRebuild.removeAll(removedBefore);
+        for (Map.Entry<Long, UserChangedEvent> change : changedBefore.entrySet()) {
+            changedSinceRebuild.remove(change.getKey(), change.getValue());
+        }
+        overlayStale = true;
+        log.debug("Index d'autocomplétion reconstruit: {} utilisateurs en {} ms",
+                index.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Applique une création, une modification ou une suppression sans attendre la reconstruction
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getChangeType() == UserChangedEvent.ChangeType.DELETED || !event.isEnabled()) {
+            removedSinceRebuild.add(event.getUserId());
+            changedSinceRebuild.remove(event.getUserId());
+        } else {
+            changedSinceRebuild.put(event.getUserId(), event);
+            removedSinceRebuild.remove(event.getUserId());
+        }
+        overlayStale = true;
+    }
+
+    // ===== SURCHARGE =====
+
+    /**
+     * Index des utilisateurs modifiés depuis la reconstruction, refait seulement après un changement
+     */
+    private PrefixIndex currentOverlay() {
+        if (!overlayStale) {
+            return overlay;
+        }
+        synchronized (this) {
+            if (overlayStale) {
+                overlayStale = false;
+                PrefixIndex.Builder builder = new PrefixIndex.Builder();
+                for (UserChangedEvent change : changedSinceRebuild.values()) {
+                    builder.add(change.getUserId(), change.getUsername(), change.getFirstName(), change.getLastName());
+                }
+                overlay = builder.build();
+            }
+            return overlay;
+        }
+    }
+
+    /**
+     * Fusionne deux listes de suggestions : correspondants récents dans leur ordre, puis le reste
+     * de l'index principal, puis celui de la surcharge
+     */
+    private static List<PrefixIndex.Entry> merge(List<PrefixIndex.Entry> base, List<PrefixIndex.Entry> changed,
+                                                 long[] recentUserIds, int limit) {
+        if (changed.isEmpty()) {
+            return base;
+        }
+        Map<Long, PrefixIndex.Entry> byUserId = new HashMap<>();
+        for (PrefixIndex.Entry entry : base) {
+            byUserId.put(entry.getUserId(), entry);
+        }
+        for (PrefixIndex.Entry entry : changed) {
+            byUserId.put(entry.getUserId(), entry);
+        }
+
+        List<PrefixIndex.Entry> result = new ArrayList<>(limit);
+        for (long userId : recentUserIds) {
+            PrefixIndex.Entry entry = byUserId.remove(userId);
+            if (entry != null && result.size() < limit) {
+                result.add(entry);
+            }
+        }
+        for (PrefixIndex.Entry entry : base) {
+            if (result.size() < limit && byUserId.remove(entry.getUserId()) != null) {
+                result.add(entry);
+            }
+        }
+        for (PrefixIndex.Entry entry : changed) {
+            if (result.size() < limit && byUserId.remove(entry.getUserId()) != null) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    // ===== CONTEXTE DE L'APPELANT =====
+
+    private CallerContext loadContext(Long userId) {
+        List<Long> peerIds = userContactRepository.findRecentPeerIds(userId, PageRequest.of(0, recentCorrespondents));
+        long[] recent = new long[peerIds.size()];
+        for (int i = 0; i < peerIds.size(); i++) {
+            recent[i] = peerIds.get(i);
+        }
+
+        Set<Long> excluded = new HashSet<>(blockedUserRepository.findBlockedUserIdsByBlockerId(userId));
+        excluded.addAll(blockedUserRepository.findBlockerIdsByBlockedId(userId));
+        return new CallerContext(recent, excluded);
+    }
+
+    private static final class CallerContext {
+        private final long[] recentUserIds;
+        private final Set<Long> excludedUserIds;
+
+        private CallerContext(long[] recentUserIds, Set<Long> excludedUserIds) {
+            this.recentUserIds = recentUserIds;
+            this.excludedUserIds = excludedUserIds;
+        }
+    }
+}
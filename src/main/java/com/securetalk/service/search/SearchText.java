@@ -0,0 +1,37 @@
+package com.securetalk.service.search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Forme canonique des textes comparés en mémoire (index de recherche, filtres d'identifiants).
+ * <p>
+ * Alignée sur la collation {@code _ci} de MySQL : deux valeurs égales pour la base doivent avoir
+ * la même forme, pour que « elodie » trouve « Élodie » comme le ferait un {@code LIKE}.
+ * Décomposition (NFKD), retrait des diacritiques, minuscules, puis ß → ss.
+ */
+public final class SearchText {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private SearchText() {
+    }
+
+    /**
+     * Forme canonique de la valeur, sans espaces de bord ; chaîne vide pour null
+     */
+    public static String fold(String value) {
+        if (value == null) {
+            return "";
+        }
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(trimmed, Normalizer.Form.NFKD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                .replace("ß", "ss");
+    }
+}
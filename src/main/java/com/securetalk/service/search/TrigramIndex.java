@@ -0,0 +1,376 @@
+package com.securetalk.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Index trigramme en mémoire pour la recherche par sous-chaîne ({@code LIKE '%terme%'}).
+ * <p>
+ * Chaque document (un utilisateur) est la concaténation de ses champs normalisés par
+ * {@link SearchText#fold} (minuscules sans accents, comme la collation {@code _ci}), séparés par un caractère nul pour qu'aucun trigramme ne chevauche deux champs.
+ * Les listes de postings contiennent des ordinaux de documents croissants : l'intersection
+ * se fait par fusion. Les candidats sont ensuite vérifiés par {@code contains} afin de
+ * garantir exactement la sémantique du {@code LIKE}, puis classés.
+ * <p>
+ * Une mise à jour ajoute un nouvel ordinal et marque l'ancien comme supprimé ; l'index se
+ * compacte quand les documents supprimés dépassent un quart du total.
+ */
+public class TrigramIndex {
+
+    private static final char FIELD_SEPARATOR = '\u0000';
+
+    private static final int MIN_TERM_LENGTH = 3;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> ordinalByUserId = new HashMap<>();
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    private long[] docUserIds = new long[1024];
+
+    private String[] docTexts = new String[1024];
+
+    private boolean[] docEnabled = new boolean[1024];
+
+    private int docCount;
+
+    private int deletedCount;
+
+    // ===== MISE À JOUR =====
+
+    /**
+     * Ajoute ou remplace un utilisateur dans l'index
+     *
+     * @param fields champs indexés, dans l'ordre de pertinence (le premier est le nom d'utilisateur)
+     */
+    public void put(long userId, boolean enabled, String... fields) {
+        String text = normalizeDocument(fields);
+        lock.writeLock().lock();
+        try {
+            removeInternal(userId);
+            addInternal(userId, enabled, text);
+            if (deletedCount > 1024 && deletedCount > docCount / 4) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire un utilisateur de l'index
+     */
+    public void remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalByUserId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ===== RECHERCHE =====
+
+    /**
+     * Recherche les utilisateurs dont un champ contient le terme
+     *
+     * @param limit            nombre maximal d'identifiants retournés
+     * @param enabledOnly      ne retenir que les utilisateurs actifs
+     * @param includeLastField chercher aussi dans le dernier champ indexé (l'email)
+     * @param filter           filtre supplémentaire sur l'ID utilisateur (peut être null)
+     * @return identifiants classés par pertinence décroissante et nombre total de correspondances
+     */
+    public SearchResult search(String term, int limit, boolean enabledOnly, boolean includeLastField,
+                               LongPredicate filter) {
+        String needle = SearchText.fold(term);
+        if (needle.isEmpty() || limit <= 0) {
+            return SearchResult.EMPTY;
+        }
+
+        lock.readLock().lock();
+        try {
+            // Capacité initiale bornée : limit peut valoir Integer.MAX_VALUE
+            PriorityQueue<ScoredDoc> top = new PriorityQueue<>(Math.min(limit, 1024) + 1);
+            int total = 0;
+
+            if (needle.length() < MIN_TERM_LENGTH) {
+                // Terme trop court pour les trigrammes : parcours des documents en mémoire
+                for (int ordinal = 0; ordinal < docCount; ordinal++) {
+                    total += collect(ordinal, needle, enabledOnly, includeLastField, filter, top, limit);
+                }
+            } else {
+                Postings[] lists = postingsFor(needle);
+                if (lists == null) {
+                    return SearchResult.EMPTY;
+                }
+                total = intersectAndCollect(lists, needle, enabledOnly, includeLastField, filter, top, limit);
+            }
+
+            List<Long> ids = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                ids.add(top.poll().userId);
+            }
+            Collections.reverse(ids);
+            return new SearchResult(ids, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Postings[] postingsFor(String needle) {
+        List<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + MIN_TERM_LENGTH <= needle.length(); i++) {
+            Postings list = postings.get(trigramKey(needle, i));
+            if (list == null) {
+                return null;
+            }
+            if (!lists.contains(list)) {
+                lists.add(list);
+            }
+        }
+        Postings[] result = lists.toArray(new Postings[0]);
+        Arrays.sort(result, (a, b) -> Integer.compare(a.size, b.size));
+        return result;
+    }
+
+    private int intersectAndCollect(Postings[] lists, String needle, boolean enabledOnly, boolean includeLastField,
+                                    LongPredicate filter, PriorityQueue<ScoredDoc> top, int limit) {
+        int total = 0;
+        int[] cursors = new int[lists.length];
+        Postings smallest = lists[0];
+
+        outer:
+        for (int i = 0; i < smallest.size; i++) {
+            int ordinal = smallest.docs[i];
+            for (int l = 1; l < lists.length; l++) {
+                int position = lists[l].seek(ordinal, cursors[l]);
+                cursors[l] = position;
+                if (position >= lists[l].size) {
+                    break outer;
+                }
+                if (lists[l].docs[position] != ordinal) {
+                    continue outer;
+                }
+            }
+            total += collect(ordinal, needle, enabledOnly, includeLastField, filter, top, limit);
+        }
+        return total;
+    }
+
+    private int collect(int ordinal, String needle, boolean enabledOnly, boolean includeLastField,
+                        LongPredicate filter, PriorityQueue<ScoredDoc> top, int limit) {
+        String text = docTexts[ordinal];
+        if (text == null || (enabledOnly && !docEnabled[ordinal])) {
+            return 0;
+        }
+        long userId = docUserIds[ordinal];
+        if (filter != null && !filter.test(userId)) {
+            return 0;
+        }
+        int index = text.indexOf(needle);
+        if (index < 0 || (!includeLastField && index > text.lastIndexOf(FIELD_SEPARATOR))) {
+            return 0;
+        }
+
+        top.add(new ScoredDoc(userId, score(text, needle, index)));
+        if (top.size() > limit) {
+            top.poll();
+        }
+        return 1;
+    }
+
+    /**
+     * Pertinence : nom d'utilisateur exact, préfixe du nom d'utilisateur, préfixe d'un autre champ,
+     * puis simple inclusion ; à pertinence égale, les documents les plus courts d'abord.
+     */
+    private static long score(String text, String needle, int index) {
+        int rank;
+        if (index == 0) {
+            boolean exact = text.length() == needle.length() || text.charAt(needle.length()) == FIELD_SEPARATOR;
+            rank = exact ? 4 : 3;
+        } else if (text.charAt(index - 1) == FIELD_SEPARATOR) {
+            rank = 2;
+        } else {
+            rank = 1;
+        }
+        return ((long) rank << 32) - text.length();
+    }
+
+    // ===== STRUCTURE INTERNE =====
+
+    private void addInternal(long userId, boolean enabled, String text) {
+        ensureCapacity(docCount + 1);
+        int ordinal = docCount++;
+        docUserIds[ordinal] = userId;
+        docTexts[ordinal] = text;
+        docEnabled[ordinal] = enabled;
+        ordinalByUserId.put(userId, ordinal);
+
+        for (int i = 0; i + MIN_TERM_LENGTH <= text.length(); i++) {
+            if (text.charAt(i) == FIELD_SEPARATOR || text.charAt(i + 1) == FIELD_SEPARATOR
+                    || text.charAt(i + 2) == FIELD_SEPARATOR) {
+                continue;
+            }
+            // Un trigramme répété dans le document n'est ajouté qu'une fois (ordinal identique en fin de liste)
+            postings.computeIfAbsent(trigramKey(text, i), k -> new Postings()).add(ordinal);
+        }
+    }
+
+    private void removeInternal(long userId) {
+        Integer ordinal = ordinalByUserId.remove(userId);
+        if (ordinal != null) {
+            docTexts[ordinal] = null;
+            deletedCount++;
+        }
+    }
+
+    /**
+     * Reconstruit les postings sans les documents supprimés
+     */
+    private void compact() {
+        long[] userIds = docUserIds;
+        String[] texts = docTexts;
+        boolean[] enabled = docEnabled;
+        int count = docCount;
+
+        docUserIds = new long[Math.max(1024, ordinalByUserId.size() * 2)];
+        docTexts = new String[docUserIds.length];
+        docEnabled = new boolean[docUserIds.length];
+        docCount = 0;
+        deletedCount = 0;
+        ordinalByUserId.clear();
+        postings.clear();
+
+        for (int ordinal = 0; ordinal < count; ordinal++) {
+            if (texts[ordinal] != null) {
+                addInternal(userIds[ordinal], enabled[ordinal], texts[ordinal]);
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > docUserIds.length) {
+            int newLength = Math.max(capacity, docUserIds.length * 2);
+            docUserIds = Arrays.copyOf(docUserIds, newLength);
+            docTexts = Arrays.copyOf(docTexts, newLength);
+            docEnabled = Arrays.copyOf(docEnabled, newLength);
+        }
+    }
+
+    private static String normalizeDocument(String... fields) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                builder.append(FIELD_SEPARATOR);
+            }
+            if (fields[i] != null) {
+                builder.append(SearchText.fold(fields[i]));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static long trigramKey(String text, int offset) {
+        return ((long) text.charAt(offset) << 32)
+                | ((long) text.charAt(offset + 1) << 16)
+                | text.charAt(offset + 2);
+    }
+
+    /**
+     * Liste croissante d'ordinaux de documents
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            if (size > 0 && docs[size - 1] == ordinal) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = ordinal;
+        }
+
+        /**
+         * Première position >= from dont l'ordinal est >= target (recherche exponentielle)
+         */
+        int seek(int target, int from) {
+            int bound = 1;
+            while (from + bound < size && docs[from + bound] < target) {
+                bound <<= 1;
+            }
+            int low = from + (bound >> 1);
+            int high = Math.min(from + bound, size - 1);
+            if (low >= size) {
+                return size;
+            }
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (docs[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static final class ScoredDoc implements Comparable<ScoredDoc> {
+        private final long userId;
+        private final long score;
+
+        private ScoredDoc(long userId, long score) {
+            this.userId = userId;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(ScoredDoc other) {
+            return Long.compare(score, other.score);
+        }
+    }
+
+    /**
+     * Résultat d'une recherche : identifiants classés et nombre total de correspondances
+     */
+    public static final class SearchResult {
+
+        static final SearchResult EMPTY = new SearchResult(Collections.emptyList(), 0);
+
+        private final List<Long> userIds;
+        private final int totalMatches;
+
+        SearchResult(List<Long> userIds, int totalMatches) {
+            this.userIds = userIds;
+            this.totalMatches = totalMatches;
+        }
+
+        public List<Long> getUserIds() {
+            return userIds;
+        }
+
+        public int getTotalMatches() {
+            return totalMatches;
+        }
+    }
+}
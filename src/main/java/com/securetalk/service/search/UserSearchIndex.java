@@ -0,0 +1,111 @@
+package com.securetalk.service.search;
+
+import com.securetalk.event.UserChangedEvent;
+import com.securetalk.repository.UserRepository;
+import com.securetalk.repository.projection.UserSearchView;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * Index trigramme des utilisateurs (nom d'utilisateur, prénom, nom, email).
+ * <p>
+ * Construit au démarrage en parcourant {@code users} par tranches de clé primaire, puis tenu
+ * à jour à partir des {@link UserChangedEvent} validés. Les recherches retournent des IDs
+ * classés, que l'appelant charge ensuite par clé primaire.
+ */
+@Slf4j
+@Service
+public class UserSearchIndex {
+
+    private final UserRepository userRepository;
+
+    private final int rebuildChunkSize;
+
+    private volatile TrigramIndex index = new TrigramIndex();
+
+    private volatile TrigramIndex building;
+
+    public UserSearchIndex(UserRepository userRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.search.rebuild-chunk-size:5000}") int rebuildChunkSize) {
+        this.userRepository = userRepository;
+        this.rebuildChunkSize = rebuildChunkSize;
+
+        Gauge.builder("search.user.index.size", this, searchIndex -> searchIndex.index.size())
+                .description("Nombre d'utilisateurs dans l'index trigramme")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reconstruit l'index complet ; les recherches continuent sur l'ancien index pendant la construction
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        TrigramIndex fresh = new TrigramIndex();
+        building = fresh;
+        try {
+            long lastId = 0L;
+            List<UserSearchView> chunk;
+            do {
+                chunk = userRepository.findSearchViewsAfter(lastId, PageRequest.of(0, rebuildChunkSize));
+                for (UserSearchView user : chunk) {
+                    fresh.put(user.getId(), Boolean.TRUE.equals(user.getEnabled()),
+                            user.getUsername(), user.getFirstName(), user.getLastName(), user.getEmail());
+                    lastId = user.getId();
+                }
+            } while (chunk.size() == rebuildChunkSize);
+            index = fresh;
+        } finally {
+            building = null;
+        }
+        log.info("Index de recherche utilisateurs construit: {} utilisateurs en {} ms",
+                index.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Applique une modification d'utilisateur une fois la transaction validée
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        apply(index, event);
+        TrigramIndex pending = building;
+        if (pending != null) {
+            apply(pending, event);
+        }
+    }
+
+    /**
+     * Recherche par sous-chaîne sur les quatre champs (équivalent de {@code searchUsers})
+     */
+    public TrigramIndex.SearchResult search(String term, int limit) {
+        return index.search(term, limit, false, true, null);
+    }
+
+    /**
+     * Recherche d'utilisateurs actifs hors email (équivalent de {@code searchActiveUsersForMessaging})
+     */
+    public TrigramIndex.SearchResult searchActive(String term, int limit, LongPredicate filter) {
+        return index.search(term, limit, true, false, filter);
+    }
+
+    private static void apply(TrigramIndex target, UserChangedEvent event) {
+        if (event.getChangeType() == UserChangedEvent.ChangeType.DELETED) {
+            target.remove(event.getUserId());
+        } else {
+            target.put(event.getUserId(), event.isEnabled(),
+                    event.getUsername(), event.getFirstName(), event.getLastName(), event.getEmail());
+        }
+    }
+}
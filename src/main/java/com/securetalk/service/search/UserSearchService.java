@@ -0,0 +1,70 @@
+package com.securetalk.service.search;
+
+import com.securetalk.model.User;
+import com.securetalk.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recherche d'utilisateurs adossée à l'index trigramme : l'index fournit les IDs classés,
+ * les entités sont ensuite chargées par clé primaire.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class UserSearchService {
+
+    private final UserSearchIndex userSearchIndex;
+
+    private final UserRepository userRepository;
+
+    /**
+     * Recherche d'utilisateurs par nom d'utilisateur, prénom, nom ou email
+     */
+    public Page<User> searchUsers(String searchTerm, Pageable pageable) {
+        int limit = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+        TrigramIndex.SearchResult result = userSearchIndex.search(searchTerm, limit);
+
+        List<Long> ids = result.getUserIds();
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        List<User> users = loadInOrder(ids.subList(from, ids.size()));
+        return new PageImpl<>(users, pageable, result.getTotalMatches());
+    }
+
+    /**
+     * Recherche d'utilisateurs actifs pour la messagerie (hors utilisateur courant)
+     */
+    public List<User> searchActiveUsersForMessaging(Long currentUserId, String searchTerm, int limit) {
+        long excluded = currentUserId;
+        TrigramIndex.SearchResult result = userSearchIndex.searchActive(searchTerm, limit, id -> id != excluded);
+        return loadInOrder(result.getUserIds());
+    }
+
+    private List<User> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, User> byId = new HashMap<>(ids.size() * 2);
+        for (User user : userRepository.findAllById(ids)) {
+            byId.put(user.getId(), user);
+        }
+        List<User> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            User user = byId.get(id);
+            if (user != null) {
+                ordered.add(user);
+            }
+        }
+        return ordered;
+    }
+}
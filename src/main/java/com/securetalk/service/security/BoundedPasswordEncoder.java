@@ -0,0 +1,199 @@
+package com.securetalk.service.security;
+
+import com.securetalk.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link PasswordEncoder} BCrypt exécuté sur un pool dédié et borné.
+ * <p>
+ * Le hachage est volontairement coûteux : il est isolé sur autant de threads que de cœurs,
+ * derrière une file de taille fixe. Quand la file est pleine (rafale de connexions, bourrage
+ * d'identifiants), la demande est rejetée immédiatement par une 503 au lieu de monopoliser
+ * les threads de requête et le CPU des autres endpoints.
+ * <p>
+ * Le facteur de coût BCrypt est calibré au démarrage pour approcher un temps de hachage cible,
+ * sauf s'il est fixé par configuration.
+ */
+@Slf4j
+@Component
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final int MIN_STRENGTH = 10;
+
+    private static final int MAX_STRENGTH = 16;
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final ThreadPoolExecutor executor;
+
+    private final BCryptPasswordEncoder delegate;
+
+    private final int strength;
+
+    private final long maxWaitMillis;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final Timer queueWaitTimer;
+
+    private final Counter queueFullCounter;
+
+    private final Counter timeoutCounter;
+
+    public BoundedPasswordEncoder(MeterRegistry meterRegistry,
+                                  @Value("${app.security.hashing.threads:0}") int threads,
+                                  @Value("${app.security.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.security.hashing.max-wait-ms:5000}") long maxWaitMillis,
+                                  @Value("${app.security.hashing.target-ms:250}") long targetMillis,
+                                  @Value("${app.security.hashing.strength:0}") int configuredStrength) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxWaitMillis = maxWaitMillis;
+        this.strength = configuredStrength > 0 ? configuredStrength : calibrate(targetMillis);
+        this.delegate = new BCryptPasswordEncoder(strength);
+
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.queueWaitTimer = Timer.builder("security.password.hash.queue.wait")
+                .description("Attente dans la file du pool de hachage")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueFullCounter = rejectedCounter(meterRegistry, "queue-full");
+        this.timeoutCounter = rejectedCounter(meterRegistry, "timeout");
+        Gauge.builder("security.password.hash.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Demandes de hachage en attente")
+                .register(meterRegistry);
+
+        log.info("Hachage des mots de passe: BCrypt coût {}, {} threads, file de {}", strength, poolSize, queueCapacity);
+    }
+
+    // ===== PasswordEncoder =====
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    /**
+     * Les hachages d'un coût inférieur au coût calibré sont à réencoder à la prochaine connexion
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    // ===== EXÉCUTION =====
+
+    private <T> T execute(Callable<T> task, Timer timer) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            queueFullCounter.increment();
+            throw new ServiceOverloadedException("Service d'authentification saturé, réessayez plus tard",
+                    RETRY_AFTER_SECONDS);
+        }
+
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            timeoutCounter.increment();
+            throw new ServiceOverloadedException("Service d'authentification saturé, réessayez plus tard",
+                    RETRY_AFTER_SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new IllegalStateException("Hachage du mot de passe interrompu", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Échec du hachage du mot de passe", e.getCause());
+        }
+    }
+
+    /**
+     * Mesure le coût minimal puis en déduit le coût dont la durée approche la cible
+     * (chaque incrément double le temps de calcul)
+     */
+    private static int calibrate(long targetMillis) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_STRENGTH);
+        probe.encode("calibration"); // préchauffage
+
+        int samples = 3;
+        long start = System.nanoTime();
+        for (int i = 0; i < samples; i++) {
+            probe.encode("calibration");
+        }
+        double baseMillis = Math.max(1.0, (System.nanoTime() - start) / 1_000_000.0 / samples);
+
+        int extra = (int) Math.floor(Math.log(targetMillis / baseMillis) / Math.log(2));
+        int calibrated = Math.max(MIN_STRENGTH, Math.min(MAX_STRENGTH, MIN_STRENGTH + extra));
+        log.info("Calibrage BCrypt: {} ms au coût {}, cible {} ms, coût retenu {}",
+                Math.round(baseMillis), MIN_STRENGTH, targetMillis, calibrated);
+        return calibrated;
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("security.password.hash")
+                .tag("operation", operation)
+                .description("Durée de hachage ou de vérification d'un mot de passe")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("security.password.hash.rejected")
+                .tag("reason", reason)
+                .description("Demandes de hachage rejetées par contrôle d'admission")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,81 @@
+package com.securetalk.service.security;
+
+import com.securetalk.model.User;
+import com.securetalk.service.session.SessionActivityTracker;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Authentifie les requêtes portant un JWT d'accès {@code Authorization: Bearer ...}.
+ * <p>
+ * Claims servis par {@link JwtClaimsCache}, principal par {@link PrincipalCache} : en régime
+ * établi, ni vérification HMAC ni requête SQL. L'activité de la session du token est comptée
+ * en mémoire par {@link SessionActivityTracker}. Un token refusé laisse la requête anonyme,
+ * les règles d'accès décident ensuite. Non déclaré comme bean, pour ne pas être enregistré
+ * aussi comme filtre de servlet.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtClaimsCache claimsCache;
+
+    private final PrincipalUserDetailsService userDetailsService;
+
+    private final SessionActivityTracker activityTracker;
+
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
+
+    public JwtAuthenticationFilter(JwtClaimsCache claimsCache, PrincipalUserDetailsService userDetailsService,
+                                   SessionActivityTracker activityTracker) {
+        this.claimsCache = claimsCache;
+        this.userDetailsService = userDetailsService;
+        this.activityTracker = activityTracker;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            Optional<VerifiedToken> verified = claimsCache.verify(header.substring(BEARER_PREFIX.length()).trim());
+            if (verified.isPresent()) {
+                authenticate(verified.get(), request);
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    private void authenticate(VerifiedToken token, HttpServletRequest request) {
+        if (token.getSessionId() != null && !activityTracker.touch(token.getSessionId())) {
+            // Session terminée ou expirée par inactivité
+            return;
+        }
+        User user;
+        try {
+            user = userDetailsService.loadUserById(token.getUserId());
+        } catch (UsernameNotFoundException e) {
+            return;
+        }
+        if (!user.isEnabled() || !user.isAccountNonLocked() || !user.isAccountNonExpired()) {
+            return;
+        }
+
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        authentication.setDetails(detailsSource.buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+}
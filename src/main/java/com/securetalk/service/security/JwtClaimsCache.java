@@ -0,0 +1,138 @@
+package com.securetalk.service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache borné des JWT d'accès vérifiés, jusqu'à leur expiration.
+ * <p>
+ * La clé est une empreinte 64 bits de la chaîne du token, calculée bien plus vite que le HMAC ;
+ * l'entrée garde la chaîne complète, comparée à chaque lecture, si bien qu'une collision ne peut
+ * faire accepter un autre token. Les claims mis en cache sont immuables et partagés.
+ * L'époque de révocation de l'utilisateur est vérifiée à chaque lecture, hors cache.
+ */
+@Component
+public class JwtClaimsCache {
+
+    private final JwtTokenProvider tokenProvider;
+
+    private final RevocationEpochs revocationEpochs;
+
+    private final Cache<Long, CachedToken> cache;
+
+    private final Counter rejectedCounter;
+
+    private final Counter revokedCounter;
+
+    public JwtClaimsCache(JwtTokenProvider tokenProvider,
+                          RevocationEpochs revocationEpochs,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.security.jwt-cache.max-size:100000}") long maxSize) {
+        this.tokenProvider = tokenProvider;
+        this.revocationEpochs = revocationEpochs;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.claims");
+        this.rejectedCounter = rejectionCounter(meterRegistry, "invalid");
+        this.revokedCounter = rejectionCounter(meterRegistry, "revoked");
+    }
+
+    /**
+     * Claims du token s'il est authentique, non expiré et non révoqué
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        long now = System.currentTimeMillis();
+        VerifiedToken verified = lookup(token, now);
+        if (verified == null) {
+            rejectedCounter.increment();
+            return Optional.empty();
+        }
+        if (revocationEpochs.isRevoked(verified.getUserId(), verified.getIssuedAtSeconds())) {
+            revokedCounter.increment();
+            return Optional.empty();
+        }
+        return Optional.of(verified);
+    }
+
+    private VerifiedToken lookup(String token, long now) {
+        long key = digest(token);
+        CachedToken cached = cache.getIfPresent(key);
+        if (cached != null && cached.token.equals(token)) {
+            return cached.claims.isExpired(now) ? null : cached.claims;
+        }
+
+        VerifiedToken claims;
+        try {
+            claims = tokenProvider.parse(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        cache.put(key, new CachedToken(token, claims));
+        return claims;
+    }
+
+    /**
+     * Empreinte FNV-1a 64 bits des caractères du token
+     */
+    static long digest(String token) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < token.length(); i++) {
+            hash ^= token.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("security.jwt.rejected")
+                .tag("reason", reason)
+                .description("JWT d'accès refusés")
+                .register(meterRegistry);
+    }
+
+    private static final class CachedToken {
+        private final String token;
+        private final VerifiedToken claims;
+
+        private CachedToken(String token, VerifiedToken claims) {
+            this.token = token;
+            this.claims = claims;
+        }
+    }
+
+    /**
+     * Chaque entrée vit jusqu'à l'expiration de son token
+     */
+    private static final class UntilTokenExpiry implements Expiry<Long, CachedToken> {
+
+        @Override
+        public long expireAfterCreate(Long key, CachedToken value, long currentTime) {
+            long remainingMillis = value.claims.getExpiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, CachedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, CachedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
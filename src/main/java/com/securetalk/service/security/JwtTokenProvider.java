@@ -0,0 +1,90 @@
+package com.securetalk.service.security;
+
+import com.securetalk.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+
+/**
+ * Émission et vérification des JWT d'accès (HMAC-SHA).
+ * <p>
+ * Le sujet est l'ID de l'utilisateur ; le token porte aussi son nom, son masque de rôles et,
+ * s'il a été émis pour une session, l'identifiant de celle-ci.
+ * La vérification complète (décodage, HMAC, construction des claims) est coûteuse : les
+ * requêtes passent par {@link JwtClaimsCache}, qui ne l'effectue qu'une fois par token.
+ */
+@Component
+public class JwtTokenProvider {
+
+    private static final String USERNAME_CLAIM = "username";
+
+    private static final String ROLES_CLAIM = "roles";
+
+    private static final String SESSION_CLAIM = "sid";
+
+    private final SecretKey key;
+
+    private final JwtParser parser;
+
+    private final long expirationMillis;
+
+    public JwtTokenProvider(@Value("${jwt.secret}") String secret,
+                            @Value("${jwt.expiration:86400000}") long expirationMillis) {
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.expirationMillis = expirationMillis;
+    }
+
+    /**
+     * JWT d'accès pour l'utilisateur, valable {@code jwt.expiration} millisecondes
+     */
+    public String generateAccessToken(User user) {
+        return generateAccessToken(user, null);
+    }
+
+    /**
+     * JWT d'accès rattaché à une session : chaque requête authentifiée compte comme activité de celle-ci
+     */
+    public String generateAccessToken(User user, String sessionId) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .subject(String.valueOf(user.getId()))
+                .claim(USERNAME_CLAIM, user.getUsername())
+                .claim(ROLES_CLAIM, user.getRolesMask())
+                .claim(SESSION_CLAIM, sessionId)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expirationMillis))
+                .signWith(key)
+                .compact();
+    }
+
+    /**
+     * Vérifie la signature et l'expiration puis extrait les claims
+     *
+     * @throws io.jsonwebtoken.JwtException   token invalide, expiré ou falsifié
+     * @throws IllegalArgumentException       token vide
+     */
+    public VerifiedToken parse(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (claims.getIssuedAt() == null || claims.getExpiration() == null || claims.getSubject() == null) {
+            // La révocation par époque repose sur iat
+            throw new MalformedJwtException("Claims sub, iat et exp requis");
+        }
+        Number roles = claims.get(ROLES_CLAIM, Number.class);
+        return new VerifiedToken(
+                Long.valueOf(claims.getSubject()),
+                claims.get(USERNAME_CLAIM, String.class),
+                roles != null ? roles.intValue() : 0,
+                claims.getIssuedAt().getTime() / 1000,
+                claims.getExpiration().getTime(),
+                claims.get(SESSION_CLAIM, String.class));
+    }
+}
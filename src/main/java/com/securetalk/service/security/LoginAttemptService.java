@@ -0,0 +1,193 @@
+package com.securetalk.service.security;
+
+import com.securetalk.exception.LoginThrottledException;
+import com.securetalk.repository.UserRepository;
+import com.securetalk.service.user.UserActivityService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Suivi en mémoire des échecs de connexion par identifiant et par adresse IP.
+ * <p>
+ * Les échecs sont comptés sur une fenêtre glissante, sans écriture en base : la base n'est
+ * touchée que lorsque le seuil d'un identifiant est atteint, pour verrouiller le compte et
+ * ajouter ces échecs à {@code user_activity.failed_login_attempts}.
+ * Au-delà des seuils, les tentatives sont refusées avant tout hachage de mot de passe.
+ */
+@Slf4j
+@Service
+public class LoginAttemptService {
+
+    private final SlidingWindowCounterMap failuresByIdentifier;
+
+    private final SlidingWindowCounterMap failuresByIp;
+
+    private final UserRepository userRepository;
+
+    private final PrincipalCache principalCache;
+
+    private final UserActivityService userActivityService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int maxIdentifierFailures;
+
+    private final int maxIpFailures;
+
+    private final long lockoutSeconds;
+
+    private final long windowSeconds;
+
+    private final Counter failureCounter;
+
+    private final Counter blockedByIdentifierCounter;
+
+    private final Counter blockedByIpCounter;
+
+    private final Counter lockoutCounter;
+
+    public LoginAttemptService(UserRepository userRepository,
+                               PrincipalCache principalCache,
+                               UserActivityService userActivityService,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.security.max-login-attempts:5}") int maxIdentifierFailures,
+                               @Value("${app.security.account-lockout-duration:900}") long lockoutSeconds,
+                               @Value("${app.security.login-throttle.window-seconds:900}") long windowSeconds,
+                               @Value("${app.security.login-throttle.ip-max-failures:100}") int maxIpFailures,
+                               @Value("${app.security.login-throttle.max-tracked-keys:1048576}") int maxTrackedKeys) {
+        this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.userActivityService = userActivityService;
+        this.transactionTemplate = transactionTemplate;
+        this.maxIdentifierFailures = maxIdentifierFailures;
+        this.maxIpFailures = maxIpFailures;
+        this.lockoutSeconds = lockoutSeconds;
+        this.windowSeconds = windowSeconds;
+        this.failuresByIdentifier = new SlidingWindowCounterMap(windowSeconds * 1000, 1024, maxTrackedKeys);
+        this.failuresByIp = new SlidingWindowCounterMap(windowSeconds * 1000, 1024, maxTrackedKeys);
+
+        this.failureCounter = Counter.builder("security.login.failures")
+                .description("Échecs de connexion")
+                .register(meterRegistry);
+        this.blockedByIdentifierCounter = blockedCounter(meterRegistry, "identifier");
+        this.blockedByIpCounter = blockedCounter(meterRegistry, "ip");
+        this.lockoutCounter = Counter.builder("security.login.lockouts")
+                .description("Comptes verrouillés après trop d'échecs")
+                .register(meterRegistry);
+        Gauge.builder("security.login.tracked", failuresByIdentifier, SlidingWindowCounterMap::size)
+                .tag("scope", "identifier")
+                .register(meterRegistry);
+        Gauge.builder("security.login.tracked", failuresByIp, SlidingWindowCounterMap::size)
+                .tag("scope", "ip")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Refuse la tentative si l'adresse IP ou l'identifiant a épuisé ses échecs autorisés
+     */
+    public void assertAllowed(String identifier, String ipAddress) {
+        long now = System.currentTimeMillis();
+        if (ipAddress != null && failuresByIp.get(hashKey(ipAddress), now) >= maxIpFailures) {
+            blockedByIpCounter.increment();
+            throw new LoginThrottledException("Trop de tentatives de connexion depuis cette adresse", windowSeconds);
+        }
+        if (identifier != null && failuresByIdentifier.get(hashKey(identifier), now) >= maxIdentifierFailures) {
+            blockedByIdentifierCounter.increment();
+            throw new LoginThrottledException("Trop de tentatives de connexion pour ce compte", windowSeconds);
+        }
+    }
+
+    /**
+     * Compte un échec ; verrouille le compte quand l'identifiant atteint le seuil
+     */
+    public void recordFailure(String identifier, String ipAddress) {
+        long now = System.currentTimeMillis();
+        failureCounter.increment();
+        if (ipAddress != null) {
+            failuresByIp.increment(hashKey(ipAddress), now);
+        }
+        if (identifier != null
+                && failuresByIdentifier.increment(hashKey(identifier), now) == maxIdentifierFailures) {
+            lockAccount(identifier);
+        }
+    }
+
+    /**
+     * Une connexion réussie efface les échecs de l'identifiant (pas ceux de l'adresse IP)
+     */
+    public void recordSuccess(String identifier) {
+        if (identifier != null) {
+            failuresByIdentifier.reset(hashKey(identifier));
+        }
+    }
+
+    /**
+     * Efface les échecs comptés pour les identifiants (déverrouillage administratif)
+     */
+    public void reset(String... identifiers) {
+        for (String identifier : identifiers) {
+            if (identifier != null) {
+                failuresByIdentifier.reset(hashKey(identifier));
+            }
+        }
+    }
+
+    /**
+     * Libère les entrées sans activité récente
+     */
+    @Scheduled(fixedDelayString = "${app.security.login-throttle.purge-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        failuresByIdentifier.purgeExpired(now);
+        failuresByIp.purgeExpired(now);
+    }
+
+    /**
+     * Verrou temporaire seulement : un verrouillage définitif permettrait à quiconque connaît
+     * un nom d'utilisateur de bloquer le compte jusqu'à l'intervention d'un administrateur
+     */
+    private void lockAccount(String identifier) {
+        userRepository.findByEmailOrUsername(identifier).ifPresent(user -> {
+            LocalDateTime until = LocalDateTime.now().plusSeconds(lockoutSeconds);
+            transactionTemplate.executeWithoutResult(status -> userRepository.lockTemporarily(user.getId(), until));
+            principalCache.invalidate(user.getId());
+            // Les échecs ne sont écrits qu'ici, pour les comptes qui atteignent le seuil
+            userActivityService.recordFailedLogins(user.getId(), maxIdentifierFailures);
+            lockoutCounter.increment();
+            log.warn("Compte {} verrouillé après {} échecs de connexion", user.getId(), maxIdentifierFailures);
+        });
+    }
+
+    /**
+     * Empreinte 64 bits (FNV-1a puis mélange final) de la valeur normalisée en minuscules
+     */
+    private static long hashKey(String value) {
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < normalized.length(); i++) {
+            hash ^= normalized.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static Counter blockedCounter(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("security.login.blocked")
+                .tag("scope", scope)
+                .description("Tentatives de connexion refusées sans vérification du mot de passe")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,178 @@
+package com.securetalk.service.security;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Table {@code long → long} en adressage ouvert (sondage linéaire), sans objet par entrée.
+ * <p>
+ * Conçue pour une lecture à chaque requête et des écritures rares : les lectures sont optimistes
+ * ({@link StampedLock}) et ne prennent le verrou qu'en cas d'écriture concurrente. La clé 0
+ * est réservée au slot vide.
+ */
+final class LongLongHashMap {
+
+    private static final long EMPTY = 0L;
+
+    private final StampedLock lock = new StampedLock();
+
+    private long[] keys;
+
+    private long[] values;
+
+    private int size;
+
+    LongLongHashMap(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity) - 1) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+    }
+
+    /**
+     * Valeur associée à la clé, ou {@code defaultValue}
+     */
+    long get(long key, long defaultValue) {
+        if (key == EMPTY) {
+            return defaultValue; // Sinon le premier slot vide « correspondrait »
+        }
+        long stamp = lock.tryOptimisticRead();
+        long[] currentKeys = keys;
+        long[] currentValues = values;
+        // Tableaux de deux générations différentes pendant un rehash : la validation échouera
+        if (currentKeys.length == currentValues.length) {
+            long value = find(currentKeys, currentValues, key, defaultValue);
+            if (lock.validate(stamp)) {
+                return value;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return find(keys, values, key, defaultValue);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Associe {@code merger(ancienne, nouvelle)} à la clé, ou la nouvelle valeur si la clé est absente
+     */
+    void merge(long key, long value, LongBinaryOperator merger) {
+        checkKey(key);
+        long stamp = lock.writeLock();
+        try {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == key) {
+                    values[slot] = merger.applyAsLong(values[slot], value);
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            values[slot] = value;
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                rehash(keys.length * 2, Long.MIN_VALUE);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Retire les entrées dont la valeur est strictement inférieure au seuil
+     *
+     * @return nombre d'entrées retirées
+     */
+    int removeValuesBelow(long threshold) {
+        long stamp = lock.writeLock();
+        try {
+            int before = size;
+            int capacity = keys.length;
+            // Réduit la table si elle est devenue clairsemée
+            while (capacity > 16 && countAtLeast(threshold) * 8 < capacity) {
+                capacity >>>= 1;
+            }
+            rehash(capacity, threshold);
+            return before - size;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // ===== STRUCTURE INTERNE =====
+
+    private static long find(long[] keys, long[] values, long key, long defaultValue) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        // Borné par la capacité : une lecture optimiste concurrente ne peut pas boucler
+        for (int probes = 0; probes < keys.length; probes++) {
+            long candidate = keys[slot];
+            if (candidate == key) {
+                return values[slot];
+            }
+            if (candidate == EMPTY) {
+                return defaultValue;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    private int countAtLeast(long threshold) {
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY && values[i] >= threshold) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Recopie les entrées de valeur au moins égale au seuil dans de nouveaux tableaux ; les anciens
+     * restent intacts pour les lectures optimistes en cours
+     */
+    private void rehash(int capacity, long threshold) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        long[] newKeys = new long[capacity];
+        long[] newValues = new long[capacity];
+        int mask = capacity - 1;
+        int count = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY && oldValues[i] >= threshold) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (newKeys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                newKeys[slot] = oldKeys[i];
+                newValues[slot] = oldValues[i];
+                count++;
+            }
+        }
+        values = newValues;
+        keys = newKeys;
+        size = count;
+    }
+
+    private static void checkKey(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("La clé 0 est réservée");
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
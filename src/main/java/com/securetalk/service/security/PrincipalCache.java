@@ -0,0 +1,232 @@
+package com.securetalk.service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.securetalk.event.UserChangedEvent;
+import com.securetalk.model.User;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache borné des principaux authentifiés, indexé par ID et par identifiant (email ou nom d'utilisateur).
+ * <p>
+ * Le cache conserve un instantané immuable des champs de sécurité ; chaque lecture produit une
+ * nouvelle instance détachée de {@link User}, jamais partagée entre requêtes. Les entrées expirent
+ * après écriture et sont invalidées par {@link #invalidateAfterCommit} ou par les {@link UserChangedEvent}.
+ * <p>
+ * Les identifiants sont indexés en minuscules (collation insensible à la casse) ; une invalidation
+ * ne retire que les clés connues de l'utilisateur (nom d'utilisateur et email), en temps constant.
+ * Une entrée d'identifiant restée en place est vérifiée à la lecture contre l'instantané pointé.
+ */
+@Component
+public class PrincipalCache {
+
+    private final Cache<Long, PrincipalSnapshot> byId;
+
+    private final Cache<String, Long> idByIdentifier;
+
+    // Incrémenté à chaque invalidation : un chargement par identifiant commencé avant n'est pas conservé
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public PrincipalCache(MeterRegistry meterRegistry,
+                          @Value("${app.security.principal-cache.ttl-seconds:300}") long ttlSeconds,
+                          @Value("${app.security.principal-cache.max-size:10000}") long maxSize) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.idByIdentifier = Caffeine.newBuilder()
+                .maximumSize(maxSize * 2)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "principal.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idByIdentifier, "principal.by-identifier");
+        Gauge.builder("security.principal.cache.hit.ratio", byId, cache -> cache.stats().hitRate())
+                .tag("cache", "by-id")
+                .description("Taux de succès du cache des principaux par ID")
+                .register(meterRegistry);
+        Gauge.builder("security.principal.cache.hit.ratio", idByIdentifier, cache -> cache.stats().hitRate())
+                .tag("cache", "by-identifier")
+                .description("Taux de succès du cache des principaux par identifiant")
+                .register(meterRegistry);
+    }
+
+    // ===== LECTURE =====
+
+    /**
+     * Principal par ID, chargé via {@code loader} en cas d'absence
+     */
+    public Optional<User> getById(Long userId, Function<Long, Optional<User>> loader) {
+        PrincipalSnapshot snapshot = byId.get(userId, id -> loader.apply(id).map(PrincipalSnapshot::of).orElse(null));
+        return Optional.ofNullable(snapshot).map(PrincipalSnapshot::toUser);
+    }
+
+    /**
+     * Principal par email ou nom d'utilisateur, chargé via {@code loader} en cas d'absence
+     */
+    public Optional<User> getByIdentifier(String identifier, Function<String, Optional<User>> loader) {
+        String key = normalize(identifier);
+        Long userId = idByIdentifier.getIfPresent(key);
+        if (userId != null) {
+            PrincipalSnapshot snapshot = byId.getIfPresent(userId);
+            if (snapshot != null && snapshot.isIdentifiedBy(key)) {
+                return Optional.of(snapshot.toUser());
+            }
+        }
+
+        long generation = invalidations.get();
+        Optional<User> loaded = loader.apply(identifier);
+        if (!loaded.isPresent()) {
+            return Optional.empty();
+        }
+        PrincipalSnapshot snapshot = PrincipalSnapshot.of(loaded.get());
+        byId.put(snapshot.id, snapshot);
+        idByIdentifier.put(key, snapshot.id);
+        if (invalidations.get() != generation) {
+            // Invalidation pendant le chargement : l'état lu est peut-être déjà périmé
+            byId.invalidate(snapshot.id);
+            idByIdentifier.invalidate(key);
+        }
+        return Optional.of(snapshot.toUser());
+    }
+
+    // ===== INVALIDATION =====
+
+    /**
+     * Retire un utilisateur du cache, ainsi que ses identifiants connus
+     */
+    public void invalidate(Long userId) {
+        invalidations.incrementAndGet();
+        PrincipalSnapshot snapshot = byId.getIfPresent(userId);
+        byId.invalidate(userId);
+        if (snapshot != null) {
+            invalidateIdentifier(snapshot.username, userId);
+            invalidateIdentifier(snapshot.email, userId);
+        }
+    }
+
+    /**
+     * Invalide immédiatement puis à nouveau après validation de la transaction courante, pour
+     * écarter un rechargement concurrent qui aurait lu l'état antérieur
+     */
+    public void invalidateAfterCommit(Long userId) {
+        invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Toute écriture d'entité utilisateur (profil, activation, rôles) invalide le principal
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.getUserId());
+        invalidateIdentifier(event.getUsername(), event.getUserId());
+        invalidateIdentifier(event.getEmail(), event.getUserId());
+    }
+
+    private void invalidateIdentifier(String identifier, Long userId) {
+        if (identifier != null) {
+            idByIdentifier.asMap().remove(normalize(identifier), userId);
+        }
+    }
+
+    private static String normalize(String identifier) {
+        return identifier.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Instantané immuable des champs nécessaires à l'authentification et à l'autorisation
+     */
+    private static final class PrincipalSnapshot {
+        private final Long id;
+        private final Long version;
+        private final String username;
+        private final String email;
+        private final String password;
+        private final String firstName;
+        private final String lastName;
+        private final int rolesMask;
+        private final Boolean enabled;
+        private final Boolean accountNonExpired;
+        private final Boolean accountNonLocked;
+        private final Boolean credentialsNonExpired;
+        private final LocalDateTime lockedUntil;
+        private final LocalDateTime passwordChangedAt;
+        private final Boolean emailVerified;
+        private final LocalDateTime createdAt;
+
+        private PrincipalSnapshot(User user) {
+            this.id = user.getId();
+            this.version = user.getVersion();
+            this.username = user.getUsername();
+            this.email = user.getEmail();
+            this.password = user.getPassword();
+            this.firstName = user.getFirstName();
+            this.lastName = user.getLastName();
+            this.rolesMask = user.getRolesMask();
+            this.enabled = user.getEnabled();
+            this.accountNonExpired = user.getAccountNonExpired();
+            this.accountNonLocked = user.getAccountNonLocked();
+            this.credentialsNonExpired = user.getCredentialsNonExpired();
+            this.lockedUntil = user.getLockedUntil();
+            this.passwordChangedAt = user.getPasswordChangedAt();
+            this.emailVerified = user.getEmailVerified();
+            this.createdAt = user.getCreatedAt();
+        }
+
+        static PrincipalSnapshot of(User user) {
+            return new PrincipalSnapshot(user);
+        }
+
+        boolean isIdentifiedBy(String key) {
+            return (username != null && normalize(username).equals(key))
+                    || (email != null && normalize(email).equals(key));
+        }
+
+        User toUser() {
+            User user = User.builder()
+                    .username(username)
+                    .email(email)
+                    .password(password)
+                    .firstName(firstName)
+                    .lastName(lastName)
+                    .rolesMask(rolesMask)
+                    .enabled(enabled)
+                    .accountNonExpired(accountNonExpired)
+                    .accountNonLocked(accountNonLocked)
+                    .credentialsNonExpired(credentialsNonExpired)
+                    .lockedUntil(lockedUntil)
+                    .passwordChangedAt(passwordChangedAt)
+                    .emailVerified(emailVerified)
+                    .build();
+            user.setId(id);
+            user.setVersion(version);
+            user.setCreatedAt(createdAt);
+            return user;
+        }
+    }
+}
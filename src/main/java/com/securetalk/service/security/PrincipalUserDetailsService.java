@@ -0,0 +1,40 @@
+package com.securetalk.service.security;
+
+import com.securetalk.model.User;
+import com.securetalk.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Chargement des principaux pour Spring Security, servi par {@link PrincipalCache}.
+ * <p>
+ * En régime établi, l'authentification d'une requête ne déclenche aucune requête SQL ;
+ * seul un défaut de cache charge l'utilisateur et ses rôles.
+ */
+@Service
+@RequiredArgsConstructor
+public class PrincipalUserDetailsService implements UserDetailsService {
+
+    private final UserRepository userRepository;
+
+    private final PrincipalCache principalCache;
+
+    /**
+     * Charge un utilisateur par email ou nom d'utilisateur
+     */
+    @Override
+    public User loadUserByUsername(String identifier) {
+        return principalCache.getByIdentifier(identifier, userRepository::findByEmailOrUsername)
+                .orElseThrow(() -> new UsernameNotFoundException("Utilisateur introuvable: " + identifier));
+    }
+
+    /**
+     * Charge un utilisateur par ID (jetons portant l'ID de l'utilisateur)
+     */
+    public User loadUserById(Long userId) {
+        return principalCache.getById(userId, userRepository::findById)
+                .orElseThrow(() -> new UsernameNotFoundException("Utilisateur introuvable: " + userId));
+    }
+}
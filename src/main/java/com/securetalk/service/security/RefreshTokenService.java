@@ -0,0 +1,331 @@
+package com.securetalk.service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.securetalk.model.RefreshToken;
+import com.securetalk.model.User;
+import com.securetalk.repository.RefreshTokenRepository;
+import com.securetalk.repository.RefreshTokenRepositoryCustom.UsageDelta;
+import com.securetalk.service.session.UserAgentDictionary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Émission et validation des refresh tokens.
+ * <p>
+ * Les tokens sont stockés sous forme d'empreinte SHA-256. Les métadonnées des tokens valides
+ * sont gardées peu de temps en cache local, les empreintes inconnues ou invalides dans un cache
+ * négatif : une rafale de rafraîchissements (reconnexion massive) ne touche la base qu'une fois
+ * par token. Les statistiques d'usage sont cumulées en mémoire et écrites en différé.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final RevocationEpochs revocationEpochs;
+
+    private final UserAgentDictionary userAgentDictionary;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final Duration tokenValidity;
+
+    private final Cache<String, TokenMetadata> validTokens;
+
+    private final Cache<String, Boolean> invalidTokens;
+
+    private final Map<Long, PendingUsage> pendingUsage = new ConcurrentHashMap<>();
+
+    private final int usageFlushBatchSize;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               TransactionTemplate transactionTemplate,
+                               RevocationEpochs revocationEpochs,
+                               UserAgentDictionary userAgentDictionary,
+                               MeterRegistry meterRegistry,
+                               @Value("${jwt.refresh-expiration:604800000}") long refreshExpirationMillis,
+                               @Value("${app.security.refresh-token.cache-ttl-seconds:60}") long cacheTtlSeconds,
+                               @Value("${app.security.refresh-token.negative-cache-ttl-seconds:300}") long negativeTtlSeconds,
+                               @Value("${app.security.refresh-token.cache-max-size:100000}") long cacheMaxSize,
+                               @Value("${app.security.refresh-token.usage-flush-batch-size:500}") int usageFlushBatchSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.revocationEpochs = revocationEpochs;
+        this.userAgentDictionary = userAgentDictionary;
+        this.tokenValidity = Duration.ofMillis(refreshExpirationMillis);
+        this.usageFlushBatchSize = usageFlushBatchSize;
+        this.validTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .recordStats()
+                .build();
+        this.invalidTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(negativeTtlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, validTokens, "refresh-token.valid");
+        CaffeineCacheMetrics.monitor(meterRegistry, invalidTokens, "refresh-token.invalid");
+        Gauge.builder("security.refresh-token.usage.pending", pendingUsage, Map::size)
+                .description("Tokens dont l'usage attend l'écriture différée")
+                .register(meterRegistry);
+    }
+
+    // ===== ÉMISSION =====
+
+    /**
+     * Émet un token pour l'utilisateur ; seule son empreinte est enregistrée
+     *
+     * @return la valeur brute, à transmettre au client
+     */
+    @Transactional
+    public String issue(User user, String deviceInfo, String ipAddress, String userAgent) {
+        byte[] raw = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(raw);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+        byte[] hash = sha256(token);
+
+        RefreshToken saved = refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash)
+                .user(user)
+                .expiresAt(LocalDateTime.now().plus(tokenValidity))
+                .deviceInfo(deviceInfo)
+                .ipAddress(ipAddress)
+                .userAgent(userAgentDictionary.intern(userAgent))
+                .build());
+
+        // Une présentation avant validation de la transaction a pu être mise en cache négatif
+        String key = cacheKey(hash);
+        TokenMetadata metadata = TokenMetadata.of(saved);
+        afterCommit(() -> {
+            invalidTokens.invalidate(key);
+            validTokens.put(key, metadata);
+        });
+        return token;
+    }
+
+    // ===== VALIDATION =====
+
+    /**
+     * Métadonnées du token s'il est actif, non révoqué et non expiré ; compte l'utilisation
+     */
+    public Optional<TokenMetadata> validate(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        String key = cacheKey(sha256(token));
+        if (invalidTokens.getIfPresent(key) != null) {
+            return Optional.empty();
+        }
+
+        // Un seul chargement par clé, même pour des présentations simultanées du même token
+        TokenMetadata metadata = validTokens.get(key, this::load);
+        if (metadata == null) {
+            invalidTokens.put(key, Boolean.TRUE);
+            return Optional.empty();
+        }
+        if (metadata.isExpired()) {
+            validTokens.invalidate(key);
+            invalidTokens.put(key, Boolean.TRUE);
+            return Optional.empty();
+        }
+
+        recordUsage(metadata.getId());
+        return Optional.of(metadata);
+    }
+
+    private TokenMetadata load(String key) {
+        return refreshTokenRepository.findByTokenHash(Base64.getDecoder().decode(key))
+                .filter(RefreshToken::isValid)
+                .map(TokenMetadata::of)
+                .orElse(null);
+    }
+
+    // ===== RÉVOCATION =====
+
+    /**
+     * Révoque un token ; il est refusé immédiatement sur cette instance
+     */
+    @Transactional
+    public boolean revoke(String token, String reason) {
+        byte[] hash = sha256(token);
+        String key = cacheKey(hash);
+        boolean revoked = refreshTokenRepository.revokeToken(hash, LocalDateTime.now(), reason) > 0;
+        validTokens.invalidate(key);
+        afterCommit(() -> markInvalid(key));
+        return revoked;
+    }
+
+    /**
+     * Révoque tous les tokens actifs d'un utilisateur (changement de mot de passe, déconnexion globale),
+     * y compris les JWT d'accès déjà émis, refusés dès maintenant par leur date d'émission
+     */
+    @Transactional
+    public int revokeAllForUser(Long userId) {
+        revocationEpochs.revokeAllForUser(userId);
+        int revoked = refreshTokenRepository.revokeAllTokensForUser(userId, LocalDateTime.now());
+        evictUser(userId);
+        afterCommit(() -> evictUser(userId));
+        return revoked;
+    }
+
+    private void markInvalid(String key) {
+        validTokens.invalidate(key);
+        invalidTokens.put(key, Boolean.TRUE);
+    }
+
+    private void evictUser(Long userId) {
+        validTokens.asMap().values().removeIf(metadata -> metadata.getUserId().equals(userId));
+    }
+
+    // ===== USAGE DIFFÉRÉ =====
+
+    private void recordUsage(Long tokenId) {
+        LocalDateTime now = LocalDateTime.now();
+        pendingUsage.compute(tokenId, (id, usage) -> usage == null ? new PendingUsage(1, now) : usage.add(now));
+    }
+
+    /**
+     * Écrit les utilisations cumulées depuis le dernier passage, une transaction et un lot JDBC
+     * par paquet de tokens
+     */
+    @Scheduled(fixedDelayString = "${app.security.refresh-token.usage-flush-ms:30000}")
+    public void flushUsage() {
+        if (pendingUsage.isEmpty()) {
+            return;
+        }
+        List<UsageDelta> deltas = new ArrayList<>();
+        for (Long tokenId : pendingUsage.keySet()) {
+            PendingUsage usage = pendingUsage.remove(tokenId);
+            if (usage != null) {
+                deltas.add(new UsageDelta(tokenId, usage.uses, usage.lastUsedAt));
+            }
+        }
+
+        int flushed = 0;
+        for (int from = 0; from < deltas.size(); from += usageFlushBatchSize) {
+            List<UsageDelta> batch = deltas.subList(from, Math.min(from + usageFlushBatchSize, deltas.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> refreshTokenRepository.addUsage(batch));
+                flushed += batch.size();
+            } catch (RuntimeException e) {
+                // Remis en attente pour le prochain passage
+                for (UsageDelta delta : deltas.subList(from, deltas.size())) {
+                    pendingUsage.merge(delta.getTokenId(), new PendingUsage(delta.getUses(), delta.getLastUsedAt()),
+                            PendingUsage::merge);
+                }
+                log.warn("Échec d'écriture de l'usage de {} refresh tokens", deltas.size() - from, e);
+                break;
+            }
+        }
+        log.debug("Usage de {} refresh tokens écrit", flushed);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushUsage();
+    }
+
+    // ===== UTILITAIRES =====
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private static String cacheKey(byte[] hash) {
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    /**
+     * Instantané immuable d'un token valide
+     */
+    @Getter
+    public static final class TokenMetadata {
+        private final Long id;
+        private final Long userId;
+        private final LocalDateTime expiresAt;
+        private final String deviceInfo;
+
+        private TokenMetadata(Long id, Long userId, LocalDateTime expiresAt, String deviceInfo) {
+            this.id = id;
+            this.userId = userId;
+            this.expiresAt = expiresAt;
+            this.deviceInfo = deviceInfo;
+        }
+
+        static TokenMetadata of(RefreshToken token) {
+            return new TokenMetadata(token.getId(), token.getUser().getId(), token.getExpiresAt(),
+                    token.getDeviceInfo());
+        }
+
+        public boolean isExpired() {
+            return LocalDateTime.now().isAfter(expiresAt);
+        }
+    }
+
+    private static final class PendingUsage {
+        private final int uses;
+        private final LocalDateTime lastUsedAt;
+
+        private PendingUsage(int uses, LocalDateTime lastUsedAt) {
+            this.uses = uses;
+            this.lastUsedAt = lastUsedAt;
+        }
+
+        PendingUsage add(LocalDateTime at) {
+            return new PendingUsage(uses + 1, at.isAfter(lastUsedAt) ? at : lastUsedAt);
+        }
+
+        static PendingUsage merge(PendingUsage a, PendingUsage b) {
+            return new PendingUsage(a.uses + b.uses, a.lastUsedAt.isAfter(b.lastUsedAt) ? a.lastUsedAt : b.lastUsedAt);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.securetalk.service.security;
+
+import com.securetalk.repository.UserRevocationEpochRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Époque de révocation par utilisateur : tout JWT d'accès émis avant elle est refusé.
+ * <p>
+ * Les époques sont gardées dans une table primitive {@code long → long} lue sans verrou ni E/S
+ * à chaque requête ; elles sont écrites en base à chaque révocation et rechargées au démarrage.
+ * Une époque plus ancienne que la durée de vie d'un token d'accès ne peut plus rien refuser :
+ * elle est purgée, ce qui garde la table compacte.
+ * <p>
+ * {@code iat} étant à la seconde, l'époque est arrondie à la seconde suivante : un token émis
+ * dans la seconde de la révocation est refusé lui aussi, jamais l'inverse.
+ */
+@Slf4j
+@Component
+public class RevocationEpochs {
+
+    private final UserRevocationEpochRepository repository;
+
+    private final long accessTokenLifetimeSeconds;
+
+    private final LongLongHashMap epochs = new LongLongHashMap(1024);
+
+    public RevocationEpochs(UserRevocationEpochRepository repository,
+                            MeterRegistry meterRegistry,
+                            @Value("${jwt.expiration:86400000}") long accessTokenLifetimeMillis) {
+        this.repository = repository;
+        this.accessTokenLifetimeSeconds = (accessTokenLifetimeMillis + 999) / 1000;
+        Gauge.builder("security.revocation.epochs", epochs, LongLongHashMap::size)
+                .description("Utilisateurs ayant une époque de révocation active")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Charge les époques encore utiles
+     */
+    @PostConstruct
+    public void load() {
+        long before = epochs.size();
+        repository.forEachEpochAfter(oldestUsefulEpoch(), this::restore);
+        log.info("Époques de révocation chargées: {}", epochs.size() - before);
+    }
+
+    /**
+     * Invalide tous les JWT d'accès déjà émis pour l'utilisateur, en mémoire puis en base
+     * (dans la transaction de l'appelant s'il y en a une)
+     */
+    public void revokeAllForUser(Long userId) {
+        long epoch = System.currentTimeMillis() / 1000 + 1;
+        restore(userId, epoch);
+        repository.raiseEpoch(userId, epoch);
+    }
+
+    /**
+     * Applique une époque connue, sans écriture en base (chargement, autre instance)
+     */
+    public void restore(long userId, long epochSeconds) {
+        epochs.merge(userId, epochSeconds, Math::max);
+    }
+
+    /**
+     * Vrai si un token émis à {@code issuedAtSeconds} a été révoqué
+     */
+    public boolean isRevoked(long userId, long issuedAtSeconds) {
+        return issuedAtSeconds < epochs.get(userId, Long.MIN_VALUE);
+    }
+
+    /**
+     * Purge les époques devenues inutiles, puis relit celles des autres instances
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation.refresh-ms:60000}",
+            initialDelayString = "${app.security.revocation.refresh-ms:60000}")
+    @Transactional
+    public void purgeAndRefresh() {
+        long threshold = oldestUsefulEpoch();
+        int removed = epochs.removeValuesBelow(threshold + 1);
+        repository.deleteEpochsUpTo(threshold);
+        repository.forEachEpochAfter(threshold, this::restore);
+        if (removed > 0) {
+            log.debug("{} époques de révocation expirées purgées", removed);
+        }
+    }
+
+    /**
+     * Une époque inférieure ou égale à cette valeur précède l'émission de tout token encore valide
+     */
+    private long oldestUsefulEpoch() {
+        return System.currentTimeMillis() / 1000 - accessTokenLifetimeSeconds;
+    }
+}
@@ -0,0 +1,244 @@
+package com.securetalk.service.security;
+
+/**
+ * Compteurs à fenêtre glissante indexés par clé {@code long}, en adressage ouvert sans objets par entrée.
+ * <p>
+ * Chaque entrée garde le compte de la fenêtre fixe courante et celui de la précédente ; le compte
+ * glissant est estimé par {@code précédent × (part restante de la fenêtre précédente) + courant}.
+ * Une entrée sans activité depuis deux fenêtres vaut zéro et est récupérée par {@link #purgeExpired},
+ * appelé périodiquement. La capacité est bornée : à saturation, l'insertion évince aussitôt la clé
+ * la plus ancienne parmi quelques slots de sa séquence de sondage (une entrée expirée en priorité,
+ * puisque c'est la plus ancienne), sans jamais parcourir la table, ce qui garde mémoire et coût
+ * constants face à des clés aléatoires.
+ * <p>
+ * Les méthodes sont synchronisées ; chaque opération hors {@link #purgeExpired} est en temps
+ * constant amorti.
+ */
+final class SlidingWindowCounterMap {
+
+    private static final long EMPTY = 0L;
+
+    private static final int MAX_PROBE_FOR_EVICTION = 16;
+
+    private final long windowMillis;
+
+    private final int maxCapacity;
+
+    private long[] keys;
+
+    private long[] windowStarts;
+
+    private int[] currentCounts;
+
+    private int[] previousCounts;
+
+    private int size;
+
+    SlidingWindowCounterMap(long windowMillis, int initialCapacity, int maxCapacity) {
+        this.windowMillis = windowMillis;
+        this.maxCapacity = Integer.highestOneBit(Math.max(16, maxCapacity));
+        allocate(Math.min(this.maxCapacity, Integer.highestOneBit(Math.max(16, initialCapacity))));
+    }
+
+    /**
+     * Incrémente le compteur de la clé et retourne le compte glissant résultant
+     */
+    synchronized int increment(long key, long now) {
+        key = normalize(key);
+        int slot = findOrInsert(key, now);
+        roll(slot, now);
+        currentCounts[slot]++;
+        return estimate(slot, now);
+    }
+
+    /**
+     * Compte glissant actuel de la clé (0 si inconnue)
+     */
+    synchronized int get(long key, long now) {
+        int slot = find(normalize(key));
+        if (slot < 0) {
+            return 0;
+        }
+        roll(slot, now);
+        return estimate(slot, now);
+    }
+
+    /**
+     * Oublie la clé
+     */
+    synchronized void reset(long key) {
+        int slot = find(normalize(key));
+        if (slot >= 0) {
+            removeAt(slot);
+        }
+    }
+
+    /**
+     * Retire les entrées sans activité depuis deux fenêtres
+     *
+     * @return nombre d'entrées retirées
+     */
+    synchronized int purgeExpired(long now) {
+        int removed = 0;
+        int slot = 0;
+        while (slot < keys.length) {
+            if (keys[slot] != EMPTY && isExpired(slot, now)) {
+                removeAt(slot);
+                removed++;
+                // L'entrée décalée dans ce slot doit être réexaminée
+            } else {
+                slot++;
+            }
+        }
+        return removed;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    // ===== STRUCTURE INTERNE =====
+
+    private int estimate(int slot, long now) {
+        long elapsed = now - windowStarts[slot];
+        double previousWeight = 1.0 - Math.min(1.0, (double) elapsed / windowMillis);
+        return (int) Math.ceil(previousCounts[slot] * previousWeight) + currentCounts[slot];
+    }
+
+    /**
+     * Fait avancer la fenêtre de l'entrée jusqu'à {@code now}
+     */
+    private void roll(int slot, long now) {
+        long elapsed = now - windowStarts[slot];
+        if (elapsed < windowMillis) {
+            return;
+        }
+        if (elapsed < 2 * windowMillis) {
+            previousCounts[slot] = currentCounts[slot];
+            windowStarts[slot] += windowMillis;
+        } else {
+            previousCounts[slot] = 0;
+            windowStarts[slot] = now;
+        }
+        currentCounts[slot] = 0;
+    }
+
+    private boolean isExpired(int slot, long now) {
+        return now - windowStarts[slot] >= 2 * windowMillis;
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int findOrInsert(long key, long now) {
+        int existing = find(key);
+        if (existing >= 0) {
+            return existing;
+        }
+
+        if ((size + 1) * 4 > keys.length * 3) {
+            if (keys.length < maxCapacity) {
+                resize(keys.length * 2);
+            } else {
+                evictOldest(key);
+            }
+        }
+
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        windowStarts[slot] = now;
+        currentCounts[slot] = 0;
+        previousCounts[slot] = 0;
+        size++;
+        return slot;
+    }
+
+    /**
+     * Table pleine : évince l'entrée la plus ancienne parmi les premiers slots sondés (au moins une,
+     * pour que la charge ne dépasse jamais le seuil)
+     */
+    private void evictOldest(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        int oldest = -1;
+        for (int i = 0; i < MAX_PROBE_FOR_EVICTION || oldest < 0; i++, slot = (slot + 1) & mask) {
+            if (keys[slot] != EMPTY && (oldest < 0 || windowStarts[slot] < windowStarts[oldest])) {
+                oldest = slot;
+            }
+        }
+        removeAt(oldest);
+    }
+
+    /**
+     * Suppression par décalage arrière (pas de marqueur de suppression en sondage linéaire)
+     */
+    private void removeAt(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int ideal = mix(keys[next]) & mask;
+            // L'entrée peut combler le trou si son slot idéal n'est pas entre le trou (exclu) et elle-même
+            if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                windowStarts[hole] = windowStarts[next];
+                currentCounts[hole] = currentCounts[next];
+                previousCounts[hole] = previousCounts[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldStarts = windowStarts;
+        int[] oldCurrent = currentCounts;
+        int[] oldPrevious = previousCounts;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                windowStarts[slot] = oldStarts[i];
+                currentCounts[slot] = oldCurrent[i];
+                previousCounts[slot] = oldPrevious[i];
+                size++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        windowStarts = new long[capacity];
+        currentCounts = new int[capacity];
+        previousCounts = new int[capacity];
+        size = 0;
+    }
+
+    private static long normalize(long key) {
+        return key == EMPTY ? 1L : key;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
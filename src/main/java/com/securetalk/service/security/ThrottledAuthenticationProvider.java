@@ -0,0 +1,66 @@
+package com.securetalk.service.security;
+
+import com.securetalk.model.User;
+import com.securetalk.service.user.UserActivityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Fournisseur d'authentification qui consulte {@link LoginAttemptService} avant de déléguer :
+ * une tentative refusée ne coûte ni requête SQL ni hachage de mot de passe. Une connexion
+ * réussie est enregistrée dans {@code user_activity} (dernière connexion, échecs remis à zéro).
+ */
+@RequiredArgsConstructor
+public class ThrottledAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+
+    private final LoginAttemptService loginAttemptService;
+
+    private final UserActivityService userActivityService;
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String identifier = authentication.getName();
+        String ipAddress = resolveIpAddress(authentication);
+        loginAttemptService.assertAllowed(identifier, ipAddress);
+
+        Authentication result;
+        try {
+            result = delegate.authenticate(authentication);
+        } catch (BadCredentialsException e) {
+            loginAttemptService.recordFailure(identifier, ipAddress);
+            throw e;
+        }
+        if (result != null) {
+            loginAttemptService.recordSuccess(identifier);
+            if (result.getPrincipal() instanceof User) {
+                userActivityService.recordLogin(((User) result.getPrincipal()).getId());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    private static String resolveIpAddress(Authentication authentication) {
+        if (authentication.getDetails() instanceof WebAuthenticationDetails) {
+            return ((WebAuthenticationDetails) authentication.getDetails()).getRemoteAddress();
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            return ((ServletRequestAttributes) attributes).getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.securetalk.service.security;
+
+import lombok.Getter;
+
+/**
+ * Claims immuables d'un JWT d'accès dont la signature a été vérifiée
+ */
+@Getter
+public final class VerifiedToken {
+
+    private final Long userId;
+
+    private final String username;
+
+    private final int rolesMask;
+
+    private final long issuedAtSeconds;
+
+    private final long expiresAtMillis;
+
+    /**
+     * Session ({@code UserSession.sessionId}) à l'origine du token, ou null
+     */
+    private final String sessionId;
+
+    VerifiedToken(Long userId, String username, int rolesMask, long issuedAtSeconds, long expiresAtMillis,
+                  String sessionId) {
+        this.userId = userId;
+        this.username = username;
+        this.rolesMask = rolesMask;
+        this.issuedAtSeconds = issuedAtSeconds;
+        this.expiresAtMillis = expiresAtMillis;
+        this.sessionId = sessionId;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
@@ -0,0 +1,305 @@
+package com.securetalk.service.session;
+
+import com.securetalk.repository.UserSessionRepository;
+import com.securetalk.repository.UserSessionRepositoryCustom.ActivityDelta;
+import com.securetalk.repository.UserSessionRepositoryCustom.SessionState;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Activité des sessions tenue en mémoire, écrite en base par lots.
+ * <p>
+ * Chaque requête authentifiée ne fait qu'une écriture mémoire ({@link #touch}) ; un passage
+ * planifié écrit les compteurs cumulés en un seul lot JDBC. Une session absente de la mémoire
+ * (redémarrage, autre instance) est lue une fois en base ; inconnue, inactive ou expirée, elle est
+ * refusée. L'inactivité et l'expiration sont ensuite évaluées sur l'état en mémoire, puis confirmées
+ * par la base : une session inactive ici mais servie par une autre instance est relue au lieu
+ * d'être terminée ; les autres sont terminées en base ({@code TIMEOUT}). Une session terminée reste
+ * marquée le temps de vie d'un JWT d'accès, pour que ses tokens encore valides ne la fassent pas
+ * renaître ni ne provoquent de nouvelle lecture.
+ */
+@Slf4j
+@Component
+public class SessionActivityTracker {
+
+    static final String TIMEOUT_REASON = "TIMEOUT";
+
+    private final UserSessionRepository sessionRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final long idleTimeoutMillis;
+
+    private final long terminatedRetentionMillis;
+
+    private final long reloadIntervalMillis;
+
+    private final int batchSize;
+
+    private final Map<String, Activity> sessions = new ConcurrentHashMap<>();
+
+    private final Counter flushedCounter;
+
+    private final Counter timedOutCounter;
+
+    public SessionActivityTracker(UserSessionRepository sessionRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.session.idle-timeout-minutes:30}") long idleTimeoutMinutes,
+                                  @Value("${app.session.activity-batch-size:500}") int batchSize,
+                                  @Value("${jwt.expiration:86400000}") long accessTokenLifetimeMillis,
+                                  @Value("${app.session.activity-flush-ms:15000}") long flushIntervalMillis) {
+        this.sessionRepository = sessionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.idleTimeoutMillis = TimeUnit.MINUTES.toMillis(idleTimeoutMinutes);
+        this.batchSize = batchSize;
+        this.terminatedRetentionMillis = accessTokenLifetimeMillis;
+        this.reloadIntervalMillis = flushIntervalMillis;
+
+        Gauge.builder("session.activity.tracked", sessions, Map::size)
+                .description("Sessions suivies en mémoire")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("session.activity.flushed")
+                .description("Mises à jour d'activité écrites en base")
+                .register(meterRegistry);
+        this.timedOutCounter = Counter.builder("session.activity.timed-out")
+                .description("Sessions terminées pour inactivité")
+                .register(meterRegistry);
+    }
+
+    // ===== SUIVI =====
+
+    /**
+     * Compte une requête pour la session
+     *
+     * @return faux si la session est inconnue, terminée ou expirée
+     */
+    public boolean touch(String sessionId) {
+        long now = System.currentTimeMillis();
+        Activity activity = sessions.get(sessionId);
+        if (activity != null && activity.terminatedAt == 0 && activity.isTimedOut(now, idleTimeoutMillis)
+                && now - activity.loadedAtMillis >= reloadIntervalMillis) {
+            // Inactive ici seulement, peut-être servie par une autre instance : relue en base
+            sessions.remove(sessionId, activity);
+            activity = null;
+        }
+        if (activity == null) {
+            // Session ouverte avant le démarrage de cette instance, ou par une autre : l'état fait foi en base
+            Activity loaded = load(sessionId, now);
+            if (loaded == null) {
+                return false;
+            }
+            activity = sessions.putIfAbsent(sessionId, loaded);
+            if (activity == null) {
+                activity = loaded;
+            }
+        }
+        if (activity.terminatedAt != 0 || activity.isTimedOut(now, idleTimeoutMillis)) {
+            return false;
+        }
+        activity.lastActivityMillis = now;
+        activity.pendingRequests.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Marque terminées les sessions suivies de l'utilisateur (déconnexion de tous les appareils),
+     * tout de suite puis après validation, pour qu'un chargement concurrent ne les fasse pas renaître
+     */
+    public void terminatedForUser(Long userId) {
+        markTerminated(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markTerminated(userId);
+                }
+            });
+        }
+    }
+
+    private void markTerminated(Long userId) {
+        long now = System.currentTimeMillis();
+        for (Activity activity : sessions.values()) {
+            if (userId.equals(activity.userId) && activity.terminatedAt == 0) {
+                activity.terminatedAt = now;
+            }
+        }
+    }
+
+    /**
+     * État de la session lu en base ; une session inconnue, inactive ou expirée est retenue comme
+     * terminée (cache négatif jusqu'à la purge des marques)
+     *
+     * @return null si la base est indisponible (refus sans mise en cache)
+     */
+    private Activity load(String sessionId, long now) {
+        Optional<SessionState> state;
+        try {
+            state = sessionRepository.findState(sessionId);
+        } catch (RuntimeException e) {
+            log.warn("Lecture de la session {} impossible, requête refusée", sessionId, e);
+            return null;
+        }
+        if (!state.isPresent()) {
+            return Activity.terminated(null, now);
+        }
+        SessionState session = state.get();
+        long expiresAt = toMillis(session.getExpiresAt());
+        if (!session.isActive() || now >= expiresAt) {
+            return Activity.terminated(session.getUserId(), now);
+        }
+        // Dernière activité connue, éventuellement en retard d'un passage d'écriture d'une autre instance
+        long lastActivity = session.getLastActivity() != null ? Math.min(now, toMillis(session.getLastActivity())) : now;
+        return new Activity(session.getUserId(), lastActivity, expiresAt, now);
+    }
+
+    // ===== ÉCRITURE DIFFÉRÉE =====
+
+    /**
+     * Écrit l'activité cumulée par lots, termine les sessions expirées et oublie les marques périmées
+     */
+    @Scheduled(fixedDelayString = "${app.session.activity-flush-ms:15000}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        List<ActivityDelta> deltas = new ArrayList<>();
+        List<String> timedOut = new ArrayList<>();
+
+        Iterator<Map.Entry<String, Activity>> iterator = sessions.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Activity> entry = iterator.next();
+            Activity activity = entry.getValue();
+            int requests = activity.pendingRequests.getAndSet(0);
+            if (requests > 0) {
+                deltas.add(new ActivityDelta(entry.getKey(), requests, toDateTime(activity.lastActivityMillis)));
+            }
+            if (activity.terminatedAt != 0) {
+                if (now - activity.terminatedAt >= terminatedRetentionMillis) {
+                    iterator.remove();
+                }
+            } else if (activity.isTimedOut(now, idleTimeoutMillis)) {
+                timedOut.add(entry.getKey());
+            }
+        }
+
+        for (int from = 0; from < deltas.size(); from += batchSize) {
+            List<ActivityDelta> batch = deltas.subList(from, Math.min(from + batchSize, deltas.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> sessionRepository.addActivity(batch));
+                flushedCounter.increment(batch.size());
+            } catch (RuntimeException e) {
+                // Remis en attente pour le prochain passage
+                requeue(deltas.subList(from, deltas.size()));
+                log.warn("Échec d'écriture de l'activité de {} sessions", deltas.size() - from, e);
+                break;
+            }
+        }
+
+        // Après l'écriture des activités : la base juge l'inactivité sur toutes les instances
+        if (!timedOut.isEmpty()) {
+            LocalDateTime at = toDateTime(now);
+            LocalDateTime idleCutoff = toDateTime(now - idleTimeoutMillis);
+            for (int from = 0; from < timedOut.size(); from += batchSize) {
+                List<String> batch = timedOut.subList(from, Math.min(from + batchSize, timedOut.size()));
+                Integer result = transactionTemplate.execute(status ->
+                        sessionRepository.terminateIdleSessions(batch, idleCutoff, at, TIMEOUT_REASON));
+                int terminated = result != null ? result : 0;
+                timedOutCounter.increment(terminated);
+                settleTimedOut(batch, terminated == batch.size(), now);
+            }
+            log.debug("{} sessions inactives sur cette instance", timedOut.size());
+        }
+    }
+
+    /**
+     * Toutes terminées en base : marquées comme telles. Sinon, certaines sont actives ailleurs (ou
+     * déjà closes) : oubliées, leur état est relu en base à la prochaine requête.
+     */
+    private void settleTimedOut(List<String> sessionIds, boolean allTerminated, long now) {
+        for (String sessionId : sessionIds) {
+            Activity activity = sessions.get(sessionId);
+            if (activity == null || activity.terminatedAt != 0) {
+                continue;
+            }
+            if (allTerminated) {
+                activity.terminatedAt = now;
+            } else {
+                sessions.remove(sessionId, activity);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void requeue(List<ActivityDelta> deltas) {
+        for (ActivityDelta delta : deltas) {
+            Activity activity = sessions.get(delta.getSessionId());
+            if (activity != null) {
+                activity.pendingRequests.addAndGet(delta.getRequests());
+            }
+        }
+    }
+
+    // ===== UTILITAIRES =====
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime == null ? Long.MAX_VALUE : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    /**
+     * État d'une session : écrit par les requêtes, lu et remis à zéro par l'écriture différée
+     */
+    private static final class Activity {
+        private final AtomicInteger pendingRequests = new AtomicInteger();
+        private final Long userId;
+        private final long expiresAtMillis;
+        private final long loadedAtMillis;
+        private volatile long lastActivityMillis;
+        private volatile long terminatedAt;
+
+        private Activity(Long userId, long lastActivityMillis, long expiresAtMillis, long loadedAtMillis) {
+            this.userId = userId;
+            this.lastActivityMillis = lastActivityMillis;
+            this.expiresAtMillis = expiresAtMillis;
+            this.loadedAtMillis = loadedAtMillis;
+        }
+
+        static Activity terminated(Long userId, long now) {
+            Activity activity = new Activity(userId, now, now, now);
+            activity.terminatedAt = now;
+            return activity;
+        }
+
+        boolean isTimedOut(long now, long idleTimeoutMillis) {
+            return now >= expiresAtMillis || now - lastActivityMillis >= idleTimeoutMillis;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.securetalk.service.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Classement des en-têtes User-Agent (type d'appareil, navigateur, système et versions).
+ * <p>
+ * Le trafic réel ne présente qu'un petit nombre de User-Agent distincts : les résultats sont
+ * gardés dans un cache borné indexé par la chaîne complète, si bien qu'une connexion ne coûte
+ * en régime établi qu'une recherche. L'analyse elle-même procède par recherche de jetons
+ * ({@code indexOf}), sans expression régulière. Le taux de succès est exposé
+ * ({@code user-agent} dans les métriques de cache, {@code session.user-agent.hit-ratio}).
+ */
+@Component
+public class UserAgentClassifier {
+
+    /**
+     * Longueur des colonnes {@code user_agent} : au-delà, la chaîne est tronquée avant classement
+     */
+    static final int MAX_USER_AGENT_LENGTH = 1000;
+
+    private static final int MAX_VERSION_LENGTH = 20;
+
+    private static final String[] BOT_MARKERS = {"bot", "crawler", "spider", "slurp", "headless"};
+
+    /**
+     * Jeton du navigateur et nom affiché, dans l'ordre d'examen : les dérivés de Chrome
+     * annoncent aussi {@code Chrome/} et {@code Safari/}
+     */
+    private static final String[][] BROWSERS = {
+            {"Edg/", "Edge"},
+            {"EdgA/", "Edge"},
+            {"EdgiOS/", "Edge"},
+            {"OPR/", "Opera"},
+            {"SamsungBrowser/", "Samsung Internet"},
+            {"YaBrowser/", "Yandex"},
+            {"Vivaldi/", "Vivaldi"},
+            {"Firefox/", "Firefox"},
+            {"FxiOS/", "Firefox"},
+            {"CriOS/", "Chrome"},
+            {"Chrome/", "Chrome"},
+            {"MSIE ", "Internet Explorer"},
+            {"okhttp/", "OkHttp"},
+            {"curl/", "curl"},
+            {"PostmanRuntime/", "Postman"}
+    };
+
+    private final Cache<String, UserAgentInfo> cache;
+
+    public UserAgentClassifier(MeterRegistry meterRegistry,
+                               @Value("${app.session.user-agent-cache.max-size:4096}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user-agent");
+        Gauge.builder("session.user-agent.hit-ratio", cache, c -> c.stats().hitRate())
+                .description("Part des User-Agent servis par le cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Classement du User-Agent ; {@link UserAgentInfo#isKnown()} est faux pour un en-tête absent
+     */
+    public UserAgentInfo classify(String userAgent) {
+        if (userAgent == null || userAgent.trim().isEmpty()) {
+            return UserAgentInfo.UNKNOWN;
+        }
+        String key = userAgent.length() > MAX_USER_AGENT_LENGTH
+                ? userAgent.substring(0, MAX_USER_AGENT_LENGTH)
+                : userAgent;
+        return cache.get(key, UserAgentClassifier::parse);
+    }
+
+    /**
+     * Hits / (hits + misses) depuis le démarrage
+     */
+    public double hitRatio() {
+        return cache.stats().hitRate();
+    }
+
+    // ===== ANALYSE =====
+
+    static UserAgentInfo parse(String ua) {
+        String osName = null;
+        String osVersion = null;
+        boolean tablet = false;
+        boolean mobile = ua.contains("Mobi");
+
+        int at;
+        if ((at = ua.indexOf("iPad")) >= 0) {
+            osName = "iPadOS";
+            osVersion = appleVersion(ua, "CPU OS ");
+            tablet = true;
+        } else if ((at = ua.indexOf("iPhone")) >= 0 || (at = ua.indexOf("iPod")) >= 0) {
+            osName = "iOS";
+            osVersion = appleVersion(ua, "iPhone OS ");
+            mobile = true;
+        } else if ((at = ua.indexOf("Android")) >= 0) {
+            osName = "Android";
+            osVersion = version(ua, at + "Android".length() + 1);
+            // Les tablettes Android n'annoncent pas « Mobile »
+            tablet = !mobile;
+        } else if ((at = ua.indexOf("Windows NT ")) >= 0) {
+            osName = "Windows";
+            osVersion = windowsVersion(version(ua, at + "Windows NT ".length()));
+        } else if ((at = ua.indexOf("Mac OS X")) >= 0) {
+            osName = "macOS";
+            osVersion = appleVersion(ua, "Mac OS X ");
+        } else if (ua.contains("CrOS")) {
+            osName = "ChromeOS";
+        } else if (ua.contains("Linux")) {
+            osName = "Linux";
+        }
+
+        String browserName = null;
+        String browserVersion = null;
+        for (String[] browser : BROWSERS) {
+            if ((at = ua.indexOf(browser[0])) >= 0) {
+                browserName = browser[1];
+                browserVersion = version(ua, at + browser[0].length());
+                break;
+            }
+        }
+        if (browserName == null && ua.contains("Safari/") && (at = ua.indexOf("Version/")) >= 0) {
+            browserName = "Safari";
+            browserVersion = version(ua, at + "Version/".length());
+        } else if (browserName == null && ua.contains("Trident/")) {
+            browserName = "Internet Explorer";
+            at = ua.indexOf("rv:");
+            browserVersion = at >= 0 ? version(ua, at + 3) : null;
+        }
+
+        String deviceType;
+        if (isBot(ua)) {
+            deviceType = UserAgentInfo.BOT;
+        } else if (tablet) {
+            deviceType = UserAgentInfo.TABLET;
+        } else if (mobile) {
+            deviceType = UserAgentInfo.MOBILE;
+        } else {
+            deviceType = UserAgentInfo.DESKTOP;
+        }
+        return new UserAgentInfo(deviceType, browserName, browserVersion, osName, osVersion);
+    }
+
+    private static boolean isBot(String ua) {
+        String lower = ua.toLowerCase(Locale.ROOT);
+        for (String marker : BOT_MARKERS) {
+            if (lower.contains(marker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Versions Apple ({@code 17_1_2}) à partir du jeton donné, en notation pointée
+     */
+    private static String appleVersion(String ua, String token) {
+        int at = ua.indexOf(token);
+        String version = at >= 0 ? version(ua, at + token.length()) : null;
+        return version != null ? version.replace('_', '.') : null;
+    }
+
+    private static String windowsVersion(String ntVersion) {
+        if (ntVersion == null) {
+            return null;
+        }
+        switch (ntVersion) {
+            case "10.0":
+                return "10";
+            case "6.3":
+                return "8.1";
+            case "6.2":
+                return "8";
+            case "6.1":
+                return "7";
+            default:
+                return ntVersion;
+        }
+    }
+
+    /**
+     * Version débutant à {@code from} : chiffres, points et soulignés, au plus trois composantes
+     */
+    private static String version(String ua, int from) {
+        int end = from;
+        int separators = 0;
+        while (end < ua.length() && end - from < MAX_VERSION_LENGTH) {
+            char c = ua.charAt(end);
+            if (c == '.' || c == '_') {
+                if (++separators == 3) {
+                    break;
+                }
+            } else if (c < '0' || c > '9') {
+                break;
+            }
+            end++;
+        }
+        // Pas de séparateur final (« 17_ »)
+        while (end > from && (ua.charAt(end - 1) == '.' || ua.charAt(end - 1) == '_')) {
+            end--;
+        }
+        return end > from ? ua.substring(from, end) : null;
+    }
+}
@@ -0,0 +1,112 @@
+package com.securetalk.service.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.securetalk.model.UserAgent;
+import com.securetalk.repository.UserAgentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * Internement des User-Agent dans le dictionnaire {@code user_agents}.
+ * <p>
+ * Les chaînes déjà vues sont résolues par un cache local borné, préchargé au démarrage avec les
+ * entrées les plus récentes, sans accès à la base. Une chaîne nouvelle est insérée dans la
+ * transaction de l'appelant, sur sa connexion : une seconde connexion par requête pourrait
+ * épuiser le pool à froid. Son ID n'entre dans le cache qu'après validation, pour qu'une
+ * annulation ne laisse pas en cache l'ID d'une ligne disparue. Les instances renvoyées sont
+ * détachées, immuables et partagées : elles servent uniquement de cible aux associations
+ * {@code user_agent_id}.
+ */
+@Slf4j
+@Component
+public class UserAgentDictionary {
+
+    private final UserAgentRepository userAgentRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Cache<String, UserAgent> cache;
+
+    private final int maxSize;
+
+    public UserAgentDictionary(UserAgentRepository userAgentRepository,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.session.user-agent-cache.max-size:4096}") int maxSize) {
+        this.userAgentRepository = userAgentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.maxSize = maxSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user-agent.dictionary");
+    }
+
+    /**
+     * Charge les entrées les plus récentes : après un redémarrage, les navigateurs courants sont
+     * résolus sans insertion
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarm() {
+        List<UserAgent> recent = userAgentRepository.findMostRecent(maxSize);
+        for (UserAgent userAgent : recent) {
+            cache.put(userAgent.getValue(), userAgent);
+        }
+        log.info("Dictionnaire des User-Agent: {} entrées préchargées", recent.size());
+    }
+
+    /**
+     * Entrée du dictionnaire pour la chaîne (tronquée à {@link UserAgent#MAX_LENGTH}), ou null si elle est vide
+     */
+    public UserAgent intern(String userAgent) {
+        if (userAgent == null || userAgent.trim().isEmpty()) {
+            return null;
+        }
+        String value = userAgent.length() > UserAgent.MAX_LENGTH
+                ? userAgent.substring(0, UserAgent.MAX_LENGTH)
+                : userAgent;
+        UserAgent cached = cache.getIfPresent(value);
+        return cached != null ? cached : load(value);
+    }
+
+    private UserAgent load(String value) {
+        byte[] hash = sha256(value);
+        Integer id = transactionTemplate.execute(status -> userAgentRepository.internId(hash, value));
+        UserAgent loaded = new UserAgent(id, hash, value);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.put(value, loaded);
+                }
+            });
+        } else {
+            cache.put(value, loaded);
+        }
+        return loaded;
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
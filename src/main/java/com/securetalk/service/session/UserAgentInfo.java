@@ -0,0 +1,42 @@
+package com.securetalk.service.session;
+
+import lombok.Getter;
+
+/**
+ * Appareil, navigateur et système déduits d'un en-tête User-Agent ; immuable et partagé
+ */
+@Getter
+public final class UserAgentInfo {
+
+    public static final String DESKTOP = "DESKTOP";
+
+    public static final String MOBILE = "MOBILE";
+
+    public static final String TABLET = "TABLET";
+
+    public static final String BOT = "BOT";
+
+    static final UserAgentInfo UNKNOWN = new UserAgentInfo(null, null, null, null, null);
+
+    private final String deviceType;
+
+    private final String browserName;
+
+    private final String browserVersion;
+
+    private final String osName;
+
+    private final String osVersion;
+
+    UserAgentInfo(String deviceType, String browserName, String browserVersion, String osName, String osVersion) {
+        this.deviceType = deviceType;
+        this.browserName = browserName;
+        this.browserVersion = browserVersion;
+        this.osName = osName;
+        this.osVersion = osVersion;
+    }
+
+    public boolean isKnown() {
+        return this != UNKNOWN;
+    }
+}
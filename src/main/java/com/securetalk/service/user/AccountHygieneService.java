@@ -0,0 +1,95 @@
+package com.securetalk.service.user;
+
+import com.securetalk.model.User;
+import com.securetalk.repository.UserActivityRepository;
+import com.securetalk.repository.UserRepository;
+import com.securetalk.service.batch.BatchJobRunner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Jobs planifiés d'hygiène des comptes (expiration des mots de passe, comptes dormants).
+ * <p>
+ * Les utilisateurs sont parcourus par tranches via {@link BatchJobRunner} ; les modifications
+ * passent par les entités, le listener invalide donc les principaux en cache.
+ * Chaque job est désactivé quand sa durée est à 0.
+ */
+@Slf4j
+@Service
+public class AccountHygieneService {
+
+    static final String PASSWORD_EXPIRY_JOB = "password-expiry";
+
+    static final String DORMANT_ACCOUNTS_JOB = "dormant-accounts";
+
+    private final BatchJobRunner batchJobRunner;
+
+    private final UserRepository userRepository;
+
+    private final UserActivityRepository userActivityRepository;
+
+    private final int passwordMaxAgeDays;
+
+    private final int dormantAccountDays;
+
+    public AccountHygieneService(BatchJobRunner batchJobRunner,
+                                 UserRepository userRepository,
+                                 UserActivityRepository userActivityRepository,
+                                 @Value("${app.security.password-max-age-days:0}") int passwordMaxAgeDays,
+                                 @Value("${app.security.dormant-account-days:0}") int dormantAccountDays) {
+        this.batchJobRunner = batchJobRunner;
+        this.userRepository = userRepository;
+        this.userActivityRepository = userActivityRepository;
+        this.passwordMaxAgeDays = passwordMaxAgeDays;
+        this.dormantAccountDays = dormantAccountDays;
+    }
+
+    /**
+     * Marque comme expirés les identifiants dont le mot de passe dépasse l'âge maximal
+     */
+    @Scheduled(cron = "${app.batch.password-expiry-cron:0 15 3 * * *}")
+    public void expireOldPasswords() {
+        if (passwordMaxAgeDays <= 0) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(passwordMaxAgeDays);
+        batchJobRunner.runOverUsers(PASSWORD_EXPIRY_JOB,
+                (afterId, page) -> userRepository.findUsersWithOldPassword(cutoff, afterId, page),
+                chunk -> {
+                    for (User user : chunk) {
+                        // Sans date de changement, l'âge du mot de passe est celui du compte
+                        boolean old = user.getPasswordChangedAt() != null
+                                || user.getCreatedAt() == null || user.getCreatedAt().isBefore(cutoff);
+                        if (old && Boolean.TRUE.equals(user.getCredentialsNonExpired())) {
+                            user.setCredentialsNonExpired(false);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Désactive les comptes sans activité depuis la durée configurée
+     */
+    @Scheduled(cron = "${app.batch.dormant-accounts-cron:0 45 3 * * *}")
+    public void disableDormantAccounts() {
+        if (dormantAccountDays <= 0) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(dormantAccountDays);
+        batchJobRunner.runOverUsers(DORMANT_ACCOUNTS_JOB,
+                (afterId, page) -> userActivityRepository.findInactiveUsersSince(cutoff, afterId, page),
+                chunk -> {
+                    for (User user : chunk) {
+                        // Les comptes récents sans activité enregistrée ne sont pas dormants
+                        boolean dormant = user.getCreatedAt() == null || user.getCreatedAt().isBefore(cutoff);
+                        if (dormant && user.isEnabled() && !user.isAdmin()) {
+                            user.setEnabled(false);
+                        }
+                    }
+                });
+    }
+}
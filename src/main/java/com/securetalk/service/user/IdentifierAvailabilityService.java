@@ -0,0 +1,241 @@
+package com.securetalk.service.user;
+
+import com.securetalk.event.UserChangedEvent;
+import com.securetalk.repository.UserRepository;
+import com.securetalk.repository.projection.UserSearchView;
+import com.securetalk.service.search.SearchText;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Disponibilité des noms d'utilisateur et des emails (inscription, vérification à la frappe).
+ * <p>
+ * Un filtre de Bloom par champ, sur les valeurs ramenées à la collation de la base (insensible
+ * à la casse et aux accents), répond « certainement libre »
+ * sans requête ; seules les correspondances possibles sont confirmées par le repository.
+ * Les filtres sont construits au démarrage, alimentés à chaque création ou modification
+ * d'utilisateur, et reconstruits périodiquement pour oublier les valeurs libérées.
+ */
+@Slf4j
+@Service
+public class IdentifierAvailabilityService {
+
+    private final UserRepository userRepository;
+
+    private final int rebuildChunkSize;
+
+    private final double falsePositiveRate;
+
+    private final long minExpectedInsertions;
+
+    private final FieldFilter usernames;
+
+    private final FieldFilter emails;
+
+    // Filtres en cours de construction, alimentés aussi par les écritures concurrentes
+    private volatile BloomFilter pendingUsernames;
+
+    private volatile BloomFilter pendingEmails;
+
+    public IdentifierAvailabilityService(UserRepository userRepository,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${app.search.rebuild-chunk-size:5000}") int rebuildChunkSize,
+                                         @Value("${app.availability.false-positive-rate:0.01}") double falsePositiveRate,
+                                         @Value("${app.availability.min-expected-insertions:100000}") long minExpectedInsertions) {
+        this.userRepository = userRepository;
+        this.rebuildChunkSize = rebuildChunkSize;
+        this.falsePositiveRate = falsePositiveRate;
+        this.minExpectedInsertions = minExpectedInsertions;
+        this.usernames = new FieldFilter("username", userRepository::existsByUsername, meterRegistry);
+        this.emails = new FieldFilter("email", userRepository::existsByEmail, meterRegistry);
+    }
+
+    /**
+     * Vrai si aucun utilisateur n'utilise ce nom (insensible à la casse)
+     */
+    public boolean isUsernameAvailable(String username) {
+        return usernames.isAvailable(username);
+    }
+
+    /**
+     * Vrai si aucun utilisateur n'utilise cet email (insensible à la casse)
+     */
+    public boolean isEmailAvailable(String email) {
+        return emails.isAvailable(email);
+    }
+
+    /**
+     * Faux si le nom est certainement libre ; vrai s'il peut être pris (filtre seul, sans requête)
+     */
+    public boolean mayUsernameExist(String username) {
+        return usernames.mightContain(username);
+    }
+
+    /**
+     * Faux si l'email est certainement libre ; vrai s'il peut être pris (filtre seul, sans requête)
+     */
+    public boolean mayEmailExist(String email) {
+        return emails.mightContain(email);
+    }
+
+    /**
+     * Reconstruit les deux filtres, dimensionnés sur le nombre actuel d'utilisateurs avec une marge
+     * de croissance ; les anciens filtres restent servis pendant la construction
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.availability.rebuild-ms:3600000}",
+            initialDelayString = "${app.availability.rebuild-ms:3600000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        long expected = Math.max(minExpectedInsertions, userRepository.count() * 2);
+        BloomFilter newUsernames = new BloomFilter(expected, falsePositiveRate);
+        BloomFilter newEmails = new BloomFilter(expected, falsePositiveRate);
+        pendingUsernames = newUsernames;
+        pendingEmails = newEmails;
+
+        try {
+            long lastId = 0L;
+            List<UserSearchView> chunk;
+            do {
+                chunk = userRepository.findSearchViewsAfter(lastId, PageRequest.of(0, rebuildChunkSize));
+                for (UserSearchView user : chunk) {
+                    putIfPresent(newUsernames, user.getUsername());
+                    putIfPresent(newEmails, user.getEmail());
+                    lastId = user.getId();
+                }
+            } while (chunk.size() == rebuildChunkSize);
+
+            usernames.swap(newUsernames);
+            emails.swap(newEmails);
+        } finally {
+            pendingUsernames = null;
+            pendingEmails = null;
+        }
+        log.debug("Filtres de disponibilité reconstruits: {} entrées, {} Ko par champ en {} ms",
+                newUsernames.insertions(), newUsernames.sizeInBytes() / 1024, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Ajoute immédiatement les valeurs d'un utilisateur créé ou modifié
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getChangeType() == UserChangedEvent.ChangeType.DELETED) {
+            return; // Un filtre de Bloom n'oublie pas : la valeur libérée le sera à la reconstruction
+        }
+        usernames.put(event.getUsername(), pendingUsernames);
+        emails.put(event.getEmail(), pendingEmails);
+    }
+
+    private static void putIfPresent(BloomFilter filter, String value) {
+        if (value != null) {
+            filter.put(normalize(value));
+        }
+    }
+
+    /**
+     * Forme canonique partagée avec les index de recherche : sans elle, le filtre répondrait
+     * « libre » pour « Élodie » déjà prise sous « elodie »
+     */
+    private static String normalize(String value) {
+        return SearchText.fold(value);
+    }
+
+    /**
+     * Filtre d'un champ, avec son repli sur le repository et ses métriques
+     */
+    private static final class FieldFilter {
+        private final Predicate<String> repositoryExists;
+        private final Counter definitelyFreeCounter;
+        private final Counter databaseCheckCounter;
+        private final Counter falsePositiveCounter;
+        private volatile BloomFilter filter;
+
+        private FieldFilter(String field, Predicate<String> repositoryExists, MeterRegistry meterRegistry) {
+            this.repositoryExists = repositoryExists;
+            this.definitelyFreeCounter = checkCounter(meterRegistry, field, "bloom");
+            this.databaseCheckCounter = checkCounter(meterRegistry, field, "database");
+            this.falsePositiveCounter = Counter.builder("user.availability.bloom.false.positives")
+                    .tag("field", field)
+                    .description("Correspondances possibles du filtre démenties par la base")
+                    .register(meterRegistry);
+            Gauge.builder("user.availability.bloom.false.positive.rate", this, FieldFilter::observedFalsePositiveRate)
+                    .tag("field", field)
+                    .description("Part des valeurs libres que le filtre n'a pas su écarter")
+                    .register(meterRegistry);
+            Gauge.builder("user.availability.bloom.expected.false.positive.rate", this,
+                            f -> f.filter == null ? Double.NaN : f.filter.expectedFalsePositiveRate())
+                    .tag("field", field)
+                    .description("Taux de faux positifs théorique pour le remplissage actuel")
+                    .register(meterRegistry);
+        }
+
+        boolean isAvailable(String value) {
+            BloomFilter current = filter;
+            if (current != null && !current.mightContain(normalize(value))) {
+                definitelyFreeCounter.increment();
+                return true;
+            }
+
+            databaseCheckCounter.increment();
+            boolean exists = repositoryExists.test(value);
+            if (!exists && current != null) {
+                falsePositiveCounter.increment();
+            }
+            return !exists;
+        }
+
+        boolean mightContain(String value) {
+            BloomFilter current = filter;
+            return current == null || current.mightContain(normalize(value));
+        }
+
+        void put(String value, BloomFilter pending) {
+            BloomFilter current = filter;
+            if (value == null) {
+                return;
+            }
+            String normalized = normalize(value);
+            if (current != null) {
+                current.put(normalized);
+            }
+            if (pending != null) {
+                pending.put(normalized);
+            }
+        }
+
+        void swap(BloomFilter newFilter) {
+            filter = newFilter;
+        }
+
+        /**
+         * Faux positifs rapportés à l'ensemble des valeurs libres vérifiées
+         */
+        private double observedFalsePositiveRate() {
+            double falsePositives = falsePositiveCounter.count();
+            double negatives = falsePositives + definitelyFreeCounter.count();
+            return negatives == 0 ? 0.0 : falsePositives / negatives;
+        }
+
+        private static Counter checkCounter(MeterRegistry meterRegistry, String field, String source) {
+            return Counter.builder("user.availability.checks")
+                    .tag("field", field)
+                    .tag("source", source)
+                    .description("Vérifications de disponibilité par source de la réponse")
+                    .register(meterRegistry);
+        }
+    }
+}
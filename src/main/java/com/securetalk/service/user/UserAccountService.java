@@ -0,0 +1,103 @@
+package com.securetalk.service.user;
+
+import com.securetalk.model.Role;
+import com.securetalk.model.User;
+import com.securetalk.repository.UserRepository;
+import com.securetalk.repository.UserSessionRepository;
+import com.securetalk.service.security.LoginAttemptService;
+import com.securetalk.service.security.PrincipalCache;
+import com.securetalk.service.security.RefreshTokenService;
+import com.securetalk.service.session.SessionActivityTracker;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Opérations sur l'état de sécurité d'un compte (mot de passe, verrouillage, rôles, activation).
+ * <p>
+ * Toute écriture invalide le principal mis en cache, y compris les mises à jour en masse
+ * qui ne passent pas par le listener d'entité.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class UserAccountService {
+
+    private final UserRepository userRepository;
+
+    private final UserActivityService userActivityService;
+
+    private final PrincipalCache principalCache;
+
+    private final UserSessionRepository userSessionRepository;
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final SessionActivityTracker sessionActivityTracker;
+
+    private final LoginAttemptService loginAttemptService;
+
+    /**
+     * Remplace le mot de passe (déjà encodé)
+     */
+    public void updatePassword(Long userId, String encodedPassword) {
+        userRepository.updatePassword(userId, encodedPassword, LocalDateTime.now());
+        principalCache.invalidateAfterCommit(userId);
+    }
+
+    /**
+     * Verrouille le compte jusqu'à la date donnée
+     */
+    public void lockAccount(Long userId, LocalDateTime until) {
+        userRepository.lockAccount(userId, until);
+        principalCache.invalidateAfterCommit(userId);
+    }
+
+    /**
+     * Déverrouille le compte et remet à zéro les échecs de connexion, en base et en mémoire
+     */
+    public void unlockAccount(Long userId) {
+        User user = findUser(userId);
+        userRepository.unlockAccount(userId);
+        userActivityService.resetFailedLoginAttempts(userId);
+        loginAttemptService.reset(user.getUsername(), user.getEmail());
+        principalCache.invalidateAfterCommit(userId);
+    }
+
+    /**
+     * Remplace les rôles de l'utilisateur
+     */
+    public void updateRoles(Long userId, Set<Role> roles) {
+        User user = findUser(userId);
+        user.setRoles(roles);
+        principalCache.invalidateAfterCommit(userId);
+    }
+
+    /**
+     * Active ou désactive le compte
+     */
+    public void setEnabled(Long userId, boolean enabled) {
+        User user = findUser(userId);
+        user.setEnabled(enabled);
+        principalCache.invalidateAfterCommit(userId);
+    }
+
+    /**
+     * Déconnecte l'utilisateur partout : sessions terminées, refresh tokens révoqués et JWT d'accès
+     * déjà émis refusés dès maintenant par l'époque de révocation (sans requête par appel)
+     */
+    public void signOutEverywhere(Long userId, String reason) {
+        userSessionRepository.terminateAllSessionsForUser(userId, LocalDateTime.now(), reason);
+        sessionActivityTracker.terminatedForUser(userId);
+        refreshTokenService.revokeAllForUser(userId);
+    }
+
+    private User findUser(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("Utilisateur introuvable: " + userId));
+    }
+}
@@ -0,0 +1,47 @@
+package com.securetalk.service.user;
+
+import com.securetalk.repository.UserActivityRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Chemin d'écriture de l'activité utilisateur (table {@code user_activity}).
+ * <p>
+ * Chaque opération est une mise à jour ciblée d'une ligne étroite ; connexions et échecs sont
+ * des upserts, qui créent la ligne à la première écriture sans course entre insertions.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserActivityService {
+
+    private final UserActivityRepository userActivityRepository;
+
+    /**
+     * Enregistre une connexion réussie (remet aussi à zéro les échecs)
+     */
+    @Transactional
+    public void recordLogin(Long userId) {
+        userActivityRepository.upsertLogin(userId, LocalDateTime.now());
+    }
+
+    /**
+     * Ajoute des échecs de connexion (comptés en mémoire jusqu'au verrouillage), dans sa propre
+     * transaction pour survivre à l'annulation de la transaction d'authentification
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recordFailedLogins(Long userId, int attempts) {
+        userActivityRepository.upsertFailedLogins(userId, attempts);
+    }
+
+    /**
+     * Remet à zéro les échecs de connexion (déverrouillage, connexion réussie)
+     */
+    @Transactional
+    public void resetFailedLoginAttempts(Long userId) {
+        userActivityRepository.resetFailedLoginAttempts(userId);
+    }
+}
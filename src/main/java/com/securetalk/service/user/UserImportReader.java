@@ -0,0 +1,303 @@
+package com.securetalk.service.user;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securetalk.model.Role;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lecture en flux d'un fichier d'import d'utilisateurs, ligne par ligne, sans le charger en mémoire.
+ * <p>
+ * Colonnes (CSV avec en-tête) ou champs (NDJSON) : {@code username}, {@code email}, {@code password},
+ * {@code firstName}, {@code lastName}, {@code roles} (séparés par {@code |} ou {@code ;} en CSV,
+ * tableau en NDJSON) et {@code enabled}. Une ligne illisible produit une {@link Row} en erreur
+ * sans interrompre la lecture.
+ */
+abstract class UserImportReader implements Closeable {
+
+    final BufferedReader reader;
+
+    long lineNumber;
+
+    private UserImportReader(InputStream input) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    static UserImportReader open(InputStream input, UserImportService.Format format, ObjectMapper objectMapper)
+            throws IOException {
+        return format == UserImportService.Format.CSV ? new Csv(input) : new Ndjson(input, objectMapper);
+    }
+
+    /**
+     * Ligne suivante, ou null en fin de fichier
+     */
+    abstract Row next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Ligne lue : valeurs brutes ou erreur de lecture
+     */
+    static final class Row {
+        final long line;
+        final String username;
+        final String email;
+        final String password;
+        final String firstName;
+        final String lastName;
+        final Set<Role> roles;
+        final Boolean enabled;
+        final String error;
+
+        private Row(long line, String username, String email, String password, String firstName,
+                    String lastName, Set<Role> roles, Boolean enabled, String error) {
+            this.line = line;
+            this.username = username;
+            this.email = email;
+            this.password = password;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.roles = roles;
+            this.enabled = enabled;
+            this.error = error;
+        }
+
+        static Row of(long line, Map<String, String> values, Set<Role> roles) {
+            String enabled = values.get("enabled");
+            return new Row(line, values.get("username"), values.get("email"), values.get("password"),
+                    values.get("firstname"), values.get("lastname"), roles,
+                    parseEnabled(enabled), null);
+        }
+
+        /**
+         * Seuls {@code true} et {@code false} sont acceptés : « oui » ou « 1 » ne doivent pas
+         * désactiver silencieusement un compte
+         */
+        private static Boolean parseEnabled(String value) {
+            if (isBlank(value)) {
+                return Boolean.TRUE;
+            }
+            String normalized = value.trim().toLowerCase(Locale.ROOT);
+            if ("true".equals(normalized)) {
+                return Boolean.TRUE;
+            }
+            if ("false".equals(normalized)) {
+                return Boolean.FALSE;
+            }
+            throw new IllegalArgumentException("Valeur invalide pour enabled: " + value.trim());
+        }
+
+        static Row failed(long line, String error) {
+            return new Row(line, null, null, null, null, null, null, null, error);
+        }
+    }
+
+    // ===== CSV =====
+
+    private static final class Csv extends UserImportReader {
+
+        private String[] header;
+
+        private Csv(InputStream input) {
+            super(input);
+        }
+
+        @Override
+        Row next() throws IOException {
+            if (header == null) {
+                List<String> columns = readRecord();
+                if (columns == null) {
+                    return null;
+                }
+                header = new String[columns.size()];
+                for (int i = 0; i < header.length; i++) {
+                    header[i] = normalizeName(columns.get(i));
+                }
+            }
+
+            long line = lineNumber + 1;
+            List<String> fields;
+            try {
+                fields = readRecord();
+            } catch (IllegalArgumentException e) {
+                return Row.failed(line, e.getMessage());
+            }
+            if (fields == null) {
+                return null;
+            }
+            if (fields.size() != header.length) {
+                return Row.failed(line, "Nombre de colonnes invalide: " + fields.size() + " au lieu de " + header.length);
+            }
+
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                values.put(header[i], fields.get(i));
+            }
+            try {
+                return Row.of(line, values, parseRoles(values.get("roles"), "[|;]"));
+            } catch (IllegalArgumentException e) {
+                return Row.failed(line, e.getMessage());
+            }
+        }
+
+        /**
+         * Enregistrement CSV suivant (guillemets doubles, {@code ""} échappé, retours à la ligne entre
+         * guillemets) ; ignore les lignes vides
+         */
+        private List<String> readRecord() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) {
+                    return null;
+                }
+                lineNumber++;
+            } while (text.trim().isEmpty());
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == text.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    // Champ entre guillemets sur plusieurs lignes
+                    text = reader.readLine();
+                    if (text == null) {
+                        throw new IllegalArgumentException("Guillemet non fermé");
+                    }
+                    lineNumber++;
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = text.charAt(i++);
+                if (quoted) {
+                    if (c == '"' && i < text.length() && text.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    // ===== NDJSON =====
+
+    private static final class Ndjson extends UserImportReader {
+
+        private final ObjectMapper objectMapper;
+
+        private Ndjson(InputStream input, ObjectMapper objectMapper) {
+            super(input);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        Row next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) {
+                    return null;
+                }
+                lineNumber++;
+            } while (text.trim().isEmpty());
+
+            try {
+                JsonNode node = objectMapper.readTree(text);
+                if (!node.isObject()) {
+                    return Row.failed(lineNumber, "Objet JSON attendu");
+                }
+                Map<String, String> values = new HashMap<>();
+                for (Map.Entry<String, JsonNode> entry : node.properties()) {
+                    if (entry.getValue().isValueNode() && !entry.getValue().isNull()) {
+                        values.put(normalizeName(entry.getKey()), entry.getValue().asText());
+                    }
+                }
+                JsonNode roles = node.get("roles");
+                String joinedRoles = null;
+                if (roles != null && roles.isArray()) {
+                    StringBuilder joined = new StringBuilder();
+                    for (JsonNode role : roles) {
+                        joined.append(role.asText()).append('|');
+                    }
+                    joinedRoles = joined.toString();
+                } else if (roles != null && !roles.isNull()) {
+                    joinedRoles = roles.asText();
+                }
+                return Row.of(lineNumber, values, parseRoles(joinedRoles, "[|;,]"));
+            } catch (IllegalArgumentException e) {
+                return Row.failed(lineNumber, e.getMessage());
+            } catch (IOException e) {
+                return Row.failed(lineNumber, "JSON invalide");
+            }
+        }
+    }
+
+    // ===== UTILITAIRES =====
+
+    /**
+     * {@code first_name}, {@code FirstName} et {@code firstname} désignent la même colonne
+     */
+    private static String normalizeName(String name) {
+        return name.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<Role> parseRoles(String value, String separator) {
+        if (isBlank(value)) {
+            return EnumSet.of(Role.USER);
+        }
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        for (String part : value.split(separator)) {
+            String name = part.trim().toUpperCase(Locale.ROOT);
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (name.startsWith("ROLE_")) {
+                name = name.substring(5);
+            }
+            try {
+                roles.add(Role.valueOf(name));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Rôle inconnu: " + part.trim());
+            }
+        }
+        return roles.isEmpty() ? EnumSet.of(Role.USER) : roles;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
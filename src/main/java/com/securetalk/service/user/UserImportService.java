@@ -0,0 +1,417 @@
+package com.securetalk.service.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securetalk.dto.request.user.UserCreateRequest;
+import com.securetalk.dto.response.UserImportResult;
+import com.securetalk.event.UserChangedEvent;
+import com.securetalk.model.Role;
+import com.securetalk.model.User;
+import com.securetalk.repository.UserRepository;
+import com.securetalk.repository.projection.UserSearchView;
+import com.securetalk.service.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.stream.Collectors;
+
+/**
+ * Import d'utilisateurs en masse depuis un fichier CSV ou NDJSON lu en flux.
+ * <p>
+ * Le fichier est traité par lots : validation et hachage des mots de passe en parallèle sur un
+ * pool à vol de tâches dédié, contrôle d'unicité sur les valeurs déjà vues dans le fichier et
+ * sur les filtres de {@link IdentifierAvailabilityService} (la base n'est interrogée, en une
+ * requête par lot, que pour les correspondances possibles), puis insertion JDBC par lot.
+ * Chaque ligne rejetée est rapportée avec son numéro.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final int MAX_NAME_LENGTH = 50;
+
+    private final UserRepository userRepository;
+
+    private final IdentifierAvailabilityService availabilityService;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final BCryptPasswordEncoder hasher;
+
+    private final ForkJoinPool pool;
+
+    private final int batchSize;
+
+    private final int maxReportedErrors;
+
+    private final Counter importedCounter;
+
+    private final Counter failedCounter;
+
+    public UserImportService(UserRepository userRepository,
+                             IdentifierAvailabilityService availabilityService,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             TransactionTemplate transactionTemplate,
+                             ApplicationEventPublisher eventPublisher,
+                             BoundedPasswordEncoder passwordEncoder,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.import.parallelism:0}") int parallelism,
+                             @Value("${app.import.batch-size:1000}") int batchSize,
+                             @Value("${app.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.userRepository = userRepository;
+        this.availabilityService = availabilityService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        // Même coût que le hachage interactif, hors de sa file d'admission
+        this.hasher = new BCryptPasswordEncoder(passwordEncoder.getStrength());
+        this.pool = new ForkJoinPool(poolSize(parallelism),
+                forkJoinPool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                    thread.setName("user-import-" + thread.getPoolIndex());
+                    return thread;
+                }, null, false);
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.importedCounter = rowCounter(meterRegistry, "imported");
+        this.failedCounter = rowCounter(meterRegistry, "failed");
+    }
+
+    /**
+     * Le hachage d'import contourne la file du {@link BoundedPasswordEncoder} : il ne prend au plus
+     * que la moitié des cœurs, pour laisser l'autre moitié aux connexions concurrentes
+     */
+    private static int poolSize(int parallelism) {
+        int limit = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return parallelism > 0 ? Math.min(parallelism, limit) : limit;
+    }
+
+    /**
+     * Importe les utilisateurs du flux ; les lignes valides sont insérées même si d'autres échouent
+     */
+    public UserImportResult importUsers(InputStream input, Format format, String importedBy) throws IOException {
+        long start = System.currentTimeMillis();
+        ImportState state = new ImportState();
+
+        try (UserImportReader reader = UserImportReader.open(input, format, objectMapper)) {
+            List<UserImportReader.Row> rows;
+            do {
+                rows = readBatch(reader, state);
+                if (!rows.isEmpty()) {
+                    processBatch(rows, importedBy, state);
+                }
+            } while (rows.size() == batchSize);
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        importedCounter.increment(state.imported);
+        failedCounter.increment(state.failed);
+        log.info("Import d'utilisateurs par {}: {} importés, {} rejetés en {} ms",
+                importedBy, state.imported, state.failed, duration);
+
+        return UserImportResult.builder()
+                .totalRows(state.imported + state.failed)
+                .importedRows(state.imported)
+                .failedRows(state.failed)
+                .durationMs(duration)
+                .rowsPerSecond(duration == 0 ? null : state.imported * 1000.0 / duration)
+                .errors(state.errors)
+                .errorsTruncated(state.failed > state.errors.size())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // ===== TRAITEMENT D'UN LOT =====
+
+    private List<UserImportReader.Row> readBatch(UserImportReader reader, ImportState state) throws IOException {
+        List<UserImportReader.Row> rows = new ArrayList<>(batchSize);
+        try {
+            UserImportReader.Row row;
+            while (rows.size() < batchSize && (row = reader.next()) != null) {
+                rows.add(row);
+            }
+        } catch (IllegalArgumentException e) {
+            // En-tête CSV illisible : rien d'exploitable après
+            state.reject(0, e.getMessage(), maxReportedErrors);
+        }
+        return rows;
+    }
+
+    private void processBatch(List<UserImportReader.Row> rows, String importedBy, ImportState state) {
+        List<Candidate> candidates = inPool(() -> rows.parallelStream()
+                .map(row -> validate(row, importedBy))
+                .collect(Collectors.toList()));
+
+        checkUniqueness(candidates, state);
+
+        List<Candidate> accepted = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (candidate.error != null) {
+                state.reject(candidate.line, candidate.error, maxReportedErrors);
+            } else {
+                accepted.add(candidate);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        inPool(() -> {
+            accepted.parallelStream().forEach(candidate ->
+                    candidate.user.setPassword(hasher.encode(candidate.rawPassword)));
+            return null;
+        });
+
+        insert(accepted, state);
+    }
+
+    private Candidate validate(UserImportReader.Row row, String importedBy) {
+        if (row.error != null) {
+            return Candidate.rejected(row.line, row.error);
+        }
+
+        UserCreateRequest request = UserCreateRequest.builder()
+                .username(trim(row.username))
+                .email(trim(row.email))
+                .password(row.password)
+                .roles(row.roles)
+                .enabled(row.enabled)
+                .build();
+        Set<ConstraintViolation<UserCreateRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return Candidate.rejected(row.line, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        if (length(row.firstName) > MAX_NAME_LENGTH || length(row.lastName) > MAX_NAME_LENGTH) {
+            return Candidate.rejected(row.line, "Le prénom et le nom ne peuvent pas dépasser 50 caractères");
+        }
+
+        User user = User.builder()
+                .username(request.getUsername())
+                .email(request.getEmail())
+                .firstName(trim(row.firstName))
+                .lastName(trim(row.lastName))
+                .rolesMask(Role.toMask(request.getRoles()))
+                .enabled(request.getEnabled())
+                .build();
+        user.setCreatedBy(importedBy);
+        return new Candidate(row.line, user, request.getPassword(), null);
+    }
+
+    /**
+     * Doublons dans le fichier puis collisions avec la base, sans requête pour les valeurs
+     * que les filtres de Bloom déclarent libres
+     */
+    private void checkUniqueness(List<Candidate> candidates, ImportState state) {
+        Set<String> maybeUsernames = new HashSet<>();
+        Set<String> maybeEmails = new HashSet<>();
+        for (Candidate candidate : candidates) {
+            if (candidate.error != null) {
+                continue;
+            }
+            String username = lower(candidate.user.getUsername());
+            String email = lower(candidate.user.getEmail());
+            if (!state.seenUsernames.add(username)) {
+                candidate.error = "Nom d'utilisateur en double dans le fichier";
+            } else if (!state.seenEmails.add(email)) {
+                candidate.error = "Email en double dans le fichier";
+            } else {
+                if (availabilityService.mayUsernameExist(username)) {
+                    maybeUsernames.add(username);
+                }
+                if (availabilityService.mayEmailExist(email)) {
+                    maybeEmails.add(email);
+                }
+            }
+        }
+
+        Set<String> takenUsernames = lowerAll(maybeUsernames.isEmpty()
+                ? new ArrayList<>() : userRepository.findExistingUsernames(maybeUsernames));
+        Set<String> takenEmails = lowerAll(maybeEmails.isEmpty()
+                ? new ArrayList<>() : userRepository.findExistingEmails(maybeEmails));
+        for (Candidate candidate : candidates) {
+            if (candidate.error != null) {
+                continue;
+            }
+            if (takenUsernames.contains(lower(candidate.user.getUsername()))) {
+                candidate.error = "Ce nom d'utilisateur est déjà utilisé";
+            } else if (takenEmails.contains(lower(candidate.user.getEmail()))) {
+                candidate.error = "Cet email est déjà utilisé";
+            }
+        }
+    }
+
+    /**
+     * Insère le lot dans une transaction et publie les créations (index, filtres, caches) après validation
+     */
+    private void insert(List<Candidate> accepted, ImportState state) {
+        List<User> users = new ArrayList<>(accepted.size());
+        List<String> usernames = new ArrayList<>(accepted.size());
+        Set<String> identities = new HashSet<>();
+        for (Candidate candidate : accepted) {
+            users.add(candidate.user);
+            usernames.add(candidate.user.getUsername());
+            identities.add(identity(candidate.user.getUsername(), candidate.user.getEmail()));
+        }
+
+        Set<String> inserted;
+        try {
+            inserted = transactionTemplate.execute(status -> {
+                userRepository.insertIgnoringDuplicates(users);
+                // Les comptes du lot réécrit ne distinguent pas les lignes ignorées : une ligne
+                // est insérée si la base contient désormais son nom et son email
+                Set<String> result = new HashSet<>();
+                for (UserSearchView view : userRepository.findSearchViewsByUsernames(usernames)) {
+                    String key = identity(view.getUsername(), view.getEmail());
+                    if (!identities.contains(key) || !result.add(key)) {
+                        continue;
+                    }
+                    eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.ChangeType.CREATED,
+                            view.getId(), view.getUsername(), view.getEmail(), view.getFirstName(),
+                            view.getLastName(), Boolean.TRUE.equals(view.getEnabled())));
+                }
+                return result;
+            });
+        } catch (DataAccessException e) {
+            log.warn("Échec d'insertion d'un lot de {} utilisateurs importés", users.size(), e);
+            for (Candidate candidate : accepted) {
+                state.reject(candidate.line, "Erreur d'insertion en base", maxReportedErrors);
+            }
+            return;
+        }
+
+        for (Candidate candidate : accepted) {
+            if (inserted.contains(identity(candidate.user.getUsername(), candidate.user.getEmail()))) {
+                state.imported++;
+            } else {
+                // Créé entre le contrôle d'unicité et l'insertion
+                state.reject(candidate.line, "Nom d'utilisateur ou email déjà utilisé", maxReportedErrors);
+            }
+        }
+    }
+
+    private <T> T inPool(Callable<T> task) {
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrompu", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Échec de l'import", e.getCause());
+        }
+    }
+
+    // ===== UTILITAIRES =====
+
+    private static String trim(String value) {
+        return value == null ? null : value.trim();
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.trim().length();
+    }
+
+    private static String lower(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static String identity(String username, String email) {
+        return lower(username) + '\n' + lower(email);
+    }
+
+    private static Set<String> lowerAll(Collection<String> values) {
+        Set<String> lowered = new HashSet<>();
+        for (String value : values) {
+            lowered.add(lower(value));
+        }
+        return lowered;
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("user.import.rows")
+                .tag("result", result)
+                .description("Lignes traitées par l'import d'utilisateurs en masse")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ligne validée, prête à être hachée et insérée, ou rejetée
+     */
+    private static final class Candidate {
+        private final long line;
+        private final User user;
+        private final String rawPassword;
+        private String error;
+
+        private Candidate(long line, User user, String rawPassword, String error) {
+            this.line = line;
+            this.user = user;
+            this.rawPassword = rawPassword;
+            this.error = error;
+        }
+
+        static Candidate rejected(long line, String error) {
+            return new Candidate(line, null, null, error);
+        }
+    }
+
+    /**
+     * État d'un import : valeurs déjà vues dans le fichier, compteurs et premières erreurs
+     */
+    private static final class ImportState {
+        private final Set<String> seenUsernames = new HashSet<>();
+        private final Set<String> seenEmails = new HashSet<>();
+        private final List<UserImportResult.RowError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        void reject(long line, String message, int maxReportedErrors) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new UserImportResult.RowError(line, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+-- Dictionnaire des User-Agent : chaque chaîne est stockée une fois, les tables n'en gardent que l'ID.
+-- L'unicité porte sur l'empreinte SHA-256, la chaîne (jusqu'à 1000 caractères) étant trop longue pour un index.
+
+CREATE TABLE IF NOT EXISTS user_agents (
+    id              INT           NOT NULL AUTO_INCREMENT,
+    user_agent_hash BINARY(32)    NOT NULL,
+    user_agent      VARCHAR(1000) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_agent_hash UNIQUE (user_agent_hash)
+);
+
+INSERT IGNORE INTO user_agents (user_agent_hash, user_agent)
+SELECT UNHEX(SHA2(agents.user_agent, 256)), agents.user_agent
+FROM (
+    SELECT user_agent FROM user_sessions WHERE user_agent IS NOT NULL AND TRIM(user_agent) <> ''
+    UNION
+    SELECT user_agent FROM refresh_tokens WHERE user_agent IS NOT NULL AND TRIM(user_agent) <> ''
+    UNION
+    SELECT user_agent FROM messages WHERE user_agent IS NOT NULL AND TRIM(user_agent) <> ''
+    UNION
+    SELECT user_agent FROM audit_logs WHERE user_agent IS NOT NULL AND TRIM(user_agent) <> ''
+) AS agents;
+
+-- Sessions
+ALTER TABLE user_sessions ADD COLUMN user_agent_id INT NULL;
+UPDATE user_sessions s
+    JOIN user_agents ua ON ua.user_agent_hash = UNHEX(SHA2(s.user_agent, 256))
+SET s.user_agent_id = ua.id;
+ALTER TABLE user_sessions
+    DROP COLUMN user_agent,
+    ADD CONSTRAINT fk_user_session_user_agent FOREIGN KEY (user_agent_id) REFERENCES user_agents (id);
+
+-- Refresh tokens
+ALTER TABLE refresh_tokens ADD COLUMN user_agent_id INT NULL;
+UPDATE refresh_tokens t
+    JOIN user_agents ua ON ua.user_agent_hash = UNHEX(SHA2(t.user_agent, 256))
+SET t.user_agent_id = ua.id;
+ALTER TABLE refresh_tokens
+    DROP COLUMN user_agent,
+    ADD CONSTRAINT fk_refresh_token_user_agent FOREIGN KEY (user_agent_id) REFERENCES user_agents (id);
+
+-- Messages
+ALTER TABLE messages ADD COLUMN user_agent_id INT NULL;
+UPDATE messages m
+    JOIN user_agents ua ON ua.user_agent_hash = UNHEX(SHA2(m.user_agent, 256))
+SET m.user_agent_id = ua.id;
+ALTER TABLE messages
+    DROP COLUMN user_agent,
+    ADD CONSTRAINT fk_message_user_agent FOREIGN KEY (user_agent_id) REFERENCES user_agents (id);
+
+-- Journaux d'audit
+ALTER TABLE audit_logs ADD COLUMN user_agent_id INT NULL;
+UPDATE audit_logs a
+    JOIN user_agents ua ON ua.user_agent_hash = UNHEX(SHA2(a.user_agent, 256))
+SET a.user_agent_id = ua.id;
+ALTER TABLE audit_logs
+    DROP COLUMN user_agent,
+    ADD CONSTRAINT fk_audit_log_user_agent FOREIGN KEY (user_agent_id) REFERENCES user_agents (id);
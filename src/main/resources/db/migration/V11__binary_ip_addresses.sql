@@ -0,0 +1,55 @@
+-- Adresses IP en VARBINARY(16) (voir IpAddressConverter) : IPv6 brute, IPv4 sous forme IPv4-mappée.
+-- Toutes les valeurs ont 16 octets et sont ordonnées comme les adresses : un sous-réseau
+-- devient un parcours de plage sur l'index. Les valeurs qui ne sont pas des adresses deviennent NULL.
+
+-- Messages
+ALTER TABLE messages ADD COLUMN client_ip_bin VARBINARY(16) NULL;
+UPDATE messages
+SET client_ip_bin = CASE
+    WHEN IS_IPV4(client_ip) THEN CONCAT(UNHEX('00000000000000000000FFFF'), INET6_ATON(client_ip))
+    WHEN IS_IPV6(client_ip) THEN INET6_ATON(client_ip)
+END
+WHERE client_ip IS NOT NULL;
+ALTER TABLE messages
+    DROP COLUMN client_ip,
+    RENAME COLUMN client_ip_bin TO client_ip,
+    ADD INDEX idx_message_client_ip (client_ip);
+
+-- Journaux d'audit (idx_audit_log_ip disparaît avec l'ancienne colonne)
+ALTER TABLE audit_logs ADD COLUMN ip_address_bin VARBINARY(16) NULL;
+UPDATE audit_logs
+SET ip_address_bin = CASE
+    WHEN IS_IPV4(ip_address) THEN CONCAT(UNHEX('00000000000000000000FFFF'), INET6_ATON(ip_address))
+    WHEN IS_IPV6(ip_address) THEN INET6_ATON(ip_address)
+END
+WHERE ip_address IS NOT NULL;
+ALTER TABLE audit_logs
+    DROP COLUMN ip_address,
+    RENAME COLUMN ip_address_bin TO ip_address,
+    ADD INDEX idx_audit_log_ip (ip_address);
+
+-- Refresh tokens
+ALTER TABLE refresh_tokens ADD COLUMN ip_address_bin VARBINARY(16) NULL;
+UPDATE refresh_tokens
+SET ip_address_bin = CASE
+    WHEN IS_IPV4(ip_address) THEN CONCAT(UNHEX('00000000000000000000FFFF'), INET6_ATON(ip_address))
+    WHEN IS_IPV6(ip_address) THEN INET6_ATON(ip_address)
+END
+WHERE ip_address IS NOT NULL;
+ALTER TABLE refresh_tokens
+    DROP COLUMN ip_address,
+    RENAME COLUMN ip_address_bin TO ip_address,
+    ADD INDEX idx_refresh_token_ip (ip_address);
+
+-- Sessions
+ALTER TABLE user_sessions ADD COLUMN ip_address_bin VARBINARY(16) NULL;
+UPDATE user_sessions
+SET ip_address_bin = CASE
+    WHEN IS_IPV4(ip_address) THEN CONCAT(UNHEX('00000000000000000000FFFF'), INET6_ATON(ip_address))
+    WHEN IS_IPV6(ip_address) THEN INET6_ATON(ip_address)
+END
+WHERE ip_address IS NOT NULL;
+ALTER TABLE user_sessions
+    DROP COLUMN ip_address,
+    RENAME COLUMN ip_address_bin TO ip_address,
+    ADD INDEX idx_user_session_ip (ip_address);
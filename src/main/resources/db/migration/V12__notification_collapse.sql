@@ -0,0 +1,6 @@
+-- Regroupement des notifications en rafale : une notification non lue par clé (destinataire,
+-- type, expéditeur) porte le nombre d'événements regroupés et l'aperçu du dernier.
+
+ALTER TABLE notifications
+    ADD COLUMN collapse_key   VARCHAR(150) NULL,
+    ADD COLUMN collapse_count INT          NOT NULL DEFAULT 1;
@@ -0,0 +1,25 @@
+-- Déplace les colonnes d'activité volatiles de `users` vers la table étroite `user_activity`.
+-- À appliquer avant le déploiement en production (ddl-auto: validate).
+
+CREATE TABLE IF NOT EXISTS user_activity (
+    user_id               BIGINT   NOT NULL,
+    last_login            DATETIME(6),
+    last_seen             DATETIME(6),
+    failed_login_attempts INT      NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id),
+    KEY idx_user_activity_last_seen (last_seen),
+    KEY idx_user_activity_last_login (last_login),
+    KEY idx_user_activity_failed (failed_login_attempts),
+    CONSTRAINT fk_user_activity_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+INSERT INTO user_activity (user_id, last_login, last_seen, failed_login_attempts)
+SELECT id, last_login, last_seen, COALESCE(failed_login_attempts, 0)
+FROM users
+ON DUPLICATE KEY UPDATE user_id = user_id;
+
+ALTER TABLE users
+    DROP COLUMN last_login,
+    DROP COLUMN last_seen,
+    DROP COLUMN is_online,
+    DROP COLUMN failed_login_attempts;
@@ -0,0 +1,5 @@
+-- Date du dernier changement de mot de passe, utilisée par UserRepository.updatePassword
+-- et par l'invalidation des principaux mis en cache.
+
+ALTER TABLE users
+    ADD COLUMN password_changed_at DATETIME(6) NULL;
@@ -0,0 +1,19 @@
+-- Remplace la table user_roles par un masque de bits sur users.
+-- Bits : USER = 1, ADMIN = 2, MODERATOR = 4 (voir Role#getMask).
+
+ALTER TABLE users
+    ADD COLUMN roles_mask INT NOT NULL DEFAULT 0;
+
+UPDATE users u
+SET u.roles_mask = COALESCE((
+    SELECT SUM(CASE ur.roles
+                   WHEN 'USER' THEN 1
+                   WHEN 'ADMIN' THEN 2
+                   WHEN 'MODERATOR' THEN 4
+                   ELSE 0
+               END)
+    FROM user_roles ur
+    WHERE ur.user_id = u.id
+), 0);
+
+DROP TABLE user_roles;
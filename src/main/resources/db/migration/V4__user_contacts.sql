@@ -0,0 +1,25 @@
+-- Index des contacts : une ligne par (utilisateur, correspondant), dans les deux sens.
+-- Remplace les SELECT DISTINCT CASE ... FROM messages par un parcours de plage.
+
+CREATE TABLE IF NOT EXISTS user_contacts (
+    user_id       BIGINT      NOT NULL,
+    peer_id       BIGINT      NOT NULL,
+    first_contact DATETIME(6) NOT NULL,
+    last_contact  DATETIME(6) NOT NULL,
+    message_count BIGINT      NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, peer_id),
+    KEY idx_user_contact_recent (user_id, last_contact),
+    CONSTRAINT fk_user_contact_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_contact_peer FOREIGN KEY (peer_id) REFERENCES users (id)
+);
+
+-- Reprise de l'historique existant
+INSERT INTO user_contacts (user_id, peer_id, first_contact, last_contact, message_count)
+SELECT pairs.user_id, pairs.peer_id, MIN(pairs.ts), MAX(pairs.ts), COUNT(*)
+FROM (
+    SELECT sender_id AS user_id, recipient_id AS peer_id, timestamp AS ts FROM messages
+    UNION ALL
+    SELECT recipient_id AS user_id, sender_id AS peer_id, timestamp AS ts FROM messages
+) pairs
+GROUP BY pairs.user_id, pairs.peer_id
+ON DUPLICATE KEY UPDATE user_id = user_contacts.user_id;
@@ -0,0 +1,20 @@
+-- Compteurs de messages dénormalisés par utilisateur, initialisés depuis l'historique.
+
+CREATE TABLE IF NOT EXISTS user_message_stats (
+    user_id        BIGINT NOT NULL,
+    sent_count     BIGINT NOT NULL DEFAULT 0,
+    received_count BIGINT NOT NULL DEFAULT 0,
+    deleted_count  BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id),
+    KEY idx_user_message_stats_sent (sent_count),
+    CONSTRAINT fk_user_message_stats_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+INSERT INTO user_message_stats (user_id, sent_count, received_count, deleted_count)
+SELECT u.id,
+       (SELECT COUNT(*) FROM messages m WHERE m.sender_id = u.id AND m.is_deleted = 0),
+       (SELECT COUNT(*) FROM messages m WHERE m.recipient_id = u.id AND m.is_deleted = 0),
+       (SELECT COUNT(*) FROM messages m WHERE m.sender_id = u.id AND m.is_deleted = 1) +
+       (SELECT COUNT(*) FROM messages m WHERE m.recipient_id = u.id AND m.is_deleted = 1)
+FROM users u
+ON DUPLICATE KEY UPDATE user_id = user_message_stats.user_id;
@@ -0,0 +1,11 @@
+-- Points de reprise des jobs par lots (parcours des utilisateurs par tranches de clé primaire).
+
+CREATE TABLE IF NOT EXISTS batch_job_checkpoints (
+    job_name        VARCHAR(100) NOT NULL,
+    last_id         BIGINT       NOT NULL DEFAULT 0,
+    processed_count BIGINT       NOT NULL DEFAULT 0,
+    started_at      DATETIME(6)  NULL,
+    updated_at      DATETIME(6)  NULL,
+    completed_at    DATETIME(6)  NULL,
+    PRIMARY KEY (job_name)
+);
@@ -0,0 +1,16 @@
+-- Remplace le token brut (VARCHAR(255) indexé) par son empreinte SHA-256 sur 32 octets.
+-- Les tokens déjà émis restent valides : le client présente la valeur brute, hachée à la lecture.
+
+ALTER TABLE refresh_tokens
+    ADD COLUMN token_hash BINARY(32) NULL;
+
+UPDATE refresh_tokens
+SET token_hash = UNHEX(SHA2(token, 256));
+
+ALTER TABLE refresh_tokens
+    MODIFY token_hash BINARY(32) NOT NULL,
+    ADD CONSTRAINT uk_refresh_token_hash UNIQUE (token_hash);
+
+-- Les index sur token (unique et idx_refresh_token_token) disparaissent avec la colonne
+ALTER TABLE refresh_tokens
+    DROP COLUMN token;
@@ -0,0 +1,8 @@
+-- Époque de révocation par utilisateur : les JWT d'accès dont iat est antérieur sont refusés.
+
+CREATE TABLE IF NOT EXISTS user_revocation_epochs (
+    user_id       BIGINT NOT NULL,
+    epoch_seconds BIGINT NOT NULL,
+    PRIMARY KEY (user_id),
+    CONSTRAINT fk_user_revocation_epoch_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
@@ -0,0 +1,15 @@
+-- session_data passe du JSON (TEXT) au format binaire de SessionAttributes.
+-- Les octets UTF-8 des objets JSON existants sont conservés : ils sont convertis à la lecture,
+-- puis réécrits en binaire à la prochaine sauvegarde de la session.
+-- Tout le reste est abandonné : valeurs vides ou blanches, objets vides, JSON qui n'est pas un
+-- objet ([], null, scalaires) et valeurs qui dépassent la taille maximale (8 Kio).
+
+UPDATE user_sessions
+SET session_data = NULL
+WHERE session_data IS NOT NULL
+  AND (session_data NOT REGEXP '^[[:space:]]*[{]'
+       OR session_data REGEXP '^[[:space:]]*[{][[:space:]]*[}][[:space:]]*$'
+       OR LENGTH(session_data) > 8192);
+
+ALTER TABLE user_sessions
+    MODIFY session_data VARBINARY(8192) NULL;
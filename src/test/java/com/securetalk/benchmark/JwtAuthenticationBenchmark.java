@@ -0,0 +1,106 @@
+package com.securetalk.benchmark;
+
+import com.securetalk.model.Role;
+import com.securetalk.model.User;
+import com.securetalk.service.security.JwtClaimsCache;
+import com.securetalk.service.security.JwtTokenProvider;
+import com.securetalk.service.security.RevocationEpochs;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût CPU de l'authentification d'une requête par JWT : vérification complète (décodage,
+ * HMAC, claims) contre lecture du cache des claims vérifiés, avec contrôle de l'époque de révocation.
+ * <p>
+ * Les requêtes tournent sur un jeu de tokens actifs, chacun présenté de nombreuses fois ; le cache
+ * est préchauffé, comme en régime établi. Les tokens sont des copies de chaînes, comme après
+ * lecture d'un en-tête HTTP.
+ * <p>
+ * Exécution : {@code mvn test-compile} puis lancer {@link #main} avec le classpath de test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    @Param({"1000", "50000"})
+    private int activeTokens;
+
+    private String[] tokens;
+
+    private JwtTokenProvider tokenProvider;
+
+    private JwtClaimsCache claimsCache;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        byte[] secret = new byte[64];
+        for (int i = 0; i < secret.length; i++) {
+            secret[i] = (byte) (i * 31 + 7);
+        }
+        tokenProvider = new JwtTokenProvider(Base64.getEncoder().encodeToString(secret), 3_600_000L);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // Époques restaurées directement en mémoire, sans repository
+        RevocationEpochs revocationEpochs = new RevocationEpochs(null, meterRegistry, 3_600_000L);
+        claimsCache = new JwtClaimsCache(tokenProvider, revocationEpochs, meterRegistry, activeTokens * 2L);
+
+        tokens = new String[activeTokens];
+        for (int i = 0; i < activeTokens; i++) {
+            User user = User.builder()
+                    .username("user" + i)
+                    .email("user" + i + "@securetalk.com")
+                    .rolesMask(Role.USER.getMask())
+                    .build();
+            user.setId(i + 1L);
+            tokens[i] = tokenProvider.generateAccessToken(user);
+            claimsCache.verify(tokens[i]);
+            if (i % 100 == 0) {
+                revocationEpochs.restore(user.getId() + activeTokens, System.currentTimeMillis() / 1000 + 1);
+            }
+        }
+    }
+
+    private String nextToken() {
+        next = next + 1 == tokens.length ? 0 : next + 1;
+        return new String(tokens[next].toCharArray());
+    }
+
+    @Benchmark
+    public void fullVerification(Blackhole blackhole) {
+        blackhole.consume(tokenProvider.parse(nextToken()));
+    }
+
+    @Benchmark
+    public void cachedClaims(Blackhole blackhole) {
+        blackhole.consume(claimsCache.verify(nextToken()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
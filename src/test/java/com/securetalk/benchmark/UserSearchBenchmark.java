@@ -0,0 +1,106 @@
+package com.securetalk.benchmark;
+
+import com.securetalk.service.search.SearchText;
+import com.securetalk.service.search.TrigramIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare l'index trigramme à un parcours linéaire en mémoire sur 1M d'utilisateurs.
+ * <p>
+ * {@link #inMemoryScan} est une référence en mémoire : un {@code contains} sur les quatre colonnes
+ * déjà normalisées, sans SQL ni E/S. Ce n'est pas une mesure du {@code LIKE '%terme%'} de MySQL,
+ * qui reste à comparer sur une vraie base.
+ * <p>
+ * Exécution : {@code mvn test-compile} puis lancer {@link #main} avec le classpath de test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class UserSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {
+            "Marie", "Jean", "Pierre", "Sophie", "Luc", "Camille", "Nicolas", "Julie", "Thomas", "Claire",
+            "Antoine", "Emma", "Hugo", "Léa", "Louis", "Chloé", "Paul", "Manon", "Arthur", "Inès"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard", "Petit", "Durand", "Leroy", "Moreau",
+            "Simon", "Laurent", "Lefebvre", "Michel", "Garcia", "David", "Bertrand", "Roux", "Vincent", "Fournier"
+    };
+
+    private static final String[] DOMAINS = {"gmail.com", "outlook.fr", "securetalk.com", "yahoo.fr"};
+
+    @Param({"1000000"})
+    private int userCount;
+
+    @Param({"dupont", "marie", "user4242", "zzq"})
+    private String term;
+
+    private String[][] rows;
+
+    private TrigramIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        rows = new String[userCount][];
+        index = new TrigramIndex();
+        for (int i = 0; i < userCount; i++) {
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)] + (i % 97 == 0 ? "-Dupont" : "");
+            String username = "user" + i;
+            String email = firstName.toLowerCase(Locale.ROOT) + "." + i + "@" + DOMAINS[i % DOMAINS.length];
+            rows[i] = new String[]{SearchText.fold(username), SearchText.fold(firstName),
+                    SearchText.fold(lastName), SearchText.fold(email)};
+            index.put(i + 1L, true, username, firstName, lastName, email);
+        }
+    }
+
+    @Benchmark
+    public void trigramIndex(Blackhole blackhole) {
+        blackhole.consume(index.search(term, 20, false, true, null));
+    }
+
+    @Benchmark
+    public void inMemoryScan(Blackhole blackhole) {
+        String needle = SearchText.fold(term);
+        int matches = 0;
+        for (String[] row : rows) {
+            for (String column : row) {
+                if (column.contains(needle)) {
+                    matches++;
+                    break;
+                }
+            }
+        }
+        blackhole.consume(matches);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,138 @@
+package com.securetalk.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionAttributesTest {
+
+    private static final SessionAttributes.Key<String> LOCALE = SessionAttributes.Key.string("locale");
+    private static final SessionAttributes.Key<Long> COUNTER = SessionAttributes.Key.longValue("counter");
+    private static final SessionAttributes.Key<Boolean> TRUSTED = SessionAttributes.Key.bool("trusted");
+    private static final SessionAttributes.Key<Double> SCORE = SessionAttributes.Key.doubleValue("score");
+    private static final SessionAttributes.Key<byte[]> NONCE = SessionAttributes.Key.bytes("nonce");
+
+    @Test
+    void roundTripsEveryType() {
+        SessionAttributes attributes = SessionAttributes.empty()
+                .with(LOCALE, "fr-FR é")
+                .with(COUNTER, -42L)
+                .with(TRUSTED, true)
+                .with(SCORE, 0.75)
+                .with(NONCE, new byte[]{1, 2, 3});
+
+        SessionAttributes decoded = SessionAttributes.decode(attributes.encoded());
+
+        assertThat(decoded.get(LOCALE)).contains("fr-FR é");
+        assertThat(decoded.get(COUNTER)).contains(-42L);
+        assertThat(decoded.get(TRUSTED)).contains(true);
+        assertThat(decoded.get(SCORE)).contains(0.75);
+        assertThat(decoded.get(NONCE)).hasValueSatisfying(nonce -> assertThat(nonce).containsExactly(1, 2, 3));
+        assertThat(decoded.names()).containsExactly("locale", "counter", "trusted", "score", "nonce");
+        assertThat(decoded).isEqualTo(attributes);
+    }
+
+    @Test
+    void zigzagVarintCoversLongRange() {
+        long[] values = {0L, 1L, -1L, 63L, -64L, 64L, 8191L, -8192L, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long value : values) {
+            SessionAttributes decoded = SessionAttributes.decode(SessionAttributes.empty().with(COUNTER, value).encoded());
+            assertThat(decoded.get(COUNTER)).as("valeur %d", value).contains(value);
+        }
+        // Petites valeurs sur un octet, quel que soit le signe
+        assertThat(SessionAttributes.empty().with(COUNTER, -1L).encodedSize())
+                .isEqualTo(SessionAttributes.empty().with(COUNTER, 1L).encodedSize());
+    }
+
+    @Test
+    void multiByteCountsAndLengths() {
+        SessionAttributes attributes = SessionAttributes.empty();
+        for (int i = 0; i < 200; i++) {
+            attributes = attributes.with(SessionAttributes.Key.longValue("k" + i), (long) i);
+        }
+        char[] longText = new char[300];
+        Arrays.fill(longText, 'x');
+        attributes = attributes.with(LOCALE, new String(longText));
+
+        SessionAttributes decoded = SessionAttributes.decode(attributes.encoded());
+
+        assertThat(decoded.size()).isEqualTo(201);
+        assertThat(decoded.get(SessionAttributes.Key.longValue("k199"))).contains(199L);
+        assertThat(decoded.get(LOCALE)).hasValueSatisfying(text -> assertThat(text).hasSize(300));
+    }
+
+    @Test
+    void replacesAndRemovesWithoutTouchingOthers() {
+        SessionAttributes attributes = SessionAttributes.empty().with(LOCALE, "fr").with(COUNTER, 1L);
+
+        SessionAttributes replaced = attributes.with(COUNTER, 2L);
+        SessionAttributes removed = replaced.without("locale");
+
+        assertThat(attributes.get(COUNTER)).contains(1L);
+        assertThat(replaced.get(COUNTER)).contains(2L);
+        assertThat(replaced.get(LOCALE)).contains("fr");
+        assertThat(removed.names()).containsExactly("counter");
+        assertThat(removed.without("absent")).isSameAs(removed);
+        assertThat(replaced.with(COUNTER, null).names()).containsExactly("locale");
+    }
+
+    @Test
+    void typeMismatchReadsAsAbsent() {
+        SessionAttributes attributes = SessionAttributes.empty().with(COUNTER, 5L);
+
+        assertThat(attributes.get(SessionAttributes.Key.string("counter"))).isEmpty();
+        assertThat(attributes.contains("counter")).isTrue();
+    }
+
+    @Test
+    void rejectsOversizedEncoding() {
+        byte[] large = new byte[SessionAttributes.MAX_ENCODED_BYTES];
+
+        assertThatThrownBy(() -> SessionAttributes.empty().with(NONCE, large))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void detectsTruncatedDataOnFirstAccess() {
+        byte[] encoded = SessionAttributes.empty().with(LOCALE, "fr-FR").encoded();
+        SessionAttributes truncated = SessionAttributes.decode(Arrays.copyOf(encoded, encoded.length - 2));
+
+        assertThatThrownBy(truncated::names).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SessionAttributes.decode(new byte[]{9, 0}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void convertsLegacyJsonWithTypes() {
+        SessionAttributes attributes = SessionAttributes.decode(json(
+                " \n\t{\"locale\":\"fr\",\"counter\":3,\"trusted\":false,\"score\":1.5,\"prefs\":{\"a\":1},\"gone\":null}"));
+
+        assertThat(attributes.get(LOCALE)).contains("fr");
+        assertThat(attributes.get(COUNTER)).contains(3L);
+        assertThat(attributes.get(TRUSTED)).contains(false);
+        assertThat(attributes.get(SCORE)).contains(1.5);
+        assertThat(attributes.get(SessionAttributes.Key.string("prefs"))).contains("{\"a\":1}");
+        assertThat(attributes.contains("gone")).isFalse();
+    }
+
+    @Test
+    void legacyValuesWithoutAttributesDecodeAsEmpty() {
+        assertThat(SessionAttributes.decode(null).isEmpty()).isTrue();
+        assertThat(SessionAttributes.decode(new byte[0]).isEmpty()).isTrue();
+        assertThat(SessionAttributes.decode(json("  \r\n")).isEmpty()).isTrue();
+        assertThat(SessionAttributes.decode(json("{}")).isEmpty()).isTrue();
+        assertThat(SessionAttributes.decode(json(" []")).isEmpty()).isTrue();
+        assertThat(SessionAttributes.decode(json("null")).isEmpty()).isTrue();
+        assertThatThrownBy(() -> SessionAttributes.decode(json("{oops")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] json(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,79 @@
+package com.securetalk.repository;
+
+import com.securetalk.model.IpAddressConverter;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IpRangeTest {
+
+    @Test
+    void ipv4Prefixes() {
+        assertRange(IpRange.parse("192.168.1.77/24"), "192.168.1.0", "192.168.1.255");
+        assertRange(IpRange.parse("10.1.2.3/8"), "10.0.0.0", "10.255.255.255");
+        assertRange(IpRange.parse("172.16.5.4/12"), "172.16.0.0", "172.31.255.255");
+        assertRange(IpRange.parse(" 8.8.8.8 "), "8.8.8.8", "8.8.8.8");
+    }
+
+    @Test
+    void ipv4WholeSpaceStaysWithinMappedRange() {
+        IpRange range = IpRange.parse("1.2.3.4/0");
+
+        assertRange(range, "0.0.0.0", "255.255.255.255");
+        // Les bornes restent des adresses IPv4-mappées : aucune adresse IPv6 native n'est couverte
+        assertThat(IpAddressConverter.toBytes(range.getFirst())[10]).isEqualTo((byte) 0xFF);
+    }
+
+    @Test
+    void ipv6Prefixes() {
+        assertRange(IpRange.parse("2001:db8::1234/120"), "2001:db8:0:0:0:0:0:1200", "2001:db8:0:0:0:0:0:12ff");
+        assertRange(IpRange.parse("2001:db8::/32"), "2001:db8:0:0:0:0:0:0",
+                "2001:db8:ffff:ffff:ffff:ffff:ffff:ffff");
+        assertRange(IpRange.parse("::/0"), "0:0:0:0:0:0:0:0", "ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff");
+        assertRange(IpRange.parse("2001:db8::1/128"), "2001:db8:0:0:0:0:0:1", "2001:db8:0:0:0:0:0:1");
+    }
+
+    @Test
+    void boundsAreOrderedAsStored() {
+        IpRange range = IpRange.parse("2001:db8::/32");
+        byte[] first = IpAddressConverter.toBytes(range.getFirst());
+        byte[] last = IpAddressConverter.toBytes(range.getLast());
+        byte[] inside = IpAddressConverter.toBytes("2001:db8:abcd::1");
+
+        assertThat(compareUnsigned(first, inside)).isNegative();
+        assertThat(compareUnsigned(inside, last)).isNegative();
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThatThrownBy(() -> IpRange.parse("192.168.1.0/33")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> IpRange.parse("2001:db8::/129")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> IpRange.parse("10.0.0.0/-1")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> IpRange.parse("10.0.0.0/x")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> IpRange.parse("256.0.0.1/24")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> IpRange.parse(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void hostNamesAreNeverResolved() {
+        assertThat(IpAddressConverter.toBytes("localhost:80")).isNull();
+        assertThat(IpAddressConverter.toBytes("example.com")).isNull();
+        assertThatThrownBy(() -> IpRange.parse("host:1/64")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertRange(IpRange range, String first, String last) {
+        assertThat(range.getFirst()).isEqualTo(first);
+        assertThat(range.getLast()).isEqualTo(last);
+    }
+
+    private static int compareUnsigned(byte[] a, byte[] b) {
+        for (int i = 0; i < a.length; i++) {
+            int result = Integer.compare(a[i] & 0xFF, b[i] & 0xFF);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,153 @@
+package com.securetalk.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    @Test
+    void findsSubstringsInAnyField() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, true, "jdupont", "Jean", "Dupont", "jean.dupont@mail.fr");
+        index.put(2L, true, "mmartin", "Marie", "Martin", "marie@mail.fr");
+
+        assertThat(index.search("DUPON", 10, true, true, null).getUserIds()).containsExactly(1L);
+        assertThat(index.search("mail.fr", 10, true, true, null).getUserIds()).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("xyz", 10, true, true, null).getUserIds()).isEmpty();
+    }
+
+    @Test
+    void ignoresAccentsLikeCaseInsensitiveCollation() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, true, "elodie", "Élodie", "Straße", "elodie@mail.fr");
+        index.put(2L, true, "lea", "Léa", "Muller", "lea@mail.fr");
+
+        assertThat(index.search("Elodie", 10, true, true, null).getUserIds()).containsExactly(1L);
+        assertThat(index.search("strasse", 10, true, true, null).getUserIds()).containsExactly(1L);
+        assertThat(index.search("LÉA", 10, true, true, null).getUserIds()).containsExactly(2L);
+        assertThat(index.search("mül", 10, true, true, null).getUserIds()).containsExactly(2L);
+    }
+
+    @Test
+    void shortTermsFallBackToScan() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, true, "ab", null, null, "ab@mail.fr");
+        index.put(2L, true, "cd", null, null, "cd@mail.fr");
+
+        assertThat(index.search("b", 10, true, true, null).getUserIds()).containsExactly(1L);
+        assertThat(index.search("  ", 10, true, true, null).getUserIds()).isEmpty();
+    }
+
+    @Test
+    void trigramsDoNotSpanFields() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, true, "jean", "dupont");
+
+        // "ndu" n'existe qu'à cheval sur les deux champs
+        assertThat(index.search("ndu", 10, true, true, null).getUserIds()).isEmpty();
+    }
+
+    @Test
+    void lastFieldOnlySearchedWhenRequested() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, true, "alice", "Alice", "Leroy", "secret-domain@mail.fr");
+
+        assertThat(index.search("secret", 10, true, false, null).getUserIds()).isEmpty();
+        assertThat(index.search("secret", 10, true, true, null).getUserIds()).containsExactly(1L);
+    }
+
+    @Test
+    void ranksExactThenPrefixThenContains() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, true, "xmarie", null, null, null);
+        index.put(2L, true, "marie", null, null, null);
+        index.put(3L, true, "marielle", null, null, null);
+        index.put(4L, true, "bob", "Marie", null, null);
+
+        assertThat(index.search("marie", 10, true, true, null).getUserIds()).containsExactly(2L, 3L, 4L, 1L);
+    }
+
+    @Test
+    void respectsLimitEnabledFlagAndFilter() {
+        TrigramIndex index = new TrigramIndex();
+        for (long id = 1; id <= 20; id++) {
+            index.put(id, id % 2 == 0, "user" + id, null, null, null);
+        }
+
+        TrigramIndex.SearchResult limited = index.search("user", 3, false, true, null);
+        assertThat(limited.getUserIds()).hasSize(3);
+        assertThat(limited.getTotalMatches()).isEqualTo(20);
+
+        assertThat(index.search("user", 100, true, true, null).getTotalMatches()).isEqualTo(10);
+        assertThat(index.search("user", 100, false, true, id -> id > 15).getUserIds())
+                .containsExactlyInAnyOrder(16L, 17L, 18L, 19L, 20L);
+    }
+
+    @Test
+    void updatesReplaceAndRemoveDocuments() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, true, "ancien", null, null, null);
+        index.put(1L, true, "nouveau", null, null, null);
+
+        assertThat(index.search("ancien", 10, true, true, null).getUserIds()).isEmpty();
+        assertThat(index.search("nouveau", 10, true, true, null).getUserIds()).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+
+        index.remove(1L);
+        assertThat(index.search("nouveau", 10, true, true, null).getUserIds()).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void matchesLinearScanAcrossCompactions() {
+        Random random = new Random(42);
+        TrigramIndex index = new TrigramIndex();
+        Map<Long, String[]> documents = new HashMap<>();
+
+        // Assez de mises à jour pour déclencher plusieurs compactions
+        for (int i = 0; i < 20000; i++) {
+            long userId = random.nextInt(3000);
+            String[] fields = {randomWord(random), randomWord(random), randomWord(random), randomWord(random)};
+            index.put(userId, true, fields);
+            documents.put(userId, fields);
+            if (random.nextInt(10) == 0) {
+                long removed = random.nextInt(3000);
+                index.remove(removed);
+                documents.remove(removed);
+            }
+        }
+
+        for (int i = 0; i < 200; i++) {
+            String term = randomWord(random).substring(0, 2 + random.nextInt(2));
+            Set<Long> expected = new HashSet<>();
+            for (Map.Entry<Long, String[]> entry : documents.entrySet()) {
+                for (String field : entry.getValue()) {
+                    if (field.toLowerCase(Locale.ROOT).contains(term)) {
+                        expected.add(entry.getKey());
+                    }
+                }
+            }
+            List<Long> found = index.search(term, Integer.MAX_VALUE, true, true, null).getUserIds();
+            assertThat(new ArrayList<>(found)).as("terme %s", term).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 4 + random.nextInt(5);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(6)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package com.securetalk.service.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongLongHashMapTest {
+
+    @Test
+    void mergesValuesAndGrows() {
+        LongLongHashMap map = new LongLongHashMap(16);
+        for (long key = 1; key <= 1000; key++) {
+            map.merge(key, key, Math::max);
+        }
+        map.merge(10L, 5L, Math::max);
+        map.merge(20L, 50L, Math::max);
+
+        assertThat(map.size()).isEqualTo(1000);
+        assertThat(map.get(10L, -1L)).isEqualTo(10L);
+        assertThat(map.get(20L, -1L)).isEqualTo(50L);
+        assertThat(map.get(1001L, -1L)).isEqualTo(-1L);
+        assertThat(map.get(-7L, -1L)).isEqualTo(-1L);
+    }
+
+    @Test
+    void rejectsReservedKey() {
+        LongLongHashMap map = new LongLongHashMap(16);
+
+        assertThatThrownBy(() -> map.merge(0L, 1L, Math::max)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(map.get(0L, -1L)).isEqualTo(-1L);
+    }
+
+    @Test
+    void removesValuesBelowThresholdAndShrinks() {
+        LongLongHashMap map = new LongLongHashMap(16);
+        for (long key = 1; key <= 10_000; key++) {
+            map.merge(key, key, Math::max);
+        }
+
+        assertThat(map.removeValuesBelow(9_990L)).isEqualTo(9_989);
+        assertThat(map.size()).isEqualTo(11);
+        assertThat(map.get(9_989L, -1L)).isEqualTo(-1L);
+        for (long key = 9_990; key <= 10_000; key++) {
+            assertThat(map.get(key, -1L)).isEqualTo(key);
+        }
+
+        // La table réduite accepte de nouveau des insertions
+        for (long key = 20_000; key < 20_100; key++) {
+            map.merge(key, key, Math::max);
+        }
+        assertThat(map.size()).isEqualTo(111);
+    }
+
+    @Test
+    void optimisticReadsStayConsistentDuringRehash() throws InterruptedException {
+        LongLongHashMap map = new LongLongHashMap(16);
+        int total = 200_000;
+        // Dernière clé dont l'insertion est terminée : toute clé inférieure doit être visible
+        AtomicLong published = new AtomicLong();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            Thread reader = new Thread(() -> {
+                long seed = Thread.currentThread().getId();
+                while (published.get() < total && failure.get() == null) {
+                    long upTo = published.get();
+                    if (upTo == 0) {
+                        continue;
+                    }
+                    seed = seed * 6364136223846793005L + 1442695040888963407L;
+                    long key = 1 + Math.floorMod(seed >>> 1, upTo);
+                    long value = map.get(key, -1L);
+                    if (value != key * 3) {
+                        failure.compareAndSet(null, "clé " + key + " lue " + value);
+                    }
+                    if (map.get(-key, -1L) != -1L) {
+                        failure.compareAndSet(null, "clé absente " + -key + " trouvée");
+                    }
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+
+        // Insertions et purges concurrentes : chaque doublement et chaque purge recopient la table
+        for (long key = 1; key <= total; key++) {
+            map.merge(key, key * 3, Math::max);
+            published.set(key);
+            if (key % 50_000 == 0) {
+                map.removeValuesBelow(0L);
+            }
+        }
+        for (Thread reader : readers) {
+            reader.join(10_000);
+        }
+
+        assertThat(failure.get()).isNull();
+        assertThat(map.size()).isEqualTo(total);
+    }
+}
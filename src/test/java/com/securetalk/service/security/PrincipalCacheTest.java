@@ -0,0 +1,92 @@
+package com.securetalk.service.security;
+
+import com.securetalk.event.UserChangedEvent;
+import com.securetalk.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrincipalCacheTest {
+
+    private final PrincipalCache cache = new PrincipalCache(new SimpleMeterRegistry(), 300, 100);
+
+    @Test
+    void servesIdentifierLookupsFromCacheIgnoringCase() {
+        AtomicInteger loads = new AtomicInteger();
+        User user = user(1L, "alice", "alice@mail.fr");
+
+        cache.getByIdentifier("Alice", identifier -> {
+            loads.incrementAndGet();
+            return Optional.of(user);
+        });
+        Optional<User> cached = cache.getByIdentifier("alice", identifier -> {
+            loads.incrementAndGet();
+            return Optional.of(user);
+        });
+
+        assertThat(cached).map(User::getUsername).contains("alice");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void invalidationDropsKnownIdentifiers() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.getByIdentifier("alice@mail.fr", identifier -> {
+            loads.incrementAndGet();
+            return Optional.of(user(1L, "alice", "alice@mail.fr"));
+        });
+
+        cache.invalidate(1L);
+        cache.getByIdentifier("alice@mail.fr", identifier -> {
+            loads.incrementAndGet();
+            return Optional.of(user(1L, "alice", "alice@mail.fr"));
+        });
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void renamedUserIsNotServedUnderOldIdentifier() {
+        cache.getByIdentifier("alice", identifier -> Optional.of(user(1L, "alice", "alice@mail.fr")));
+        // Rechargement par ID après renommage : l'ancienne clé pointe toujours vers l'ID 1
+        cache.invalidate(1L);
+        cache.getById(1L, id -> Optional.of(user(1L, "alicia", "alice@mail.fr")));
+
+        Optional<User> oldName = cache.getByIdentifier("alice", identifier -> Optional.empty());
+        assertThat(oldName).isEmpty();
+    }
+
+    @Test
+    void loadRacingWithInvalidationIsNotCached() {
+        cache.getByIdentifier("alice", identifier -> {
+            // Modification validée pendant la lecture de l'ancien état
+            cache.onUserChanged(new UserChangedEvent(UserChangedEvent.ChangeType.UPDATED,
+                    1L, "alice", "alice@mail.fr", null, null, false));
+            return Optional.of(user(1L, "alice", "alice@mail.fr"));
+        });
+
+        Optional<User> reloaded = cache.getByIdentifier("alice",
+                identifier -> Optional.of(disabled(user(1L, "alice", "alice@mail.fr"))));
+        assertThat(reloaded).map(User::getEnabled).contains(false);
+    }
+
+    private static User user(Long id, String username, String email) {
+        User user = User.builder()
+                .username(username)
+                .email(email)
+                .password("hash")
+                .enabled(true)
+                .build();
+        user.setId(id);
+        return user;
+    }
+
+    private static User disabled(User user) {
+        user.setEnabled(false);
+        return user;
+    }
+}
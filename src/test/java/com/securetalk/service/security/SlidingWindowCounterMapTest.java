@@ -0,0 +1,90 @@
+package com.securetalk.service.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowCounterMapTest {
+
+    private static final long WINDOW = 60_000L;
+
+    @Test
+    void countsWithinWindowAndWeightsPreviousOne() {
+        SlidingWindowCounterMap counters = new SlidingWindowCounterMap(WINDOW, 16, 1024);
+        for (int i = 0; i < 10; i++) {
+            counters.increment(42L, 1_000L);
+        }
+        assertThat(counters.get(42L, 1_000L)).isEqualTo(10);
+
+        // Mi-chemin dans la fenêtre suivante : la moitié du compte précédent reste visible
+        assertThat(counters.get(42L, 1_000L + WINDOW + WINDOW / 2)).isEqualTo(5);
+        // Deux fenêtres sans activité : plus rien
+        assertThat(counters.get(42L, 1_000L + 3 * WINDOW)).isZero();
+    }
+
+    @Test
+    void resetForgetsKeyIncludingZero() {
+        SlidingWindowCounterMap counters = new SlidingWindowCounterMap(WINDOW, 16, 1024);
+        counters.increment(0L, 0L);
+        counters.increment(7L, 0L);
+
+        counters.reset(0L);
+
+        assertThat(counters.get(0L, 0L)).isZero();
+        assertThat(counters.get(7L, 0L)).isEqualTo(1);
+        assertThat(counters.size()).isEqualTo(1);
+    }
+
+    @Test
+    void purgeRemovesOnlyExpiredEntries() {
+        SlidingWindowCounterMap counters = new SlidingWindowCounterMap(WINDOW, 16, 1024);
+        for (long key = 1; key <= 100; key++) {
+            counters.increment(key, 0L);
+        }
+        for (long key = 101; key <= 150; key++) {
+            counters.increment(key, 2 * WINDOW);
+        }
+
+        assertThat(counters.purgeExpired(2 * WINDOW)).isEqualTo(100);
+        assertThat(counters.size()).isEqualTo(50);
+        for (long key = 101; key <= 150; key++) {
+            assertThat(counters.get(key, 2 * WINDOW)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void evictsAtCapacityWithoutGrowing() {
+        int capacity = 1024;
+        SlidingWindowCounterMap counters = new SlidingWindowCounterMap(WINDOW, 16, capacity);
+        Random random = new Random(7);
+
+        // Flot de clés aléatoires bien supérieur à la capacité, sans aucune purge
+        long now = 0L;
+        for (int i = 0; i < 200_000; i++) {
+            counters.increment(random.nextLong(), now++);
+            assertThat(counters.size()).isLessThanOrEqualTo(capacity * 3 / 4);
+        }
+
+        // Une clé active reste comptée tant qu'elle est plus récente que ses voisines
+        for (int i = 0; i < 5; i++) {
+            counters.increment(123_456_789L, now);
+        }
+        assertThat(counters.get(123_456_789L, now)).isEqualTo(5);
+    }
+
+    @Test
+    void evictionPrefersOldestEntries() {
+        int capacity = 64;
+        SlidingWindowCounterMap counters = new SlidingWindowCounterMap(WINDOW, capacity, capacity);
+        for (long key = 1; key <= capacity * 3 / 4; key++) {
+            counters.increment(key, 0L);
+        }
+        counters.increment(1_000L, 10L);
+
+        // Seules les entrées à t=0 pouvaient être évincées ; la nouvelle clé est présente
+        assertThat(counters.size()).isEqualTo(capacity * 3 / 4);
+        assertThat(counters.get(1_000L, 10L)).isEqualTo(1);
+    }
+}